@@ -0,0 +1,80 @@
+package cryptotrader;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Cash, positions, reservations and open orders of one trading account.
+// Cash is in Money units and holdings in Quantity units.
+// Owned by a TradingCore and only touched while holding the account's lock,
+// so callers get at it through TradingCore.read and TradingCore.update.
+public class Account {
+    final int id;
+    final PnlEngine pnl;
+    long cash;
+    long reservedCash;
+    long[] reservedHoldings;
+    final Map<Long, OrderRecord> orders = new HashMap<>();
+    // Position in the TradingCore's change log the account is marked up to
+    long markedTo;
+    
+    Account(int id, long cash, PnlEngine pnl, int symbolCount) {
+        this.id = id;
+        this.cash = cash;
+        this.pnl = pnl;
+        this.reservedHoldings = new long[symbolCount];
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public long getCash() {
+        return cash;
+    }
+    
+    // Replaces the cash balance, for restoring an account from storage
+    public void setCash(long cash) {
+        this.cash = cash;
+    }
+    
+    // Cash not reserved for open buy orders
+    public long getAvailableCash() {
+        return cash - reservedCash;
+    }
+    
+    // Holdings not reserved for open sell orders
+    public long getAvailableQuantity(int symbolId) {
+        long reserved = symbolId < reservedHoldings.length ? reservedHoldings[symbolId] : 0;
+        return pnl.getQuantity(symbolId) - reserved;
+    }
+    
+    // The rules every order has to pass: a buy must be covered by cash and a
+    // sell by holdings, neither reserved for other orders
+    boolean canBuy(long cost) {
+        return cost <= getAvailableCash();
+    }
+    
+    boolean canSell(int symbolId, long amount) {
+        return amount <= getAvailableQuantity(symbolId);
+    }
+    
+    public PnlEngine getPnl() {
+        return pnl;
+    }
+    
+    public int getOpenOrderCount() {
+        return orders.size();
+    }
+    
+    public OrderRecord getOrder(long orderId) {
+        return orders.get(orderId);
+    }
+    
+    void reserveHoldings(int symbolId, long quantity) {
+        if (symbolId >= reservedHoldings.length) {
+            reservedHoldings = Arrays.copyOf(reservedHoldings, symbolId + 1);
+        }
+        reservedHoldings[symbolId] += quantity;
+    }
+}
@@ -0,0 +1,184 @@
+package cryptotrader;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Price alerts for every symbol, evaluated on each tick of the feed. Armed
+// alerts are indexed per symbol and condition in arrays sorted by threshold,
+// with the alert closest to triggering at the end, so a tick compares one
+// threshold per condition and otherwise only touches the alerts it crosses.
+// Alerts are one-shot: a triggered alert leaves the index before the
+// listener hears of it. Adding or cancelling costs O(alerts armed for the
+// symbol and condition).
+//
+// Move alerts look at the change over a rolling window, taken from a
+// RollingStats fed by the same ticks. Ticks, adds and cancels for a symbol
+// run under that symbol's lock.
+public class AlertEngine implements MarketDataFeed.TickListener {
+    
+    // Called on the feed thread under the symbol's lock, so implementations
+    // must not block or call back into the engine. changePercent is the move
+    // over the window for MOVE alerts and NaN for the others.
+    public interface AlertListener {
+        void onAlert(PriceAlert alert, double price, double changePercent);
+    }
+    
+    private final int symbolCount;
+    private final Object[] locks;
+    private final ThresholdIndex[] above;
+    private final ThresholdIndex[] below;
+    private final ThresholdIndex[] moves;
+    private final RollingStats moveStats;
+    private final AtomicLong nextAlertId = new AtomicLong();
+    private volatile AlertListener listener = (alert, price, changePercent) -> { };
+    
+    public AlertEngine(int symbolCount, long moveWindowMillis) {
+        this.symbolCount = symbolCount;
+        locks = new Object[symbolCount];
+        above = new ThresholdIndex[symbolCount];
+        below = new ThresholdIndex[symbolCount];
+        moves = new ThresholdIndex[symbolCount];
+        for (int i = 0; i < symbolCount; i++) {
+            locks[i] = new Object();
+            above[i] = new ThresholdIndex();
+            below[i] = new ThresholdIndex();
+            moves[i] = new ThresholdIndex();
+        }
+        moveStats = new RollingStats(symbolCount, moveWindowMillis, 60);
+    }
+    
+    public void setListener(AlertListener listener) {
+        this.listener = listener;
+    }
+    
+    public long getMoveWindowMillis() {
+        return moveStats.getWindowMillis();
+    }
+    
+    // Arms an alert. It triggers on the first tick that meets the condition,
+    // even when the price already met it when the alert was added.
+    public PriceAlert add(int symbolId, PriceAlert.Condition condition, double threshold) {
+        if (symbolId < 0 || symbolId >= symbolCount) {
+            throw new IllegalArgumentException("Unknown symbol " + symbolId);
+        }
+        if (!(threshold > 0) || Double.isInfinite(threshold)) {
+            throw new IllegalArgumentException("Threshold must be positive");
+        }
+        PriceAlert alert = new PriceAlert(nextAlertId.incrementAndGet(), symbolId, condition, threshold);
+        synchronized (locks[symbolId]) {
+            indexOf(alert).add(keyOf(condition, threshold), alert);
+        }
+        return alert;
+    }
+    
+    // Returns false if the alert already triggered or was cancelled
+    public boolean cancel(PriceAlert alert) {
+        synchronized (locks[alert.symbolId]) {
+            return indexOf(alert).remove(alert);
+        }
+    }
+    
+    public int getArmedCount(int symbolId) {
+        synchronized (locks[symbolId]) {
+            return above[symbolId].size + below[symbolId].size + moves[symbolId].size;
+        }
+    }
+    
+    @Override
+    public void onTick(Tick tick) {
+        if (tick.symbolId < symbolCount) {
+            onTick(tick.symbolId, tick.timestamp, tick.price, tick.size);
+        }
+    }
+    
+    public void onTick(int symbolId, long timestamp, double price, double size) {
+        moveStats.onTick(symbolId, timestamp, price, size);
+        synchronized (locks[symbolId]) {
+            AlertListener current = listener;
+            PriceAlert alert;
+            while ((alert = above[symbolId].poll(price)) != null) {
+                current.onAlert(alert, price, Double.NaN);
+            }
+            while ((alert = below[symbolId].poll(-price)) != null) {
+                current.onAlert(alert, price, Double.NaN);
+            }
+            if (moves[symbolId].size > 0) {
+                double change = moveStats.getChangePercent(symbolId);
+                while ((alert = moves[symbolId].poll(Math.abs(change))) != null) {
+                    current.onAlert(alert, price, change);
+                }
+            }
+        }
+    }
+    
+    private ThresholdIndex indexOf(PriceAlert alert) {
+        switch (alert.condition) {
+            case ABOVE:
+                return above[alert.symbolId];
+            case BELOW:
+                return below[alert.symbolId];
+            default:
+                return moves[alert.symbolId];
+        }
+    }
+    
+    // Every index triggers when key <= value, so below thresholds are
+    // negated and compared with the negated price
+    private static double keyOf(PriceAlert.Condition condition, double threshold) {
+        return condition == PriceAlert.Condition.BELOW ? -threshold : threshold;
+    }
+    
+    // Alerts of one symbol and condition, sorted by descending key so the
+    // next one to trigger is last
+    private static final class ThresholdIndex {
+        double[] keys = new double[0];
+        PriceAlert[] alerts = new PriceAlert[0];
+        int size;
+        
+        void add(double key, PriceAlert alert) {
+            if (size == keys.length) {
+                int capacity = Math.max(8, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                alerts = Arrays.copyOf(alerts, capacity);
+            }
+            // Before equal keys, so alerts with the same threshold trigger in the order they were added
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] > key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            System.arraycopy(keys, low, keys, low + 1, size - low);
+            System.arraycopy(alerts, low, alerts, low + 1, size - low);
+            keys[low] = key;
+            alerts[low] = alert;
+            size++;
+        }
+        
+        boolean remove(PriceAlert alert) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (alerts[i] == alert) {
+                    System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                    System.arraycopy(alerts, i + 1, alerts, i, size - i - 1);
+                    alerts[--size] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        // Removes and returns the next alert if value reaches its key
+        PriceAlert poll(double value) {
+            if (size == 0 || !(keys[size - 1] <= value)) {
+                return null;
+            }
+            PriceAlert alert = alerts[--size];
+            alerts[size] = null;
+            return alert;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package cryptotrader;
+
+// The account a strategy trades during a backtest. Orders fill at once at
+// the symbol's last price, and have to pass the same funds and holdings
+// rules as TradingCore.placeOrder; a rejected order is counted instead of
+// thrown, since strategies hit the rules far more often than a user does.
+// Cash and prices are Money, amounts Quantity. Confined to the thread
+// running the backtest.
+public class BacktestAccount {
+    private final Account account;
+    private final int[] quantityDecimals;
+    private final long[] prices;
+    private long timestamp;
+    private int tradeCount;
+    private int rejectedCount;
+    
+    BacktestAccount(long cash, int[] quantityDecimals, PnlEngine.CostBasis costBasis) {
+        int symbolCount = quantityDecimals.length;
+        this.account = new Account(0, cash, new PnlEngine(costBasis, symbolCount), symbolCount);
+        this.quantityDecimals = quantityDecimals;
+        this.prices = new long[symbolCount];
+    }
+    
+    void onPrice(int symbolId, long timestamp, long price) {
+        this.timestamp = timestamp;
+        prices[symbolId] = price;
+        account.pnl.onPrice(symbolId, price);
+    }
+    
+    // Returns false if the cash does not cover the order
+    public boolean buy(int symbolId, long amount) {
+        long price = checkOrder(symbolId, amount);
+        long cost = Money.times(price, amount);
+        if (!account.canBuy(cost)) {
+            rejectedCount++;
+            return false;
+        }
+        account.cash -= cost;
+        account.pnl.onBuy(symbolId, amount, price);
+        tradeCount++;
+        return true;
+    }
+    
+    // Returns false if the holdings do not cover the order
+    public boolean sell(int symbolId, long amount) {
+        long price = checkOrder(symbolId, amount);
+        if (!account.canSell(symbolId, amount)) {
+            rejectedCount++;
+            return false;
+        }
+        account.cash += Money.times(price, amount);
+        account.pnl.onSell(symbolId, amount, price);
+        tradeCount++;
+        return true;
+    }
+    
+    private long checkOrder(int symbolId, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        if (!Quantity.isMultipleOfLot(amount, quantityDecimals[symbolId])) {
+            throw new IllegalArgumentException("Amount finer than " + quantityDecimals[symbolId] + " decimals");
+        }
+        long price = prices[symbolId];
+        if (price <= 0) {
+            throw new IllegalArgumentException("No price yet for symbol " + symbolId);
+        }
+        return price;
+    }
+    
+    public long getCash() {
+        return account.cash;
+    }
+    
+    public long getQuantity(int symbolId) {
+        return account.pnl.getQuantity(symbolId);
+    }
+    
+    public long getPrice(int symbolId) {
+        return prices[symbolId];
+    }
+    
+    public int getQuantityDecimals(int symbolId) {
+        return quantityDecimals[symbolId];
+    }
+    
+    // Cash plus holdings at their last prices
+    public long getEquity() {
+        return account.cash + account.pnl.getTotalValue();
+    }
+    
+    // Time of the tick being replayed
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public int getTradeCount() {
+        return tradeCount;
+    }
+    
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+}
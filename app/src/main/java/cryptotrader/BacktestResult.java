@@ -0,0 +1,58 @@
+package cryptotrader;
+
+// Outcome of one backtest run. The P&L curve is sampled at the first tick
+// of every interval, plus the last tick of the tape; P&L and drawdown are
+// Money and track every tick, not just the samples.
+public class BacktestResult {
+    private final long[] curveTimestamps;
+    private final long[] curvePnl;
+    private final long finalPnl;
+    private final long maxDrawdown;
+    private final double maxDrawdownPercent;
+    private final int tradeCount;
+    private final int rejectedCount;
+    
+    BacktestResult(long[] curveTimestamps, long[] curvePnl, long finalPnl, long maxDrawdown,
+            double maxDrawdownPercent, int tradeCount, int rejectedCount) {
+        this.curveTimestamps = curveTimestamps;
+        this.curvePnl = curvePnl;
+        this.finalPnl = finalPnl;
+        this.maxDrawdown = maxDrawdown;
+        this.maxDrawdownPercent = maxDrawdownPercent;
+        this.tradeCount = tradeCount;
+        this.rejectedCount = rejectedCount;
+    }
+    
+    public int getCurveSize() {
+        return curvePnl.length;
+    }
+    
+    public long getCurveTimestamp(int index) {
+        return curveTimestamps[index];
+    }
+    
+    public long getCurvePnl(int index) {
+        return curvePnl[index];
+    }
+    
+    public long getFinalPnl() {
+        return finalPnl;
+    }
+    
+    // Largest fall of equity from a previous peak
+    public long getMaxDrawdown() {
+        return maxDrawdown;
+    }
+    
+    public double getMaxDrawdownPercent() {
+        return maxDrawdownPercent;
+    }
+    
+    public int getTradeCount() {
+        return tradeCount;
+    }
+    
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+}
@@ -0,0 +1,10 @@
+package cryptotrader;
+
+// Trading rules run against recorded ticks by a Backtester. Every run gets
+// its own instance, so implementations can keep state in plain fields.
+public interface BacktestStrategy {
+    
+    // Called for every tick of the tape in order, after the account was
+    // marked to the new price. price is Money.
+    void onTick(BacktestAccount account, int symbolId, long price);
+}
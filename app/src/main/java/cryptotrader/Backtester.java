@@ -0,0 +1,200 @@
+package cryptotrader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+// Replays a TickTape through strategies. Runs share nothing but the
+// read-only tape: each gets its own BacktestAccount and strategy instance,
+// so a sweep over many strategies or parameter sets splits across a
+// fork-join pool without locks, and its memory grows with the number of
+// runs and curve samples rather than with the length of the tape.
+public class Backtester {
+    private final TickTape tape;
+    private final int[] quantityDecimals;
+    private final long startingCash;
+    private final PnlEngine.CostBasis costBasis;
+    private final long curveIntervalMillis;
+    
+    public Backtester(TickTape tape, int[] quantityDecimals, long startingCash, PnlEngine.CostBasis costBasis,
+            long curveIntervalMillis) {
+        this.tape = tape;
+        this.quantityDecimals = quantityDecimals.clone();
+        this.startingCash = startingCash;
+        this.costBasis = costBasis;
+        this.curveIntervalMillis = Math.max(1, curveIntervalMillis);
+    }
+    
+    // Runs one strategy on the calling thread
+    public BacktestResult run(BacktestStrategy strategy) {
+        BacktestAccount account = new BacktestAccount(startingCash, quantityDecimals, costBasis);
+        int symbolCount = quantityDecimals.length;
+        long[] timestamps = new long[64];
+        long[] pnl = new long[64];
+        int samples = 0;
+        long nextSample = Long.MIN_VALUE;
+        long peak = startingCash;
+        long maxDrawdown = 0;
+        double maxDrawdownPercent = 0;
+        long equity = startingCash;
+        long timestamp = 0;
+        
+        long size = tape.size();
+        for (long i = 0; i < size; i++) {
+            int symbolId = tape.getSymbolId(i);
+            if (symbolId < 0 || symbolId >= symbolCount) {
+                continue;
+            }
+            timestamp = tape.getTimestamp(i);
+            long price = Money.of(tape.getPrice(i));
+            account.onPrice(symbolId, timestamp, price);
+            strategy.onTick(account, symbolId, price);
+            
+            equity = account.getEquity();
+            if (equity > peak) {
+                peak = equity;
+            } else if (peak - equity > maxDrawdown) {
+                maxDrawdown = peak - equity;
+            }
+            if (peak > 0 && peak - equity > 0) {
+                maxDrawdownPercent = Math.max(maxDrawdownPercent, (double) (peak - equity) / peak * 100);
+            }
+            if (timestamp >= nextSample) {
+                if (samples == pnl.length) {
+                    timestamps = Arrays.copyOf(timestamps, samples * 2);
+                    pnl = Arrays.copyOf(pnl, samples * 2);
+                }
+                timestamps[samples] = timestamp;
+                pnl[samples++] = equity - startingCash;
+                nextSample = (Math.floorDiv(timestamp, curveIntervalMillis) + 1) * curveIntervalMillis;
+            }
+        }
+        // The curve always ends at the last tick
+        if (samples == 0 || timestamps[samples - 1] != timestamp || pnl[samples - 1] != equity - startingCash) {
+            timestamps = Arrays.copyOf(timestamps, samples + 1);
+            pnl = Arrays.copyOf(pnl, samples + 1);
+            timestamps[samples] = timestamp;
+            pnl[samples++] = equity - startingCash;
+        }
+        return new BacktestResult(Arrays.copyOf(timestamps, samples), Arrays.copyOf(pnl, samples),
+                equity - startingCash, maxDrawdown, maxDrawdownPercent,
+                account.getTradeCount(), account.getRejectedCount());
+    }
+    
+    // Runs every strategy on the pool. Results are in the order of the suppliers.
+    public List<BacktestResult> runAll(List<? extends Supplier<? extends BacktestStrategy>> strategies,
+            ForkJoinPool pool) {
+        BacktestResult[] results = new BacktestResult[strategies.size()];
+        pool.invoke(new Runs(strategies, results, 0, results.length));
+        return Arrays.asList(results);
+    }
+    
+    // Splits a range of runs in halves down to single runs
+    private final class Runs extends RecursiveAction {
+        private final List<? extends Supplier<? extends BacktestStrategy>> strategies;
+        private final BacktestResult[] results;
+        private final int from;
+        private final int to;
+        
+        Runs(List<? extends Supplier<? extends BacktestStrategy>> strategies, BacktestResult[] results,
+                int from, int to) {
+            this.strategies = strategies;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    results[from] = run(strategies.get(from).get());
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Runs(strategies, results, from, middle), new Runs(strategies, results, middle, to));
+        }
+    }
+    
+    // Sweeps moving-average crossovers for every symbol over a recorded tick file:
+    //     java -cp app.jar cryptotrader.Backtester ticks.csv
+    // The CSV file is in the FileTickReplayer format and is converted to a
+    // tape next to it on first use. Symbols are the tickers in
+    // cryptotrader.backtest.symbols.
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length != 1) {
+            System.err.println("Usage: Backtester <ticks.csv | ticks.tape>");
+            System.exit(2);
+        }
+        InstrumentRegistry registry = new InstrumentRegistry();
+        for (String ticker : System.getProperty("cryptotrader.backtest.symbols", "BTC,ETH,BNB,ADA,SOL,XRP").split(",")) {
+            registry.register(ticker.trim());
+        }
+        
+        Path file = Paths.get(args[0]);
+        Path tapeFile = file;
+        if (!file.toString().endsWith(".tape")) {
+            tapeFile = Paths.get(file + ".tape");
+            if (!Files.exists(tapeFile)
+                    || Files.getLastModifiedTime(tapeFile).compareTo(Files.getLastModifiedTime(file)) < 0) {
+                try (FileTickReplayer replayer = new FileTickReplayer(file, registry, 0)) {
+                    long count = TickTape.write(replayer, tapeFile);
+                    System.out.println("Converted " + count + " ticks to " + tapeFile);
+                }
+            }
+        }
+        TickTape tape = TickTape.open(tapeFile);
+        
+        int[] quantityDecimals = new int[registry.size()];
+        Arrays.fill(quantityDecimals, Quantity.DECIMALS);
+        Backtester backtester = new Backtester(tape, quantityDecimals, 10_000 * Money.SCALE,
+                PnlEngine.CostBasis.FIFO, OhlcvAggregator.HOUR);
+        int[] fastTicks = {5, 10, 20, 50, 100};
+        int[] slowTicks = {50, 100, 200, 500, 1000, 2000};
+        List<Supplier<BacktestStrategy>> runs = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        for (int symbolId = 0; symbolId < registry.size(); symbolId++) {
+            for (int fast : fastTicks) {
+                for (int slow : slowTicks) {
+                    if (fast < slow) {
+                        int id = symbolId;
+                        runs.add(() -> new MovingAverageCrossStrategy(id, fast, slow, 0.5));
+                        labels.add(registry.getTicker(symbolId) + " " + fast + "/" + slow);
+                    }
+                }
+            }
+        }
+        
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        long start = System.nanoTime();
+        List<BacktestResult> results = backtester.runAll(runs, pool);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("%,d runs over %,d ticks in %,d ms on %d threads%n",
+                runs.size(), tape.size(), millis, pool.getParallelism());
+        
+        Integer[] order = new Integer[results.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> -results.get(i).getFinalPnl()));
+        FixedFormat pnlFormat = new FixedFormat("$+#,##0.00");
+        FixedFormat moneyFormat = new FixedFormat("$#,##0.00");
+        System.out.printf("%-16s %16s %16s %9s %7s %8s%n", "Run", "P&L", "Max drawdown", "", "Trades", "Rejected");
+        for (int i = 0; i < Math.min(10, order.length); i++) {
+            BacktestResult result = results.get(order[i]);
+            System.out.printf("%-16s %16s %16s %8.2f%% %7d %8d%n", labels.get(order[i]),
+                    pnlFormat.format(result.getFinalPnl(), Money.DECIMALS),
+                    moneyFormat.format(result.getMaxDrawdown(), Money.DECIMALS),
+                    result.getMaxDrawdownPercent(), result.getTradeCount(), result.getRejectedCount());
+        }
+    }
+}
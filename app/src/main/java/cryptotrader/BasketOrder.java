@@ -0,0 +1,117 @@
+package cryptotrader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// One order of a basket placed through TradingCore.placeBasket. Prices are
+// Money, the limit price or the protection price of a market order, and
+// amounts Quantity.
+public class BasketOrder {
+    private static final int MAX_REPORTED_ERRORS = 10;
+    
+    final int symbolId;
+    final boolean buy;
+    final boolean limit;
+    final long price;
+    final long amount;
+    
+    public BasketOrder(int symbolId, boolean buy, boolean limit, long price, long amount) {
+        this.symbolId = symbolId;
+        this.buy = buy;
+        this.limit = limit;
+        this.price = price;
+        this.amount = amount;
+    }
+    
+    public int getSymbolId() {
+        return symbolId;
+    }
+    
+    public boolean isBuy() {
+        return buy;
+    }
+    
+    public boolean isLimit() {
+        return limit;
+    }
+    
+    public long getPrice() {
+        return price;
+    }
+    
+    public long getAmount() {
+        return amount;
+    }
+    
+    // Reads a basket from a CSV file with lines
+    //     symbol,side,amount[,limitPrice]
+    // such as "BTC,BUY,0.05" or "ETH,SELL,1.5,2400", where symbol is a
+    // ticker, side is BUY or SELL and the limit price is in USD. Lines
+    // without a limit price are market orders, protected at protection
+    // from the Money price in marketPrices. Blank lines, lines starting
+    // with '#' and a "symbol,..." header are skipped. Amounts are rounded to
+    // the symbol's decimals. Any bad line rejects the whole file with an
+    // IllegalArgumentException listing the first few errors.
+    public static List<BasketOrder> readCsv(Path file, InstrumentRegistry registry, int[] quantityDecimals,
+            long[] marketPrices, double protection) throws IOException {
+        List<BasketOrder> orders = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        int errorCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.toLowerCase(Locale.ROOT).startsWith("symbol,")) {
+                    continue;
+                }
+                String error = null;
+                String[] fields = line.split(",");
+                if (fields.length != 3 && fields.length != 4) {
+                    error = "expected symbol,side,amount[,limitPrice]";
+                } else {
+                    int symbolId = registry.idOfTicker(fields[0].trim().toUpperCase(Locale.ROOT));
+                    String side = fields[1].trim().toUpperCase(Locale.ROOT);
+                    if (symbolId < 0 || symbolId >= quantityDecimals.length) {
+                        error = "unknown symbol " + fields[0].trim();
+                    } else if (!side.equals("BUY") && !side.equals("SELL")) {
+                        error = "side must be BUY or SELL";
+                    } else {
+                        try {
+                            boolean buy = side.equals("BUY");
+                            long amount = Quantity.of(Double.parseDouble(fields[2].trim()), quantityDecimals[symbolId]);
+                            boolean limit = fields.length == 4;
+                            long price = limit
+                                    ? Money.of(Double.parseDouble(fields[3].trim()))
+                                    : Money.of(Money.toDouble(marketPrices[symbolId]) * (buy ? 1 + protection : 1 - protection));
+                            if (amount <= 0) {
+                                error = "amount must be at least one lot";
+                            } else if (price <= 0) {
+                                error = limit ? "limit price must be positive" : "no market price";
+                            } else {
+                                orders.add(new BasketOrder(symbolId, buy, limit, price, amount));
+                            }
+                        } catch (NumberFormatException e) {
+                            error = "invalid number";
+                        }
+                    }
+                }
+                if (error != null && errorCount++ < MAX_REPORTED_ERRORS) {
+                    errors.add("line " + lineNumber + ": " + error);
+                }
+            }
+        }
+        if (errorCount > 0) {
+            String more = errorCount > errors.size() ? "\n(" + (errorCount - errors.size()) + " more)" : "";
+            throw new IllegalArgumentException(String.join("\n", errors) + more);
+        }
+        return orders;
+    }
+}
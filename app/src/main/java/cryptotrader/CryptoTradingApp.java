@@ -0,0 +1,1748 @@
+package cryptotrader;
+
+import javax.swing.*;
+import javax.swing.border.*;
+import javax.swing.table.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class CryptoTradingApp extends JFrame {
+    private static final Logger LOG = Logger.getLogger(CryptoTradingApp.class.getName());
+    
+    // Main panels
+    private JPanel mainPanel;
+    private JTabbedPane tabbedPane;
+    
+    // Market panel components
+    private JTable marketTable;
+    private MarketTableModel marketModel;
+    private MarketRowSorter marketSorter;
+    private JTextField searchField;
+    private InstrumentSearch instrumentSearch;
+    
+    // Portfolio panel components
+    private JTable portfolioTable;
+    private PortfolioTableModel portfolioModel;
+    private JLabel portfolioValueLabel;
+    private JLabel assetsLabel;
+    private JLabel profitLossLabel;
+    private JLabel dayChangeLabel;
+    
+    // Header components
+    private JLabel balanceLabel;
+    
+    // Trading panel components
+    private JComboBox<String> cryptoSelector;
+    private JTextField amountField;
+    private JLabel priceLabel;
+    private JLabel totalLabel;
+    private JRadioButton buyButton;
+    private JRadioButton sellButton;
+    private JComboBox<String> orderTypeSelector;
+    private JTextField limitPriceField;
+    private JTable openOrdersTable;
+    private OpenOrdersTableModel openOrdersModel;
+    private JLabel highLabel;
+    private JLabel lowLabel;
+    private JLabel volumeLabel;
+    private JLabel vwapLabel;
+    private JLabel dailyChangeLabel;
+    private JLabel tradeCountLabel;
+    private JLabel marketCapLabel;
+    private JLabel supplyLabel;
+    
+    // Sample data
+    private String[] cryptos = {"Bitcoin (BTC)", "Ethereum (ETH)", "Binance Coin (BNB)",
+                               "Cardano (ADA)", "Solana (SOL)", "Ripple (XRP)"};
+    private double[] prices = {42568.30, 2298.45, 312.78, 0.48, 102.35, 0.52};
+    private double[] changes = {2.5, -1.2, 0.8, 3.2, -0.5, 1.7};
+    private int[] quantityDecimals = {8, 8, 8, 6, 8, 6};
+    
+    // Market data
+    private MarketDataFeed marketDataFeed;
+    private MarketDataFeed.Subscription marketDataSubscription;
+    private MarketDataFeed.UpdateHandler marketUpdateHandler = this::onMarketUpdate;
+    private double[] openPrices;
+    private OhlcvAggregator candles = new OhlcvAggregator(cryptos.length);
+    private PriceChart priceChart;
+    private RollingStats dailyStats = new RollingStats(cryptos.length, 24 * OhlcvAggregator.HOUR, 288);
+    // Every tick, kept off the heap across restarts. Null when disabled or it failed to open.
+    private TickStore tickStore;
+    
+    // Price alerts are evaluated on the feed thread and reach the EDT as queued events
+    private static final String[] ALERT_CONDITIONS = {"Price above", "Price below", "Moves by % in 1h"};
+    private AlertEngine alertEngine = new AlertEngine(cryptos.length, OhlcvAggregator.HOUR);
+    private Queue<Runnable> alertEvents = new ConcurrentLinkedQueue<>();
+    private JLabel alertLabel;
+    private String lastAlertText;
+    private int pendingAlerts;
+    
+    // Live UI updates
+    private UiUpdatePipeline uiPipeline;
+    private DirtyCellTracker marketDirty = new DirtyCellTracker();
+    private DirtyCellTracker portfolioDirty = new DirtyCellTracker();
+    // Rankings follow every tick in O(log n); the leaderboard reads its rows once per frame
+    private static final int TOP_MOVERS_ROWS = 10;
+    private TopMoversTableModel topMoversModel = new TopMoversTableModel(cryptos, TOP_MOVERS_ROWS);
+    private boolean selectedPriceChanged;
+    private boolean portfolioChanged;
+    
+    // Latency metrics, exposed through JMX and dumped to a CSV file
+    private LatencyMetrics metrics = new LatencyMetrics();
+    private LatencyHistogram tradeLatency = metrics.histogram("trade");
+    private LatencyHistogram tradeRoundTrip = metrics.histogram("tradeRoundTrip");
+    private LatencyHistogram firstFrameLatency = metrics.histogram("timeToFirstFrame");
+    private LatencyHistogram tickToScreen = metrics.histogram("tickToScreen");
+    private LatencyHistogram eventQueueDelay = metrics.histogram("edtQueueDelay");
+    private LatencyHistogram tableRefresh = metrics.histogram("tableRefresh");
+    private LatencyHistogram valuationLatency = metrics.histogram("portfolioValuation");
+    // Reused by every summary refresh, so reading the account allocates nothing
+    private final PortfolioSummary portfolioSummary = new PortfolioSummary();
+    // When each update applied in the current frame was queued by the feed
+    private long[] frameQueuedNanos = new long[cryptos.length];
+    private int frameUpdates;
+    
+    // Startup: tabs built on first selection, and the last prices and
+    // portfolio shown until the account is restored off the EDT
+    private static final String WARM_START_FILE = "warmstart";
+    private Map<Component, Supplier<JPanel>> lazyTabs = new HashMap<>();
+    private WarmStartSnapshot warmStart;
+    private boolean accountReady;
+    private boolean firstFramePainted;
+    
+    // Quote currency of the balance, portfolio and trade ticket. Values are
+    // kept in USD and converted at the cross rate of the selected quote,
+    // which only moves when one of the pairs on its route ticks.
+    private static final String[] QUOTE_CURRENCIES = {"USD", "EUR", "BTC", "ETH"};
+    private static final String[] QUOTE_PATTERNS = {"$#,##0.00", "€#,##0.00", "#,##0.00000000 BTC", "#,##0.00000000 ETH"};
+    private static final String[] QUOTE_SIGNED_PATTERNS = {"$+#,##0.00", "€+#,##0.00", "+#,##0.00000000 BTC", "+#,##0.00000000 ETH"};
+    private static final String[] QUOTE_INPUT_PATTERNS = {"0.00", "0.00", "0.00000000", "0.00000000"};
+    private CurrencyConverter converter = new CurrencyConverter();
+    private int usd = converter.addCurrency("USD");
+    private int[] symbolPairs = new int[cryptos.length];
+    private int[] quoteCurrencyIds = new int[QUOTE_CURRENCIES.length];
+    private int quoteIndex;
+    // Units of the quote currency per USD
+    private double quoteRate = 1;
+    private boolean quoteRateChanged;
+    private FixedFormat quoteFormat = new FixedFormat(QUOTE_PATTERNS[0]);
+    private FixedFormat quoteSignedFormat = new FixedFormat(QUOTE_SIGNED_PATTERNS[0]);
+    private FixedFormat quoteInputFormat = new FixedFormat(QUOTE_INPUT_PATTERNS[0]);
+    private JComboBox<String> quoteSelector;
+    // Money, the last cash balance shown in the header
+    private long cashBalance;
+    
+    // Instruments, indexed by symbol id
+    private InstrumentRegistry registry = new InstrumentRegistry();
+    
+    // Trading: the UI is one client of the core and trades for one account
+    private static final long STARTING_BALANCE = 10_000 * Money.SCALE;
+    private static final double MARKET_ORDER_PROTECTION = 0.01; // Market orders fill within 1% of the last price
+    private TradingCore tradingCore = new TradingCore(cryptos.length,
+            PnlEngine.CostBasis.valueOf(System.getProperty("cryptotrader.costBasis", "FIFO")));
+    private final int userAccount = tradingCore.openAccount(STARTING_BALANCE);
+    // Order events for the EDT, queued by the core's listener
+    private Queue<Runnable> orderEvents = new ConcurrentLinkedQueue<>();
+    // Symbols filled in the current frame, refreshed once after its events
+    private boolean[] positionChanged = new boolean[cryptos.length];
+    private int[] changedSymbols = new int[cryptos.length];
+    private int changedCount;
+    // Baskets with market orders still open, by order
+    private Map<OrderRecord, Basket> basketOfOrder = new HashMap<>();
+    
+    // Trade journal of the user account, written under the account lock.
+    // Null when journaling is off or the journal failed.
+    private static final int SNAPSHOT_VERSION = 2;
+    private volatile TradeJournal journal;
+    
+    // Formatters
+    private FixedFormat df = new FixedFormat("#,##0.00");
+    private FixedFormat changeFormat = new FixedFormat("+#,##0.00");
+    private FixedFormat amountFormat = new FixedFormat("#,##0.########");
+    private FixedFormat inputFormat = new FixedFormat("0.00");
+    
+    public CryptoTradingApp() {
+        // Symbol ids follow the order of the sample data
+        for (int i = 0; i < cryptos.length; i++) {
+            registry.register(cryptos[i]);
+            tradingCore.setQuantityDecimals(i, quantityDecimals[i]);
+        }
+        
+        // Show the prices and portfolio of the last exit right away; the
+        // account itself is restored in the background once the window is up
+        if (journalEnabled()) {
+            warmStart = WarmStartSnapshot.read(dataDir().resolve(WARM_START_FILE), cryptos);
+        }
+        if (warmStart != null) {
+            System.arraycopy(warmStart.prices, 0, prices, 0, prices.length);
+            System.arraycopy(warmStart.changes, 0, changes, 0, changes.length);
+        }
+        // Every instrument is quoted against USD; EUR has no feed and keeps a fixed rate
+        int eur = converter.addCurrency("EUR");
+        converter.addPair(eur, usd, Double.parseDouble(System.getProperty("cryptotrader.eurUsd", "1.08")));
+        for (int i = 0; i < cryptos.length; i++) {
+            tradingCore.onPrice(i, Money.of(prices[i]));
+            symbolPairs[i] = converter.addPair(converter.addCurrency(registry.getTicker(i)), usd, prices[i]);
+        }
+        for (int i = 0; i < QUOTE_CURRENCIES.length; i++) {
+            quoteCurrencyIds[i] = converter.addCurrency(QUOTE_CURRENCIES[i]);
+        }
+        
+        // Set up the frame
+        setTitle("CryptoTrader - Simple Trading Platform");
+        setSize(800, 600);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                saveWarmStart();
+            }
+        });
+        
+        // Create main panel with tabs
+        mainPanel = new JPanel(new BorderLayout()) {
+            @Override
+            public void paint(Graphics g) {
+                super.paint(g);
+                if (!firstFramePainted) {
+                    firstFramePainted = true;
+                    long sinceLaunch = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+                    firstFrameLatency.record(TimeUnit.MILLISECONDS.toNanos(sinceLaunch));
+                }
+            }
+        };
+        tabbedPane = new JTabbedPane();
+        
+        // Only the Market tab is built up front, the others the first time they are selected
+        tabbedPane.addTab("Market", createMarketPanel());
+        addLazyTab("Portfolio", this::createPortfolioPanel);
+        addLazyTab("Trade", this::createTradePanel);
+        tabbedPane.addChangeListener(e -> buildSelectedTab());
+        
+        mainPanel.add(createHeaderPanel(), BorderLayout.NORTH);
+        mainPanel.add(tabbedPane, BorderLayout.CENTER);
+        mainPanel.add(createFooterPanel(), BorderLayout.SOUTH);
+        
+        // Add main panel to frame
+        add(mainPanel);
+        
+        startMarketData();
+        restoreAccountInBackground();
+    }
+    
+    private void addLazyTab(String title, Supplier<JPanel> factory) {
+        JPanel placeholder = new JPanel(new BorderLayout());
+        lazyTabs.put(placeholder, factory);
+        tabbedPane.addTab(title, placeholder);
+    }
+    
+    private void buildSelectedTab() {
+        Component selected = tabbedPane.getSelectedComponent();
+        Supplier<JPanel> factory = lazyTabs.remove(selected);
+        if (factory != null) {
+            JPanel placeholder = (JPanel) selected;
+            placeholder.add(factory.get(), BorderLayout.CENTER);
+            placeholder.revalidate();
+        }
+    }
+    
+    // Replays the journal on its own thread, so a long trade history does
+    // not hold up the first frame. Trading waits until it is done.
+    private void restoreAccountInBackground() {
+        Thread thread = new Thread(() -> {
+            if (!restoreAccount()) {
+                buySample("BTC", 0.05);
+                buySample("ETH", 1.2);
+                buySample("ADA", 500.0);
+                snapshotAccount();
+            }
+            SwingUtilities.invokeLater(this::onAccountRestored);
+        }, "account-restore");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void onAccountRestored() {
+        accountReady = true;
+        showBalance(tradingCore.getCash(userAccount));
+        loadPortfolio();
+        saveWarmStart();
+    }
+    
+    private void saveWarmStart() {
+        if (!accountReady || !journalEnabled()) {
+            return;
+        }
+        WarmStartSnapshot snapshot = tradingCore.read(userAccount,
+                account -> WarmStartSnapshot.of(prices, changes, account));
+        try {
+            snapshot.write(dataDir().resolve(WARM_START_FILE), cryptos);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Cannot save the warm start snapshot", e);
+        }
+    }
+    
+    private void buySample(String ticker, double amount) {
+        int symbolId = registry.idOfTicker(ticker);
+        long quantity = Quantity.of(amount, quantityDecimals[symbolId]);
+        long price = tradingCore.getPrice(symbolId);
+        tradingCore.update(userAccount, account -> account.getPnl().onBuy(symbolId, quantity, price));
+    }
+    
+    // Opens the journal and replays it into the user account.
+    // Returns false if there was nothing to restore.
+    private boolean restoreAccount() {
+        if (!journalEnabled()) {
+            return false;
+        }
+        Path directory = dataDir().resolve("journal");
+        JournalReplayer replayer = new JournalReplayer();
+        try {
+            try {
+                openJournal(directory, replayer);
+            } catch (JournalFormatException e) {
+                // Written by another version; it would fail the same way on
+                // every start, so keep it for inspection and start afresh
+                closeJournal();
+                resetAccount();
+                Path aside = TradeJournal.moveAside(directory);
+                LOG.log(Level.WARNING, "Moved the journal to " + aside + " and started a new one", e);
+                replayer = new JournalReplayer();
+                openJournal(directory, replayer);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.SEVERE, "Cannot restore from the journal in " + directory + ", trades will not be saved", e);
+            closeJournal();
+            // Drop whatever was replayed before the failure
+            resetAccount();
+            return false;
+        }
+        
+        TradeJournal opened = journal;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                opened.close();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Cannot close the trade journal", e);
+            }
+        }, "journal-close"));
+        return replayer.restored;
+    }
+    
+    private void openJournal(Path directory, JournalReplayer replayer) throws IOException {
+        journal = new TradeJournal(directory, 64 << 20,
+                Integer.getInteger("cryptotrader.journal.syncRecords", 256),
+                Long.getLong("cryptotrader.journal.syncMillis", 50),
+                Long.getLong("cryptotrader.journal.snapshotRecords", 100_000));
+        TradeJournal opened = journal;
+        try {
+            tradingCore.update(userAccount, account -> {
+                replayer.account = account;
+                try {
+                    opened.replay(replayer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    // Back to the starting balance with nothing held; the account has no
+    // open orders before it is restored
+    private void resetAccount() {
+        tradingCore.update(userAccount, account -> {
+            account.setCash(STARTING_BALANCE);
+            account.getPnl().clear();
+        });
+    }
+    
+    private static boolean journalEnabled() {
+        return Boolean.parseBoolean(System.getProperty("cryptotrader.journal", "true"));
+    }
+    
+    private static Path dataDir() {
+        return Paths.get(System.getProperty("cryptotrader.dataDir",
+                Paths.get(System.getProperty("user.home"), ".cryptotrader").toString()));
+    }
+    
+    private void writeAccount(Account account, DataOutputStream out) throws IOException {
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeInt(cryptos.length);
+        for (String name : cryptos) {
+            out.writeUTF(name);
+        }
+        out.writeLong(account.getCash());
+        account.getPnl().writeTo(out);
+    }
+    
+    private void snapshotAccount() {
+        tradingCore.update(userAccount, account -> {
+            TradeJournal current = journal;
+            if (current == null) {
+                return;
+            }
+            try {
+                current.writeSnapshot(out -> writeAccount(account, out));
+            } catch (IOException e) {
+                journalFailed(e);
+            }
+        });
+    }
+    
+    // Journal writes only copy into the mapped segment; the disk sync happens
+    // in groups on the journal's own thread
+    private void journalOrder(OrderRecord order) {
+        TradeJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.appendOrder(order.orderId, order.symbolId, order.buy, order.limit, order.price, order.amount);
+        } catch (IOException e) {
+            journalFailed(e);
+        }
+    }
+    
+    private void journalFill(Account account, OrderRecord order, long price, long quantity) {
+        TradeJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.appendFill(order.orderId, order.symbolId, order.buy, price, quantity);
+            current.appendBalance(account.getCash());
+            if (current.isSnapshotDue()) {
+                current.writeSnapshot(out -> writeAccount(account, out));
+            }
+        } catch (IOException e) {
+            journalFailed(e);
+        }
+    }
+    
+    private void journalClosed(OrderRecord order, long unfilled) {
+        TradeJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.appendOrderClosed(order.orderId, order.symbolId, unfilled);
+        } catch (IOException e) {
+            journalFailed(e);
+        }
+    }
+    
+    private void journalFailed(IOException e) {
+        LOG.log(Level.SEVERE, "Trade journal failed, trades are no longer saved", e);
+        closeJournal();
+    }
+    
+    private void closeJournal() {
+        TradeJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        journal = null;
+        try {
+            current.close();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Cannot close the trade journal", e);
+        }
+    }
+    
+    private void startMarketData() {
+        // Price 24h ago, derived from the sample changes, used as the reference for the change column
+        openPrices = new double[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            openPrices[i] = prices[i] / (1 + changes[i] / 100);
+        }
+        setReferencePrices();
+        
+        TickSource source = null;
+        String replayFile = System.getProperty("cryptotrader.replay");
+        if (replayFile != null) {
+            try {
+                double speed = Double.parseDouble(System.getProperty("cryptotrader.replay.speed", "1"));
+                source = new FileTickReplayer(Paths.get(replayFile), registry, speed);
+            } catch (IOException | NumberFormatException e) {
+                LOG.log(Level.WARNING, "Cannot replay " + replayFile + ", using simulated prices", e);
+            }
+        }
+        if (source == null) {
+            double rate = Double.parseDouble(System.getProperty("cryptotrader.feed.rate", "1000"));
+            source = new RandomWalkTickSource(prices, rate, 0.00005, System.nanoTime());
+        }
+        
+        marketDataFeed = new MarketDataFeed(source, prices);
+        marketDataSubscription = marketDataFeed.subscribe();
+        tickStore = openTickStore();
+        TickBackfill backfill = null;
+        if (tickStore == null) {
+            marketDataFeed.addTickListener(candles);
+            marketDataFeed.addTickListener(dailyStats);
+        } else {
+            // The candles and the 24h statistics also pick up the stored history
+            backfill = new TickBackfill(tickStore, cryptos.length, candles, dailyStats);
+            marketDataFeed.addTickListener(backfill);
+        }
+        marketDataFeed.addTickListener(alertEngine);
+        alertEngine.setListener((alert, price, changePercent) ->
+                alertEvents.add(() -> onAlert(alert, price, changePercent)));
+        marketDataFeed.addTickListener(tick -> tradingCore.onPrice(tick.getSymbolId(), Money.of(tick.getPrice())));
+        tradingCore.setListener(new UserTradeListener());
+        
+        // The engine quotes house liquidity at the feed price, seeded with the starting prices
+        MatchingEngine matchingEngine = tradingCore.getEngine();
+        matchingEngine.setQuoteSource(marketDataFeed.subscribe());
+        for (int i = 0; i < prices.length; i++) {
+            matchingEngine.quote(i, prices[i]);
+        }
+        matchingEngine.start();
+        marketDataFeed.start();
+        if (backfill != null) {
+            // Live prices show at once; the chart and 24h statistics catch up
+            // symbol by symbol as their history loads
+            TickBackfill loading = backfill;
+            long from = System.currentTimeMillis() - tickStore.getRetentionMillis();
+            Thread history = new Thread(() -> loading.loadAll(from), "tick-history");
+            history.setDaemon(true);
+            history.start();
+        }
+        
+        // Every price change reaches the screen through one capped frame
+        int fps = Integer.getInteger("cryptotrader.ui.fps", UiUpdatePipeline.DEFAULT_FRAME_RATE);
+        uiPipeline = new UiUpdatePipeline(fps);
+        uiPipeline.addTask(this::applyMarketData);
+        uiPipeline.start();
+        
+        metrics.probeEventQueue(eventQueueDelay, 100);
+        metrics.dumpCsv(dataDir().resolve("metrics.csv"), Long.getLong("cryptotrader.metrics.intervalSeconds", 60));
+    }
+    
+    private TickStore openTickStore() {
+        if (!journalEnabled() || !Boolean.parseBoolean(System.getProperty("cryptotrader.tickStore", "true"))) {
+            return null;
+        }
+        String[] tickers = new String[cryptos.length];
+        for (int i = 0; i < tickers.length; i++) {
+            tickers[i] = registry.getTicker(i);
+        }
+        long retention = Long.getLong("cryptotrader.tickStore.retentionHours", 24) * OhlcvAggregator.HOUR;
+        Path directory = dataDir().resolve("ticks");
+        try {
+            TickStore store = TickStore.open(directory, tickers, TickStore.DEFAULT_SEGMENT_TICKS, retention);
+            Runtime.getRuntime().addShutdownHook(new Thread(store::close, "tick-store-close"));
+            return store;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Cannot open the tick store in " + directory + ", tick history will not be kept", e);
+            return null;
+        }
+    }
+    
+    private void applyMarketData() {
+        selectedPriceChanged = false;
+        marketDataSubscription.drain(marketUpdateHandler);
+        
+        Runnable event;
+        while ((event = orderEvents.poll()) != null) {
+            event.run();
+        }
+        if (changedCount > 0) {
+            refreshPositions();
+        }
+        while ((event = alertEvents.poll()) != null) {
+            event.run();
+        }
+        if (pendingAlerts > 0) {
+            alertLabel.setText(pendingAlerts == 1 ? lastAlertText : lastAlertText + " (+" + (pendingAlerts - 1) + " more)");
+            pendingAlerts = 0;
+        }
+        
+        if (quoteRateChanged) {
+            onQuoteRateChanged();
+        }
+        
+        long refreshStart = System.nanoTime();
+        marketDirty.flush(marketModel);
+        if (marketSorter.takeOrderChanged()) {
+            marketTable.repaint();
+        }
+        topMoversModel.refresh();
+        if (portfolioModel != null) {
+            portfolioDirty.flush(portfolioModel);
+        }
+        long refreshed = System.nanoTime();
+        tableRefresh.record(refreshed - refreshStart);
+        for (int i = 0; i < frameUpdates; i++) {
+            tickToScreen.record(refreshed - frameQueuedNanos[i]);
+        }
+        frameUpdates = 0;
+        if (selectedPriceChanged) {
+            updatePriceAndTotal();
+            updateMarketInfo();
+            priceChart.repaint();
+        }
+        if (portfolioChanged) {
+            updatePortfolioSummary();
+        }
+    }
+    
+    private void onMarketUpdate(int symbolId, double price, double volume, long timestamp) {
+        frameQueuedNanos[frameUpdates++] = marketDataSubscription.getQueuedNanos(symbolId);
+        prices[symbolId] = price;
+        changes[symbolId] = (price / openPrices[symbolId] - 1) * 100;
+        
+        if (marketModel.update(symbolId, price, changes[symbolId])) {
+            marketDirty.markCell(symbolId, MarketTableModel.PRICE_COLUMN);
+            marketDirty.markCell(symbolId, MarketTableModel.CHANGE_COLUMN);
+            marketDirty.markCell(symbolId, MarketTableModel.MARKET_CAP_COLUMN);
+        }
+        topMoversModel.update(symbolId, changes[symbolId], dailyStats.getNotional(symbolId));
+        
+        int portfolioRow = portfolioModel == null ? -1 : portfolioModel.updatePrice(symbolId, price);
+        if (portfolioRow >= 0) {
+            portfolioDirty.markCell(portfolioRow, PortfolioTableModel.VALUE_COLUMN);
+            portfolioDirty.markCell(portfolioRow, PortfolioTableModel.PROFIT_LOSS_COLUMN);
+            portfolioChanged = true;
+        }
+        
+        if (cryptoSelector != null && cryptoSelector.getSelectedIndex() == symbolId) {
+            selectedPriceChanged = true;
+        }
+        
+        // A cached lookup unless this tick is on the route of the quote
+        converter.setRate(symbolPairs[symbolId], price);
+        double rate = converter.rate(usd, quoteCurrencyIds[quoteIndex]);
+        if (rate != quoteRate) {
+            quoteRate = rate;
+            quoteRateChanged = true;
+        }
+    }
+    
+    private void showBalance(long cash) {
+        cashBalance = cash;
+        updateBalanceLabel();
+    }
+    
+    private void updateBalanceLabel() {
+        if (!accountReady && warmStart == null) {
+            balanceLabel.setText("Balance: -");
+        } else {
+            balanceLabel.setText("Balance: " + quoteFormat.format(toQuote(cashBalance), Money.DECIMALS));
+        }
+    }
+    
+    // Converts USD Money to the quote currency, exactly while the quote is USD
+    private long toQuote(long usdAmount) {
+        return quoteIndex == 0 ? usdAmount : Money.of(Money.toDouble(usdAmount) * quoteRate);
+    }
+    
+    private void setQuote(int index) {
+        quoteIndex = index;
+        quoteRate = converter.rate(usd, quoteCurrencyIds[index]);
+        quoteRateChanged = false;
+        quoteFormat = new FixedFormat(QUOTE_PATTERNS[index]);
+        quoteSignedFormat = new FixedFormat(QUOTE_SIGNED_PATTERNS[index]);
+        quoteInputFormat = new FixedFormat(QUOTE_INPUT_PATTERNS[index]);
+        updateBalanceLabel();
+        if (portfolioModel != null) {
+            portfolioModel.setQuote(QUOTE_CURRENCIES[index], new FixedFormat(QUOTE_PATTERNS[index]),
+                    new FixedFormat(QUOTE_SIGNED_PATTERNS[index]), quoteRate);
+            portfolioTable.getColumnModel().getColumn(PortfolioTableModel.VALUE_COLUMN)
+                    .setHeaderValue(portfolioModel.getColumnName(PortfolioTableModel.VALUE_COLUMN));
+            portfolioTable.getTableHeader().repaint();
+            updatePortfolioSummary();
+        }
+        if (openOrdersModel != null) {
+            openOrdersModel.setQuote(new FixedFormat(QUOTE_PATTERNS[index]), quoteRate);
+        }
+        if (cryptoSelector != null) {
+            limitPriceField.setText(quoteInputFormat.format(prices[cryptoSelector.getSelectedIndex()] * quoteRate));
+            updatePriceAndTotal();
+            updateMarketInfo();
+        }
+    }
+    
+    // The quote moved against USD, so every converted value did too
+    private void onQuoteRateChanged() {
+        quoteRateChanged = false;
+        updateBalanceLabel();
+        if (portfolioModel != null && portfolioModel.setQuoteRate(quoteRate)) {
+            for (int row = 0; row < portfolioModel.getRowCount(); row++) {
+                portfolioDirty.markRow(row);
+            }
+            portfolioChanged = true;
+        }
+        if (openOrdersModel != null) {
+            openOrdersModel.setQuoteRate(quoteRate);
+        }
+        if (cryptoSelector != null) {
+            selectedPriceChanged = true;
+        }
+    }
+    
+    private JPanel createHeaderPanel() {
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(Theme.HEADER);
+        headerPanel.setBorder(new EmptyBorder(10, 15, 10, 15));
+        
+        JLabel titleLabel = new JLabel("CryptoTrader");
+        titleLabel.setFont(Theme.TITLE_FONT);
+        titleLabel.setForeground(Color.WHITE);
+        
+        balanceLabel = new JLabel();
+        balanceLabel.setFont(Theme.LARGE_FONT);
+        balanceLabel.setForeground(Color.WHITE);
+        if (warmStart != null) {
+            cashBalance = warmStart.cash;
+        }
+        updateBalanceLabel();
+        
+        quoteSelector = new JComboBox<>(QUOTE_CURRENCIES);
+        quoteSelector.setToolTipText("Quote currency");
+        quoteSelector.addActionListener(e -> setQuote(quoteSelector.getSelectedIndex()));
+        
+        JPanel accountPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
+        accountPanel.setOpaque(false);
+        accountPanel.add(quoteSelector);
+        accountPanel.add(balanceLabel);
+        
+        headerPanel.add(titleLabel, BorderLayout.WEST);
+        headerPanel.add(accountPanel, BorderLayout.EAST);
+        
+        return headerPanel;
+    }
+    
+    private JPanel createMarketPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBorder(new EmptyBorder(10, 10, 10, 10));
+        
+        // Search panel
+        JPanel searchPanel = new JPanel(new BorderLayout());
+        searchField = new JTextField();
+        searchField.setToolTipText("Search cryptocurrencies");
+        JButton searchButton = new JButton("Search");
+        searchButton.setBackground(Theme.ACCENT);
+        searchButton.setForeground(Color.WHITE);
+        
+        searchPanel.add(new JLabel("Search: "), BorderLayout.WEST);
+        searchPanel.add(searchField, BorderLayout.CENTER);
+        JButton alertButton = new JButton("Add Alert");
+        alertButton.setBackground(Theme.ACCENT);
+        alertButton.setForeground(Color.WHITE);
+        alertButton.addActionListener(e -> addPriceAlert());
+        JPanel searchButtons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        searchButtons.add(searchButton);
+        searchButtons.add(alertButton);
+        searchPanel.add(searchButtons, BorderLayout.EAST);
+        searchPanel.setBorder(new EmptyBorder(0, 0, 10, 0));
+        
+        // Market table, circulating supply is sample data
+        double[] supplies = new double[cryptos.length];
+        for (int i = 0; i < cryptos.length; i++) {
+            supplies[i] = Math.random() * 1000000000 + 1000000;
+        }
+        marketModel = new MarketTableModel(cryptos, prices, changes, supplies);
+        
+        marketTable = new JTable(marketModel);
+        marketTable.setRowHeight(30);
+        
+        // Clicking a header sorts by that column and the rows stay sorted as
+        // prices tick; search filters through the same sorter
+        marketSorter = new MarketRowSorter(marketModel);
+        marketTable.setRowSorter(marketSorter);
+        instrumentSearch = new InstrumentSearch(searchField, marketSorter::setRowFilter, InstrumentSearch.DEFAULT_DEBOUNCE_MILLIS);
+        instrumentSearch.setInstruments(registry.getNames());
+        searchButton.addActionListener(e -> instrumentSearch.searchNow());
+        
+        // Numeric cells render from their cached text; the change column is colored by sign
+        marketTable.setDefaultRenderer(NumericCell.class, new NumericCellRenderer(false));
+        marketTable.getColumnModel().getColumn(2).setCellRenderer(new NumericCellRenderer(true));
+        
+        // Button renderer for action column
+        marketTable.getColumnModel().getColumn(4).setCellRenderer(new ButtonRenderer());
+        marketTable.getColumnModel().getColumn(4).setCellEditor(new ButtonEditor(new JCheckBox()));
+        
+        JScrollPane scrollPane = new JScrollPane(marketTable);
+        
+        panel.add(searchPanel, BorderLayout.NORTH);
+        panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(createTopMoversPanel(), BorderLayout.EAST);
+        
+        return panel;
+    }
+    
+    // Top gainers, top losers and most active symbols. Selecting one selects
+    // it in the market table.
+    private JPanel createTopMoversPanel() {
+        for (int i = 0; i < cryptos.length; i++) {
+            topMoversModel.update(i, changes[i], dailyStats.getNotional(i));
+        }
+        topMoversModel.refresh();
+        
+        JComboBox<String> viewSelector = new JComboBox<>(TopMoversTableModel.VIEWS);
+        viewSelector.addActionListener(e -> topMoversModel.setView(viewSelector.getSelectedIndex()));
+        
+        JTable topMoversTable = new JTable(topMoversModel);
+        topMoversTable.setRowHeight(30);
+        topMoversTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        topMoversTable.setDefaultRenderer(NumericCell.class, new NumericCellRenderer(false));
+        topMoversTable.getColumnModel().getColumn(1).setCellRenderer(new NumericCellRenderer(true));
+        topMoversTable.getSelectionModel().addListSelectionListener(e -> {
+            int row = topMoversTable.getSelectedRow();
+            int symbolId = row < 0 ? -1 : topMoversModel.getSymbolAt(row);
+            int viewRow = symbolId < 0 ? -1 : marketTable.convertRowIndexToView(symbolId);
+            if (!e.getValueIsAdjusting() && viewRow >= 0) {
+                marketTable.setRowSelectionInterval(viewRow, viewRow);
+                marketTable.scrollRectToVisible(marketTable.getCellRect(viewRow, 0, true));
+            }
+        });
+        
+        JScrollPane scrollPane = new JScrollPane(topMoversTable);
+        scrollPane.setPreferredSize(new Dimension(360, 0));
+        
+        JPanel panel = new JPanel(new BorderLayout(0, 5));
+        panel.setBorder(new EmptyBorder(0, 10, 0, 0));
+        panel.add(viewSelector, BorderLayout.NORTH);
+        panel.add(scrollPane, BorderLayout.CENTER);
+        return panel;
+    }
+    
+    private JPanel createPortfolioPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBorder(new EmptyBorder(10, 10, 10, 10));
+        
+        // Portfolio summary panel
+        JPanel summaryPanel = new JPanel(new BorderLayout());
+        
+        portfolioValueLabel = new JLabel();
+        portfolioValueLabel.setFont(Theme.LARGE_FONT);
+        assetsLabel = new JLabel();
+        profitLossLabel = new JLabel();
+        dayChangeLabel = new JLabel();
+        
+        JPanel statsPanel = new JPanel(new GridLayout(1, 3, 10, 0));
+        statsPanel.add(createStatPanel("Assets", assetsLabel));
+        statsPanel.add(createStatPanel("24h Change", dayChangeLabel));
+        statsPanel.add(createStatPanel("Profit/Loss", profitLossLabel));
+        
+        summaryPanel.add(portfolioValueLabel, BorderLayout.NORTH);
+        summaryPanel.add(statsPanel, BorderLayout.CENTER);
+        summaryPanel.setBorder(new EmptyBorder(0, 0, 15, 0));
+        
+        // Portfolio table
+        portfolioModel = new PortfolioTableModel(cryptos);
+        portfolioModel.setQuote(QUOTE_CURRENCIES[quoteIndex], new FixedFormat(QUOTE_PATTERNS[quoteIndex]),
+                new FixedFormat(QUOTE_SIGNED_PATTERNS[quoteIndex]), quoteRate);
+        loadPortfolio();
+        
+        portfolioTable = new JTable(portfolioModel);
+        portfolioTable.setRowHeight(30);
+        
+        // Profit/loss is colored by sign
+        portfolioTable.setDefaultRenderer(NumericCell.class, new NumericCellRenderer(false));
+        portfolioTable.getColumnModel().getColumn(4).setCellRenderer(new NumericCellRenderer(true));
+        
+        JScrollPane scrollPane = new JScrollPane(portfolioTable);
+        
+        panel.add(summaryPanel, BorderLayout.NORTH);
+        panel.add(scrollPane, BorderLayout.CENTER);
+        
+        return panel;
+    }
+    
+    // Fills the portfolio table from the account, or from the warm start
+    // snapshot while the account is still being restored
+    private void loadPortfolio() {
+        if (portfolioModel == null) {
+            return;
+        }
+        portfolioModel.clear();
+        if (accountReady) {
+            tradingCore.update(userAccount, account -> {
+                PnlEngine pnl = account.getPnl();
+                PositionStore positions = pnl.getPositions();
+                for (int i = 0; i < positions.size(); i++) {
+                    int symbolId = positions.symbolAt(i);
+                    portfolioModel.setPosition(symbolId, Quantity.toDouble(positions.get(symbolId)), prices[symbolId],
+                            Money.toDouble(pnl.getAverageCost(symbolId)));
+                }
+            });
+        } else if (warmStart != null) {
+            for (int i = 0; i < warmStart.symbolIds.length; i++) {
+                int symbolId = warmStart.symbolIds[i];
+                portfolioModel.setPosition(symbolId, Quantity.toDouble(warmStart.quantities[i]), prices[symbolId],
+                        Money.toDouble(warmStart.averageCosts[i]));
+            }
+        }
+        updatePortfolioSummary();
+    }
+    
+    private JPanel createTradePanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBorder(new EmptyBorder(20, 20, 20, 20));
+        
+        JPanel formPanel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.insets = new Insets(5, 5, 5, 5);
+        
+        // Trade type selection
+        JPanel tradeTypePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buyButton = new JRadioButton("Buy");
+        sellButton = new JRadioButton("Sell");
+        ButtonGroup tradeGroup = new ButtonGroup();
+        tradeGroup.add(buyButton);
+        tradeGroup.add(sellButton);
+        buyButton.setSelected(true);
+        
+        tradeTypePanel.add(new JLabel("Trade Type:"));
+        tradeTypePanel.add(buyButton);
+        tradeTypePanel.add(sellButton);
+        
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        gbc.gridwidth = 2;
+        formPanel.add(tradeTypePanel, gbc);
+        
+        // Order type selection
+        gbc.gridx = 0;
+        gbc.gridy = 1;
+        gbc.gridwidth = 1;
+        formPanel.add(new JLabel("Order Type:"), gbc);
+        
+        orderTypeSelector = new JComboBox<>(new String[] {"Market", "Limit"});
+        gbc.gridx = 1;
+        formPanel.add(orderTypeSelector, gbc);
+        
+        // Cryptocurrency selection
+        gbc.gridx = 0;
+        gbc.gridy = 2;
+        formPanel.add(new JLabel("Select Cryptocurrency:"), gbc);
+        
+        cryptoSelector = new JComboBox<>(cryptos);
+        gbc.gridx = 1;
+        formPanel.add(cryptoSelector, gbc);
+        
+        // Current price display
+        gbc.gridx = 0;
+        gbc.gridy = 3;
+        formPanel.add(new JLabel("Current Price:"), gbc);
+        
+        priceLabel = new JLabel(quoteFormat.format(prices[0] * quoteRate));
+        priceLabel.setFont(Theme.MEDIUM_FONT);
+        gbc.gridx = 1;
+        formPanel.add(priceLabel, gbc);
+        
+        // Amount input
+        gbc.gridx = 0;
+        gbc.gridy = 4;
+        formPanel.add(new JLabel("Amount:"), gbc);
+        
+        amountField = new JTextField("1.0");
+        gbc.gridx = 1;
+        formPanel.add(amountField, gbc);
+        
+        // Limit price input, only used for limit orders
+        gbc.gridx = 0;
+        gbc.gridy = 5;
+        formPanel.add(new JLabel("Limit Price:"), gbc);
+        
+        limitPriceField = new JTextField(quoteInputFormat.format(prices[0] * quoteRate));
+        limitPriceField.setEnabled(false);
+        gbc.gridx = 1;
+        formPanel.add(limitPriceField, gbc);
+        
+        // Total calculation
+        gbc.gridx = 0;
+        gbc.gridy = 6;
+        formPanel.add(new JLabel("Total Cost:"), gbc);
+        
+        totalLabel = new JLabel(quoteFormat.format(prices[0] * quoteRate));
+        totalLabel.setFont(Theme.MEDIUM_FONT);
+        gbc.gridx = 1;
+        formPanel.add(totalLabel, gbc);
+        
+        // Add event listeners
+        cryptoSelector.addActionListener(e -> {
+            priceChart.setSymbol(cryptoSelector.getSelectedIndex());
+            updateMarketInfo();
+            limitPriceField.setText(quoteInputFormat.format(prices[cryptoSelector.getSelectedIndex()] * quoteRate));
+            updatePriceAndTotal();
+        });
+        orderTypeSelector.addActionListener(e -> {
+            limitPriceField.setEnabled(orderTypeSelector.getSelectedIndex() == 1);
+            updatePriceAndTotal();
+        });
+        KeyAdapter totalUpdater = new KeyAdapter() {
+            @Override
+            public void keyReleased(KeyEvent e) {
+                updatePriceAndTotal();
+            }
+        };
+        amountField.addKeyListener(totalUpdater);
+        limitPriceField.addKeyListener(totalUpdater);
+        
+        // Execute trade button
+        JButton executeButton = new JButton("Execute Trade");
+        executeButton.setBackground(Theme.ACCENT);
+        executeButton.setForeground(Color.WHITE);
+        executeButton.setFont(Theme.MEDIUM_FONT);
+        executeButton.addActionListener(e -> executeTrade());
+        
+        gbc.gridx = 0;
+        gbc.gridy = 7;
+        gbc.gridwidth = 2;
+        gbc.insets = new Insets(20, 5, 5, 5);
+        JButton basketButton = new JButton("Import Basket...");
+        basketButton.setBackground(Theme.ACCENT);
+        basketButton.setForeground(Color.WHITE);
+        basketButton.setFont(Theme.MEDIUM_FONT);
+        basketButton.setToolTipText("Place a CSV file of orders, all or nothing");
+        basketButton.addActionListener(e -> importBasket());
+        JPanel tradeButtons = new JPanel(new GridLayout(1, 2, 10, 0));
+        tradeButtons.add(executeButton);
+        tradeButtons.add(basketButton);
+        formPanel.add(tradeButtons, gbc);
+        
+        // Market information panel
+        JPanel marketInfoPanel = new JPanel(new BorderLayout());
+        marketInfoPanel.setBorder(BorderFactory.createTitledBorder("Market Information"));
+        
+        // Rolling 24h statistics of the selected crypto
+        highLabel = new JLabel();
+        lowLabel = new JLabel();
+        volumeLabel = new JLabel();
+        vwapLabel = new JLabel();
+        dailyChangeLabel = new JLabel();
+        tradeCountLabel = new JLabel();
+        marketCapLabel = new JLabel();
+        supplyLabel = new JLabel();
+        
+        JPanel infoGrid = new JPanel(new GridLayout(4, 2, 10, 10));
+        infoGrid.add(createInfoPanel("24h High", highLabel));
+        infoGrid.add(createInfoPanel("24h Low", lowLabel));
+        infoGrid.add(createInfoPanel("24h Volume", volumeLabel));
+        infoGrid.add(createInfoPanel("24h VWAP", vwapLabel));
+        infoGrid.add(createInfoPanel("24h Change", dailyChangeLabel));
+        infoGrid.add(createInfoPanel("24h Trades", tradeCountLabel));
+        infoGrid.add(createInfoPanel("Market Cap", marketCapLabel));
+        infoGrid.add(createInfoPanel("Circulating Supply", supplyLabel));
+        
+        marketInfoPanel.add(infoGrid, BorderLayout.CENTER);
+        updateMarketInfo();
+        
+        // Candlestick chart of the selected crypto
+        JPanel chartPanel = new JPanel();
+        chartPanel.setPreferredSize(new Dimension(400, 200));
+        chartPanel.setBorder(BorderFactory.createTitledBorder("Price Chart"));
+        chartPanel.setLayout(new BorderLayout());
+        
+        priceChart = new PriceChart(candles);
+        chartPanel.add(priceChart, BorderLayout.CENTER);
+        
+        // Combine panels
+        JPanel rightPanel = new JPanel(new BorderLayout());
+        rightPanel.add(marketInfoPanel, BorderLayout.NORTH);
+        rightPanel.add(chartPanel, BorderLayout.CENTER);
+        
+        // Open limit orders
+        JPanel openOrdersPanel = new JPanel(new BorderLayout());
+        openOrdersPanel.setBorder(BorderFactory.createTitledBorder("Open Orders"));
+        openOrdersModel = new OpenOrdersTableModel(cryptos);
+        openOrdersModel.setQuote(new FixedFormat(QUOTE_PATTERNS[quoteIndex]), quoteRate);
+        openOrdersTable = new JTable(openOrdersModel);
+        JScrollPane openOrdersScroll = new JScrollPane(openOrdersTable);
+        openOrdersScroll.setPreferredSize(new Dimension(400, 100));
+        
+        JButton cancelButton = new JButton("Cancel Order");
+        cancelButton.addActionListener(e -> cancelSelectedOrder());
+        JPanel cancelPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        cancelPanel.add(cancelButton);
+        
+        openOrdersPanel.add(openOrdersScroll, BorderLayout.CENTER);
+        openOrdersPanel.add(cancelPanel, BorderLayout.SOUTH);
+        
+        panel.add(formPanel, BorderLayout.WEST);
+        panel.add(rightPanel, BorderLayout.CENTER);
+        panel.add(openOrdersPanel, BorderLayout.SOUTH);
+        
+        return panel;
+    }
+    
+    private JPanel createFooterPanel() {
+        JPanel footerPanel = new JPanel(new BorderLayout());
+        footerPanel.setBackground(Theme.HEADER);
+        footerPanel.setBorder(new EmptyBorder(10, 15, 10, 15));
+        
+        JLabel copyrightLabel = new JLabel("© 2023 CryptoTrader - Educational Project");
+        copyrightLabel.setForeground(Color.WHITE);
+        
+        JLabel designedByLabel = new JLabel("Designed by WebSparks AI");
+        designedByLabel.setForeground(Color.WHITE);
+        
+        // Triggered price alerts show here without interrupting the user
+        alertLabel = new JLabel("", SwingConstants.CENTER);
+        alertLabel.setForeground(Theme.ALERT);
+        
+        footerPanel.add(copyrightLabel, BorderLayout.WEST);
+        footerPanel.add(alertLabel, BorderLayout.CENTER);
+        footerPanel.add(designedByLabel, BorderLayout.EAST);
+        
+        return footerPanel;
+    }
+    
+    private JPanel createStatPanel(String title, JLabel valueLabel) {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(Theme.BORDER),
+                BorderFactory.createEmptyBorder(10, 10, 10, 10)));
+        
+        JLabel titleLabel = new JLabel(title);
+        titleLabel.setForeground(Color.GRAY);
+        
+        valueLabel.setFont(Theme.LARGE_FONT);
+        
+        panel.add(titleLabel, BorderLayout.NORTH);
+        panel.add(valueLabel, BorderLayout.CENTER);
+        
+        return panel;
+    }
+    
+    private JPanel createInfoPanel(String title, String value) {
+        return createInfoPanel(title, new JLabel(value));
+    }
+    
+    private JPanel createInfoPanel(String title, JLabel valueLabel) {
+        JPanel panel = new JPanel(new BorderLayout());
+        
+        JLabel titleLabel = new JLabel(title);
+        titleLabel.setForeground(Color.GRAY);
+        titleLabel.setFont(Theme.SMALL_FONT);
+        
+        valueLabel.setFont(Theme.MEDIUM_FONT);
+        
+        panel.add(titleLabel, BorderLayout.NORTH);
+        panel.add(valueLabel, BorderLayout.CENTER);
+        
+        return panel;
+    }
+    
+    // The summary's 24h change is measured from the opening prices
+    private void setReferencePrices() {
+        tradingCore.update(userAccount, account -> {
+            for (int symbolId = 0; symbolId < openPrices.length; symbolId++) {
+                account.getPnl().setReferencePrice(symbolId, Money.of(openPrices[symbolId]));
+            }
+        });
+    }
+    
+    private void updatePortfolioSummary() {
+        portfolioChanged = false;
+        if (portfolioValueLabel == null) {
+            return;
+        }
+        if (!accountReady) {
+            portfolioValueLabel.setText("Total Portfolio Value: loading...");
+            assetsLabel.setText(portfolioModel.getRowCount() + "");
+            profitLossLabel.setText("-");
+            dayChangeLabel.setText("-");
+            return;
+        }
+        long valuationStart = System.nanoTime();
+        PortfolioSummary summary = tradingCore.read(userAccount, portfolioSummary);
+        valuationLatency.recordSince(valuationStart);
+        portfolioValueLabel.setText("Total Portfolio Value: "
+                + quoteFormat.format(toQuote(summary.value), Money.DECIMALS));
+        assetsLabel.setText(summary.assets + "");
+        profitLossLabel.setText(quoteSignedFormat.format(toQuote(summary.profitLoss), Money.DECIMALS));
+        if (summary.reference > 0) {
+            dayChangeLabel.setText(quoteSignedFormat.format(toQuote(summary.change), Money.DECIMALS) + " ("
+                    + changeFormat.format(summary.change * 100.0 / summary.reference) + "%)");
+        } else {
+            dayChangeLabel.setText("-");
+        }
+    }
+    
+    private void updatePriceAndTotal() {
+        try {
+            int selectedIndex = cryptoSelector.getSelectedIndex();
+            double price = prices[selectedIndex] * quoteRate;
+            priceLabel.setText(quoteFormat.format(price));
+            
+            if (orderTypeSelector.getSelectedIndex() == 1) {
+                price = Double.parseDouble(limitPriceField.getText());
+            }
+            double amount = Double.parseDouble(amountField.getText());
+            totalLabel.setText(quoteFormat.format(price * amount));
+        } catch (NumberFormatException e) {
+            totalLabel.setText("Invalid amount");
+        }
+    }
+    
+    // Fills the Market Information panel for the selected crypto. The 24h
+    // values cover the ticks seen since the app started, up to a day.
+    private void updateMarketInfo() {
+        int symbolId = cryptoSelector.getSelectedIndex();
+        if (Double.isNaN(dailyStats.getHigh(symbolId))) {
+            String pending = "-";
+            highLabel.setText(pending);
+            lowLabel.setText(pending);
+            volumeLabel.setText(pending);
+            vwapLabel.setText(pending);
+            dailyChangeLabel.setText(pending);
+            tradeCountLabel.setText("0");
+        } else {
+            // The stats are in USD, shown in the quote currency like the prices
+            highLabel.setText(quoteFormat.format(dailyStats.getHigh(symbolId) * quoteRate));
+            lowLabel.setText(quoteFormat.format(dailyStats.getLow(symbolId) * quoteRate));
+            volumeLabel.setText(quoteFormat.format(dailyStats.getNotional(symbolId) * quoteRate));
+            vwapLabel.setText(quoteFormat.format(dailyStats.getVwap(symbolId) * quoteRate));
+            dailyChangeLabel.setText(changeFormat.format(dailyStats.getChangePercent(symbolId)) + "%");
+            tradeCountLabel.setText(String.format("%,d", dailyStats.getTradeCount(symbolId)));
+        }
+        marketCapLabel.setText(quoteFormat.format(marketModel.getMarketCap(symbolId) * quoteRate));
+        supplyLabel.setText(df.format(marketModel.getSupply(symbolId)) + " " + registry.getTicker(symbolId));
+    }
+    
+    private void executeTrade() {
+        if (!accountReady) {
+            JOptionPane.showMessageDialog(this,
+                    "Your account is still loading, please try again in a moment",
+                    "Trade Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            String selectedCrypto = (String) cryptoSelector.getSelectedItem();
+            int selectedIndex = cryptoSelector.getSelectedIndex();
+            double price = prices[selectedIndex];
+            long amount = Quantity.of(Double.parseDouble(amountField.getText()), quantityDecimals[selectedIndex]);
+            boolean limit = orderTypeSelector.getSelectedIndex() == 1;
+            boolean buy = buyButton.isSelected();
+            
+            // Market orders are sent as immediate orders with a protection price
+            long orderPrice;
+            if (limit) {
+                // Limit prices are entered in the quote currency, orders are in USD
+                orderPrice = Money.of(Double.parseDouble(limitPriceField.getText()) / quoteRate);
+            } else {
+                orderPrice = Money.of(price * (buy ? 1 + MARKET_ORDER_PROTECTION : 1 - MARKET_ORDER_PROTECTION));
+            }
+            if (amount <= 0 || orderPrice <= 0) {
+                throw new NumberFormatException();
+            }
+            
+            // Funds or holdings are reserved at the order price until the order closes
+            OrderRecord order;
+            try {
+                order = tradingCore.placeOrder(userAccount, selectedIndex, buy, limit, orderPrice, amount);
+                tradeLatency.recordSince(start);
+            } catch (TradeRejectedException e) {
+                String message = e.getReason() == TradeRejectedException.Reason.INSUFFICIENT_FUNDS
+                        ? "Insufficient funds. Your balance: " + quoteFormat.format(toQuote(e.getAvailable()), Money.DECIMALS)
+                        : "Insufficient holdings. You have: " + amountFormat.format(e.getAvailable(), Quantity.DECIMALS)
+                                + " " + selectedCrypto;
+                JOptionPane.showMessageDialog(this, message, "Trade Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            
+            // Events for the order are applied on a later frame, so the row exists before they arrive
+            if (limit) {
+                openOrdersModel.add(order);
+                JOptionPane.showMessageDialog(this,
+                        "Limit order placed to " + (buy ? "buy " : "sell ") +
+                        amountFormat.format(amount, Quantity.DECIMALS) + " " + selectedCrypto +
+                        " at " + quoteFormat.format(toQuote(orderPrice), Money.DECIMALS),
+                        "Order Placed", JOptionPane.INFORMATION_MESSAGE);
+            }
+            
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this,
+                    "Please enter a valid amount",
+                    "Input Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    private void addPriceAlert() {
+        int row = marketTable.getSelectedRow();
+        int selectedIndex = row < 0 ? 0 : marketTable.convertRowIndexToModel(row);
+        JComboBox<String> symbolBox = new JComboBox<>(cryptos);
+        symbolBox.setSelectedIndex(selectedIndex);
+        JComboBox<String> conditionBox = new JComboBox<>(ALERT_CONDITIONS);
+        JTextField thresholdField = new JTextField(inputFormat.format(prices[selectedIndex]), 10);
+        
+        JPanel form = new JPanel(new GridLayout(3, 2, 5, 5));
+        form.add(new JLabel("Cryptocurrency:"));
+        form.add(symbolBox);
+        form.add(new JLabel("Condition:"));
+        form.add(conditionBox);
+        form.add(new JLabel("Price or %:"));
+        form.add(thresholdField);
+        if (JOptionPane.showConfirmDialog(this, form, "Add Price Alert",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        
+        try {
+            double threshold = Double.parseDouble(thresholdField.getText());
+            if (!(threshold > 0) || Double.isInfinite(threshold)) {
+                throw new NumberFormatException();
+            }
+            PriceAlert alert = alertEngine.add(symbolBox.getSelectedIndex(),
+                    PriceAlert.Condition.values()[conditionBox.getSelectedIndex()], threshold);
+            alertLabel.setText("Alert set: " + describeAlert(alert));
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this,
+                    "Please enter a valid price or percentage",
+                    "Input Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    private void onAlert(PriceAlert alert, double price, double changePercent) {
+        String text = describeAlert(alert) + ": now $" + df.format(price);
+        if (alert.getCondition() == PriceAlert.Condition.MOVE) {
+            text += ", " + changeFormat.format(changePercent) + "%";
+        }
+        lastAlertText = text;
+        pendingAlerts++;
+    }
+    
+    private String describeAlert(PriceAlert alert) {
+        String name = registry.getTicker(alert.getSymbolId());
+        switch (alert.getCondition()) {
+            case ABOVE:
+                return name + " above $" + df.format(alert.getThreshold());
+            case BELOW:
+                return name + " below $" + df.format(alert.getThreshold());
+            default:
+                return name + " moves " + df.format(alert.getThreshold()) + "% in "
+                        + alertEngine.getMoveWindowMillis() / OhlcvAggregator.HOUR + "h";
+        }
+    }
+    
+    private void cancelSelectedOrder() {
+        int row = openOrdersTable.getSelectedRow();
+        if (row < 0) {
+            return;
+        }
+        OrderRecord order = openOrdersModel.getOrderAt(openOrdersTable.convertRowIndexToModel(row));
+        tradingCore.cancelOrder(userAccount, order.orderId);
+    }
+    
+    private void onOrderFilled(OrderRecord order) {
+        if (order.limit) {
+            openOrdersModel.changed(order);
+        }
+        if (!positionChanged[order.symbolId]) {
+            positionChanged[order.symbolId] = true;
+            changedSymbols[changedCount++] = order.symbolId;
+        }
+    }
+    
+    private void onOrderClosed(OrderRecord order, long unfilled) {
+        if (order.limit) {
+            openOrdersModel.remove(order);
+            return;
+        }
+        
+        tradeRoundTrip.recordSince(order.placedNanos);
+        Basket basket = basketOfOrder.remove(order);
+        if (basket != null) {
+            basket.onClosed(order, unfilled);
+            if (basket.pending == 0) {
+                SwingUtilities.invokeLater(() -> showBasketResult(basket));
+            }
+            return;
+        }
+        
+        // Report market orders once they are done, after the current frame
+        String crypto = cryptos[order.symbolId];
+        SwingUtilities.invokeLater(() -> {
+            if (order.filled == 0) {
+                JOptionPane.showMessageDialog(this,
+                        "Order could not be filled within " + (int) (MARKET_ORDER_PROTECTION * 100) + "% of the market price",
+                        "Trade Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            String unfilledNote = unfilled > 0
+                    ? " (" + amountFormat.format(unfilled, Quantity.DECIMALS) + " unfilled)"
+                    : "";
+            JOptionPane.showMessageDialog(this,
+                    "Successfully " + (order.buy ? "bought " : "sold ") +
+                    amountFormat.format(order.filled, Quantity.DECIMALS) + " " + crypto +
+                    " for " + quoteFormat.format(toQuote(order.filledCost), Money.DECIMALS) + unfilledNote,
+                    "Trade Executed", JOptionPane.INFORMATION_MESSAGE);
+            tabbedPane.setSelectedIndex(1); // Switch to portfolio tab
+        });
+    }
+    
+    // Brings the portfolio rows of the symbols filled in this frame, the
+    // summary and the header balance up to date, with one read of the
+    // account however many fills there were
+    private void refreshPositions() {
+        long[] positions = tradingCore.read(userAccount, account -> {
+            long[] read = new long[changedCount * 2 + 1];
+            for (int i = 0; i < changedCount; i++) {
+                read[i * 2] = account.getPnl().getQuantity(changedSymbols[i]);
+                read[i * 2 + 1] = account.getPnl().getAverageCost(changedSymbols[i]);
+            }
+            read[changedCount * 2] = account.getCash();
+            return read;
+        });
+        showBalance(positions[changedCount * 2]);
+        for (int i = 0; i < changedCount; i++) {
+            int symbolId = changedSymbols[i];
+            positionChanged[symbolId] = false;
+            if (portfolioModel == null) {
+                continue;
+            }
+            if (positions[i * 2] == 0) {
+                portfolioModel.removePosition(symbolId);
+            } else {
+                int row = portfolioModel.setPosition(symbolId, Quantity.toDouble(positions[i * 2]), prices[symbolId],
+                        Money.toDouble(positions[i * 2 + 1]));
+                if (row >= 0) {
+                    portfolioDirty.markRow(row);
+                }
+            }
+        }
+        changedCount = 0;
+        portfolioChanged = true;
+    }
+    
+    // Places a CSV basket of orders through one all-or-nothing call to the
+    // core. Fills come back as usual, and one dialog sums up the basket once
+    // its market orders are done.
+    private void importBasket() {
+        if (!accountReady) {
+            JOptionPane.showMessageDialog(this,
+                    "Your account is still loading, please try again in a moment",
+                    "Trade Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import Basket (symbol,side,amount[,limitPrice])");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        
+        List<BasketOrder> lines;
+        try {
+            long[] marketPrices = new long[cryptos.length];
+            for (int i = 0; i < marketPrices.length; i++) {
+                marketPrices[i] = Money.of(prices[i]);
+            }
+            lines = BasketOrder.readCsv(file, registry, quantityDecimals, marketPrices, MARKET_ORDER_PROTECTION);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Cannot read " + file + ": " + e.getMessage(),
+                    "Basket Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, "The basket was not placed:\n" + e.getMessage(),
+                    "Basket Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (lines.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "The basket has no orders", "Basket Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        int buys = 0;
+        long buyCost = 0;
+        for (BasketOrder line : lines) {
+            if (line.buy) {
+                buys++;
+                buyCost += Money.times(line.price, line.amount);
+            }
+        }
+        if (JOptionPane.showConfirmDialog(this,
+                "Place " + lines.size() + " orders, " + buys + " buys and " + (lines.size() - buys) + " sells?\n" +
+                "Buys reserve up to " + quoteFormat.format(toQuote(buyCost), Money.DECIMALS) + ".",
+                "Import Basket", JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        
+        long start = System.nanoTime();
+        List<OrderRecord> orders;
+        try {
+            orders = tradingCore.placeBasket(userAccount, lines);
+            tradeLatency.recordSince(start);
+        } catch (TradeRejectedException e) {
+            BasketOrder line = lines.get(e.getOrderIndex());
+            String message = e.getReason() == TradeRejectedException.Reason.INSUFFICIENT_FUNDS
+                    ? "Insufficient funds from order " + (e.getOrderIndex() + 1) + ". Your balance: "
+                            + quoteFormat.format(toQuote(e.getAvailable()), Money.DECIMALS)
+                    : "Insufficient holdings from order " + (e.getOrderIndex() + 1) + ". You have: "
+                            + amountFormat.format(e.getAvailable(), Quantity.DECIMALS) + " " + cryptos[line.symbolId];
+            JOptionPane.showMessageDialog(this, message + "\nNo order of the basket was placed.",
+                    "Basket Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        // Registered before this event returns, so before any of the orders' events are applied
+        Basket basket = new Basket(orders.size());
+        for (OrderRecord order : orders) {
+            if (order.limit) {
+                basket.limitOrders++;
+                openOrdersModel.add(order);
+            } else {
+                basket.pending++;
+                basketOfOrder.put(order, basket);
+            }
+        }
+        if (basket.pending == 0) {
+            showBasketResult(basket);
+        }
+    }
+    
+    private void showBasketResult(Basket basket) {
+        StringBuilder message = new StringBuilder("Placed " + basket.orders + " orders.");
+        if (basket.filledOrders > 0) {
+            message.append("\nBought for ").append(quoteFormat.format(toQuote(basket.bought), Money.DECIMALS))
+                    .append(", sold for ").append(quoteFormat.format(toQuote(basket.sold), Money.DECIMALS)).append(".");
+        }
+        if (basket.partialOrders > 0) {
+            message.append("\n").append(basket.partialOrders).append(" market orders were partly filled.");
+        }
+        if (basket.unfilledOrders > 0) {
+            message.append("\n").append(basket.unfilledOrders).append(" market orders could not be filled within ")
+                    .append((int) (MARKET_ORDER_PROTECTION * 100)).append("% of the market price.");
+        }
+        if (basket.limitOrders > 0) {
+            message.append("\n").append(basket.limitOrders).append(" limit orders were placed on the book.");
+        }
+        JOptionPane.showMessageDialog(this, message.toString(), "Basket Executed", JOptionPane.INFORMATION_MESSAGE);
+        if (basket.filledOrders > 0) {
+            tabbedPane.setSelectedIndex(1); // Switch to portfolio tab
+        }
+    }
+    
+    // The portfolio totals, read under the account's lock. The 24h change is
+    // that of the positions held now, from their value at the 24h reference
+    // prices to their marked value; PnlEngine keeps both running.
+    private static final class PortfolioSummary implements Function<Account, PortfolioSummary> {
+        int assets;
+        // Money
+        long value;
+        long profitLoss;
+        long change;
+        long reference;
+        
+        @Override
+        public PortfolioSummary apply(Account account) {
+            PnlEngine pnl = account.getPnl();
+            assets = pnl.getPositions().size();
+            value = pnl.getTotalValue();
+            profitLoss = pnl.getTotalUnrealized() + pnl.getTotalRealized();
+            change = pnl.getTotalChange();
+            reference = pnl.getTotalReference();
+            return this;
+        }
+    }
+    
+    // Totals of a basket's market orders as they close
+    private static class Basket {
+        final int orders;
+        int pending;
+        int limitOrders;
+        int filledOrders;
+        int partialOrders;
+        int unfilledOrders;
+        // Money
+        long bought;
+        long sold;
+        
+        Basket(int orders) {
+            this.orders = orders;
+        }
+        
+        void onClosed(OrderRecord order, long unfilled) {
+            pending--;
+            if (order.filled == 0) {
+                unfilledOrders++;
+                return;
+            }
+            filledOrders++;
+            if (unfilled > 0) {
+                partialOrders++;
+            }
+            if (order.buy) {
+                bought += order.filledCost;
+            } else {
+                sold += order.filledCost;
+            }
+        }
+    }
+    
+    // Rebuilds the account from the newest snapshot and the records after it.
+    // Orders are replayed for the record only: the books do not survive a
+    // restart, so orders still open at exit are gone along with their
+    // reservations.
+    private class JournalReplayer implements TradeJournal.Replayer {
+        Account account;
+        boolean restored;
+        
+        @Override
+        public void onSnapshot(long sequence, DataInputStream in) throws IOException {
+            int version = in.readInt();
+            if (version != SNAPSHOT_VERSION) {
+                throw new JournalFormatException("Unsupported snapshot version " + version);
+            }
+            // Symbol ids are only meaningful for the same instrument list
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                if (i >= cryptos.length || !name.equals(cryptos[i])) {
+                    throw new JournalFormatException("Snapshot was written for a different instrument list");
+                }
+            }
+            account.setCash(in.readLong());
+            account.getPnl().readFrom(in);
+            restored = true;
+        }
+        
+        @Override
+        public void onOrder(long orderId, int symbolId, boolean buy, boolean limit, long price, long amount) {
+        }
+        
+        @Override
+        public void onFill(long orderId, int symbolId, boolean buy, long price, long quantity) {
+            PnlEngine pnl = account.getPnl();
+            if (buy) {
+                pnl.onBuy(symbolId, quantity, price);
+            } else {
+                pnl.onSell(symbolId, quantity, price);
+            }
+            restored = true;
+        }
+        
+        @Override
+        public void onOrderClosed(long orderId, int symbolId, long unfilled) {
+        }
+        
+        @Override
+        public void onBalance(long cash) {
+            account.setCash(cash);
+            restored = true;
+        }
+    }
+    
+    // Journals the user's order events while the core holds the account lock,
+    // so the journal and snapshots see every change in order, then hands them
+    // to the EDT for display
+    private class UserTradeListener implements TradingCore.TradeListener {
+        @Override
+        public void onOrderPlaced(Account account, OrderRecord order) {
+            if (account.getId() == userAccount) {
+                journalOrder(order);
+            }
+        }
+        
+        @Override
+        public void onOrderFilled(Account account, OrderRecord order, long price, long quantity) {
+            if (account.getId() == userAccount) {
+                journalFill(account, order, price, quantity);
+                orderEvents.add(() -> CryptoTradingApp.this.onOrderFilled(order));
+            }
+        }
+        
+        @Override
+        public void onOrderClosed(Account account, OrderRecord order, long unfilled) {
+            if (account.getId() == userAccount) {
+                journalClosed(order, unfilled);
+                orderEvents.add(() -> CryptoTradingApp.this.onOrderClosed(order, unfilled));
+            }
+        }
+    }
+    
+    // Custom button renderer for the market table
+    class ButtonRenderer extends JButton implements TableCellRenderer {
+        public ButtonRenderer() {
+            setOpaque(true);
+            setBackground(Theme.ACCENT);
+            setForeground(Color.WHITE);
+        }
+        
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value,
+                boolean isSelected, boolean hasFocus, int row, int column) {
+            setText((value == null) ? "" : value.toString());
+            return this;
+        }
+    }
+    
+    // Custom button editor for the market table
+    class ButtonEditor extends DefaultCellEditor {
+        protected JButton button;
+        private String label;
+        private boolean isPushed;
+        
+        public ButtonEditor(JCheckBox checkBox) {
+            super(checkBox);
+            button = new JButton();
+            button.setOpaque(true);
+            button.setBackground(Theme.ACCENT);
+            button.setForeground(Color.WHITE);
+            button.addActionListener(e -> fireEditingStopped());
+        }
+        
+        @Override
+        public Component getTableCellEditorComponent(JTable table, Object value,
+                boolean isSelected, int row, int column) {
+            label = (value == null) ? "" : value.toString();
+            button.setText(label);
+            isPushed = true;
+            return button;
+        }
+        
+        @Override
+        public Object getCellEditorValue() {
+            if (isPushed) {
+                // Switch to trade tab and select the crypto
+                tabbedPane.setSelectedIndex(2);
+                cryptoSelector.setSelectedIndex(marketTable.convertRowIndexToModel(marketTable.getEditingRow()));
+                updatePriceAndTotal();
+            }
+            isPushed = false;
+            return label;
+        }
+        
+        @Override
+        public boolean stopCellEditing() {
+            isPushed = false;
+            return super.stopCellEditing();
+        }
+    }
+    
+    public static void main(String[] args) {
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "Cannot use the system look and feel", e);
+        }
+        
+        SwingUtilities.invokeLater(() -> {
+            CryptoTradingApp app = new CryptoTradingApp();
+            app.setVisible(true);
+        });
+    }
+}
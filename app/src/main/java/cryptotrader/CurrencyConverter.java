@@ -0,0 +1,207 @@
+package cryptotrader;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Rates between any two currencies, derived from a graph of quoted pairs.
+// A currency without a direct pair is reached by triangulating over the
+// fewest pairs, e.g. EUR to BTC through EUR/USD and BTC/USD. Routes are
+// found once per change of the graph, and the rate of each route is cached
+// until one of its pairs ticks: every pair knows the routes that use it,
+// so a tick only drops those rates and a lookup is an array read unless
+// its route moved. Confined to one thread, like the UI models.
+public class CurrencyConverter {
+    private final Map<String, Integer> currencyIds = new HashMap<>();
+    private final List<String> codes = new ArrayList<>();
+    
+    // Pair p quotes 1 unit of pairBase[p] as pairRate[p] units of pairQuote[p]
+    private int pairCount;
+    private int[] pairBase = new int[8];
+    private int[] pairQuote = new int[8];
+    private double[] pairRate = new double[8];
+    
+    // Per from * size + to: the pairs of the route, each as p to multiply
+    // by the pair's rate or ~p to divide by it, null without a route
+    private int[][] routes;
+    private double[] rates;
+    private boolean[] stale;
+    // Route cells that go through each pair
+    private int[][] dependents;
+    
+    // Returns the id of the currency, adding it if needed
+    public int addCurrency(String code) {
+        Integer id = currencyIds.get(code);
+        if (id != null) {
+            return id;
+        }
+        currencyIds.put(code, codes.size());
+        codes.add(code);
+        routes = null;
+        return codes.size() - 1;
+    }
+    
+    // Returns -1 for an unknown code
+    public int getCurrency(String code) {
+        Integer id = currencyIds.get(code);
+        return id == null ? -1 : id;
+    }
+    
+    public String getCode(int currency) {
+        return codes.get(currency);
+    }
+    
+    public int size() {
+        return codes.size();
+    }
+    
+    // Adds a pair quoting 1 base as rate quote and returns its id
+    public int addPair(int base, int quote, double rate) {
+        checkCurrency(base);
+        checkCurrency(quote);
+        if (base == quote) {
+            throw new IllegalArgumentException("Pair of " + getCode(base) + " with itself");
+        }
+        if (pairCount == pairBase.length) {
+            pairBase = Arrays.copyOf(pairBase, pairCount * 2);
+            pairQuote = Arrays.copyOf(pairQuote, pairCount * 2);
+            pairRate = Arrays.copyOf(pairRate, pairCount * 2);
+        }
+        pairBase[pairCount] = base;
+        pairQuote[pairCount] = quote;
+        pairRate[pairCount] = rate;
+        routes = null;
+        return pairCount++;
+    }
+    
+    // Stores a new rate for a pair and drops the cached rates routed through it
+    public void setRate(int pair, double rate) {
+        if (pair < 0 || pair >= pairCount) {
+            throw new IllegalArgumentException("Unknown pair " + pair);
+        }
+        if (Double.compare(rate, pairRate[pair]) == 0) {
+            return;
+        }
+        pairRate[pair] = rate;
+        if (routes != null) {
+            for (int cell : dependents[pair]) {
+                stale[cell] = true;
+            }
+        }
+    }
+    
+    public double getPairRate(int pair) {
+        return pairRate[pair];
+    }
+    
+    // Units of to per unit of from, NaN if the graph does not connect them
+    public double rate(int from, int to) {
+        checkCurrency(from);
+        checkCurrency(to);
+        if (routes == null) {
+            buildRoutes();
+        }
+        int cell = from * codes.size() + to;
+        if (stale[cell]) {
+            rates[cell] = rateOf(routes[cell]);
+            stale[cell] = false;
+        }
+        return rates[cell];
+    }
+    
+    public double convert(double amount, int from, int to) {
+        return from == to ? amount : amount * rate(from, to);
+    }
+    
+    // Whether the rate is cached and up to date, package-private for the tests
+    boolean isCached(int from, int to) {
+        return routes != null && !stale[from * codes.size() + to];
+    }
+    
+    private double rateOf(int[] route) {
+        if (route == null) {
+            return Double.NaN;
+        }
+        double rate = 1;
+        for (int step : route) {
+            rate = step >= 0 ? rate * pairRate[step] : rate / pairRate[~step];
+        }
+        return rate;
+    }
+    
+    // Breadth-first search from every currency, so each route uses the
+    // fewest pairs and compounds the least rounding
+    private void buildRoutes() {
+        int size = codes.size();
+        List<List<Integer>> edges = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            edges.add(new ArrayList<>());
+        }
+        for (int p = 0; p < pairCount; p++) {
+            edges.get(pairBase[p]).add(p);
+            edges.get(pairQuote[p]).add(~p);
+        }
+        
+        routes = new int[size * size][];
+        rates = new double[size * size];
+        stale = new boolean[size * size];
+        List<List<Integer>> cellsOfPair = new ArrayList<>();
+        for (int p = 0; p < pairCount; p++) {
+            cellsOfPair.add(new ArrayList<>());
+        }
+        int[] viaStep = new int[size];
+        int[] previous = new int[size];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int from = 0; from < size; from++) {
+            Arrays.fill(previous, -1);
+            previous[from] = from;
+            queue.add(from);
+            while (!queue.isEmpty()) {
+                int current = queue.poll();
+                for (int step : edges.get(current)) {
+                    int next = step >= 0 ? pairQuote[step] : pairBase[~step];
+                    if (previous[next] < 0) {
+                        previous[next] = current;
+                        viaStep[next] = step;
+                        queue.add(next);
+                    }
+                }
+            }
+            for (int to = 0; to < size; to++) {
+                int cell = from * size + to;
+                stale[cell] = true;
+                if (previous[to] < 0) {
+                    continue;
+                }
+                int hops = 0;
+                for (int c = to; c != from; c = previous[c]) {
+                    hops++;
+                }
+                int[] route = new int[hops];
+                for (int c = to; c != from; c = previous[c]) {
+                    int step = viaStep[c];
+                    route[--hops] = step;
+                    cellsOfPair.get(step >= 0 ? step : ~step).add(cell);
+                }
+                routes[cell] = route;
+            }
+        }
+        dependents = new int[pairCount][];
+        for (int p = 0; p < pairCount; p++) {
+            List<Integer> cells = cellsOfPair.get(p);
+            dependents[p] = new int[cells.size()];
+            for (int i = 0; i < cells.size(); i++) {
+                dependents[p][i] = cells.get(i);
+            }
+        }
+    }
+    
+    private void checkCurrency(int currency) {
+        if (currency < 0 || currency >= codes.size()) {
+            throw new IllegalArgumentException("Unknown currency " + currency);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package cryptotrader;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Remembers which cells of a table changed since the last flush, so a frame
+// can report them with as few, as narrow table events as possible. EDT only.
+public class DirtyCellTracker {
+    private final BitSet dirtyRows = new BitSet();
+    private int[] columnMasks = new int[16];
+    
+    public void markCell(int row, int column) {
+        if (row >= columnMasks.length) {
+            columnMasks = Arrays.copyOf(columnMasks, Math.max(row + 1, columnMasks.length * 2));
+        }
+        dirtyRows.set(row);
+        columnMasks[row] |= 1 << column;
+    }
+    
+    public void markRow(int row) {
+        markCell(row, 31);
+        columnMasks[row] = -1;
+    }
+    
+    public boolean isEmpty() {
+        return dirtyRows.isEmpty();
+    }
+    
+    // Forgets everything, e.g. after the model fired a structural change
+    public void clear() {
+        for (int row = dirtyRows.nextSetBit(0); row >= 0; row = dirtyRows.nextSetBit(row + 1)) {
+            columnMasks[row] = 0;
+        }
+        dirtyRows.clear();
+    }
+    
+    // Fires the pending changes on the model and resets. A lone cell becomes
+    // a cell event, anything wider becomes one rows-updated event per run of
+    // consecutive dirty rows. Returns the number of events fired.
+    public int flush(AbstractTableModel model) {
+        int rowCount = model.getRowCount();
+        int events = 0;
+        int first = dirtyRows.nextSetBit(0);
+        while (first >= 0 && first < rowCount) {
+            int end = Math.min(dirtyRows.nextClearBit(first), rowCount);
+            int mask = columnMasks[first];
+            if (end == first + 1 && Integer.bitCount(mask) == 1) {
+                model.fireTableCellUpdated(first, Integer.numberOfTrailingZeros(mask));
+            } else {
+                model.fireTableRowsUpdated(first, end - 1);
+            }
+            events++;
+            first = dirtyRows.nextSetBit(end);
+        }
+        clear();
+        return events;
+    }
+}
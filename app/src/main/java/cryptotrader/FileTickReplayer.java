@@ -0,0 +1,88 @@
+package cryptotrader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Replays a recorded tick file. Each line is
+//     timestampMillis,symbol,price,size
+// where symbol is a ticker such as BTC, resolved through the registry. Blank lines, lines starting with '#'
+// and unknown symbols are skipped. A speed of 0 replays as fast as possible,
+// otherwise the original spacing between ticks is kept, scaled by speed.
+public class FileTickReplayer implements TickSource {
+    private final BufferedReader reader;
+    private final InstrumentRegistry registry;
+    private final double speed;
+    
+    private long firstTimestamp = -1;
+    private long startNanos;
+    
+    public FileTickReplayer(Path file, InstrumentRegistry registry, double speed) throws IOException {
+        if (speed < 0) {
+            throw new IllegalArgumentException("speed must not be negative");
+        }
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        this.registry = registry;
+        this.speed = speed;
+    }
+    
+    @Override
+    public boolean next(Tick tick) throws IOException, InterruptedException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length < 4) {
+                continue;
+            }
+            int symbolId = registry.idOfTicker(fields[1].trim());
+            if (symbolId == InstrumentRegistry.UNKNOWN) {
+                continue;
+            }
+            long timestamp;
+            double price;
+            double size;
+            try {
+                timestamp = Long.parseLong(fields[0].trim());
+                price = Double.parseDouble(fields[2].trim());
+                size = Double.parseDouble(fields[3].trim());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            pace(timestamp);
+            tick.set(symbolId, price, size, timestamp);
+            return true;
+        }
+        return false;
+    }
+    
+    private void pace(long timestamp) throws InterruptedException {
+        if (speed == 0) {
+            return;
+        }
+        if (firstTimestamp < 0) {
+            firstTimestamp = timestamp;
+            startNanos = System.nanoTime();
+            return;
+        }
+        long due = startNanos + (long) (TimeUnit.MILLISECONDS.toNanos(timestamp - firstTimestamp) / speed);
+        long now;
+        while ((now = System.nanoTime()) < due) {
+            LockSupport.parkNanos(due - now);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,146 @@
+package cryptotrader;
+
+// Formats numbers into a reusable char buffer, as a fast stand-in for the
+// DecimalFormat patterns the UI uses. Understands a small pattern subset,
+//     [prefix][+][#,##]0[.00##][suffix]   e.g. "$#,##0.00", "+#,##0.00%"
+// where "+" also signs positive values, "," groups thousands, every 0 after
+// the point is a fixed decimal and every # an optional one. Prefix and
+// suffix are literal text, so unlike DecimalFormat "%" does not scale the
+// value. Values round half up. write() fills the buffer and allocates nothing; format() only
+// allocates the String it returns. Not thread-safe, like DecimalFormat.
+public final class FixedFormat {
+    private static final long[] POWERS = new long[19];
+    
+    static {
+        POWERS[0] = 1;
+        for (int i = 1; i < POWERS.length; i++) {
+            POWERS[i] = POWERS[i - 1] * 10;
+        }
+    }
+    
+    private final String prefix;
+    private final String suffix;
+    private final boolean signed;
+    private final boolean grouping;
+    private final int minDecimals;
+    private final int maxDecimals;
+    private final char[] buffer;
+    
+    public FixedFormat(String pattern) {
+        int start = 0;
+        while (start < pattern.length() && "+#,0".indexOf(pattern.charAt(start)) < 0) {
+            start++;
+        }
+        int end = start;
+        while (end < pattern.length() && "+#,0.".indexOf(pattern.charAt(end)) >= 0) {
+            end++;
+        }
+        String body = pattern.substring(start, end);
+        int point = body.indexOf('.');
+        String decimals = point < 0 ? "" : body.substring(point + 1);
+        if (!body.contains("0") || !decimals.matches("0*#*") || decimals.length() >= POWERS.length) {
+            throw new IllegalArgumentException("Unsupported pattern " + pattern);
+        }
+        prefix = pattern.substring(0, start);
+        suffix = pattern.substring(end);
+        signed = body.startsWith("+");
+        grouping = body.indexOf(',') >= 0;
+        maxDecimals = decimals.length();
+        minDecimals = decimals.indexOf('#') < 0 ? maxDecimals : decimals.indexOf('#');
+        buffer = new char[prefix.length() + suffix.length() + 48];
+    }
+    
+    // The buffer write() fills from index 0
+    public char[] getBuffer() {
+        return buffer;
+    }
+    
+    // Writes a fixed-point value, value / 10^scale, and returns its length.
+    // Long.MIN_VALUE is not supported.
+    public int write(long value, int scale) {
+        long magnitude = Math.abs(value);
+        long units;
+        if (scale > maxDecimals) {
+            long divisor = POWERS[scale - maxDecimals];
+            units = magnitude / divisor;
+            if (magnitude % divisor >= divisor - divisor / 2) {
+                units++;
+            }
+        } else {
+            units = magnitude * POWERS[maxDecimals - scale];
+        }
+        return writeUnits(value < 0 && units != 0, units);
+    }
+    
+    // Writes a double and returns its length. Magnitudes beyond a long at
+    // the pattern's decimals are clamped.
+    public int write(double value) {
+        if (Double.isNaN(value)) {
+            return writeText("NaN");
+        }
+        if (Double.isInfinite(value)) {
+            return writeText(value < 0 ? "-∞" : "∞");
+        }
+        long units = Math.round(Math.abs(value) * POWERS[maxDecimals]);
+        return writeUnits(value < 0 && units != 0, units);
+    }
+    
+    public String format(long value, int scale) {
+        return new String(buffer, 0, write(value, scale));
+    }
+    
+    public String format(double value) {
+        return new String(buffer, 0, write(value));
+    }
+    
+    // Writes right to left from the end of the buffer, then moves the text to the front
+    private int writeUnits(boolean negative, long units) {
+        int position = buffer.length;
+        for (int i = suffix.length() - 1; i >= 0; i--) {
+            buffer[--position] = suffix.charAt(i);
+        }
+        
+        long integer = units / POWERS[maxDecimals];
+        long fraction = units % POWERS[maxDecimals];
+        int decimals = maxDecimals;
+        while (decimals > minDecimals && fraction % 10 == 0) {
+            fraction /= 10;
+            decimals--;
+        }
+        for (int i = 0; i < decimals; i++) {
+            buffer[--position] = (char) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        if (decimals > 0) {
+            buffer[--position] = '.';
+        }
+        
+        int digits = 0;
+        do {
+            if (grouping && digits > 0 && digits % 3 == 0) {
+                buffer[--position] = ',';
+            }
+            buffer[--position] = (char) ('0' + integer % 10);
+            integer /= 10;
+            digits++;
+        } while (integer > 0);
+        
+        if (negative) {
+            buffer[--position] = '-';
+        } else if (signed) {
+            buffer[--position] = '+';
+        }
+        for (int i = prefix.length() - 1; i >= 0; i--) {
+            buffer[--position] = prefix.charAt(i);
+        }
+        
+        int length = buffer.length - position;
+        System.arraycopy(buffer, position, buffer, 0, length);
+        return length;
+    }
+    
+    private int writeText(String text) {
+        text.getChars(0, text.length(), buffer, 0);
+        return text.length();
+    }
+}
@@ -0,0 +1,70 @@
+package cryptotrader;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Interns instruments to dense int ids (0, 1, 2, ...) in registration order.
+// Everything past the UI and file boundaries works with these ids, so prices,
+// positions and table rows can live in plain arrays indexed by symbol.
+public class InstrumentRegistry {
+    public static final int UNKNOWN = -1;
+    
+    private final Map<String, Integer> idsByName = new HashMap<>();
+    private final Map<String, Integer> idsByTicker = new HashMap<>();
+    private String[] names = new String[16];
+    private String[] tickers = new String[16];
+    private int size;
+    
+    // Registers a display name such as "Bitcoin (BTC)". The ticker is taken
+    // from the parentheses. Registering a known name returns its existing id.
+    public synchronized int register(String name) {
+        Integer existing = idsByName.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            tickers = Arrays.copyOf(tickers, size * 2);
+        }
+        int id = size++;
+        String ticker = tickerOf(name);
+        names[id] = name;
+        tickers[id] = ticker;
+        idsByName.put(name, id);
+        idsByTicker.putIfAbsent(ticker, id);
+        return id;
+    }
+    
+    public synchronized int idOf(String name) {
+        Integer id = idsByName.get(name);
+        return id == null ? UNKNOWN : id;
+    }
+    
+    public synchronized int idOfTicker(String ticker) {
+        Integer id = idsByTicker.get(ticker);
+        return id == null ? UNKNOWN : id;
+    }
+    
+    public synchronized String getName(int id) {
+        return names[id];
+    }
+    
+    public synchronized String getTicker(int id) {
+        return tickers[id];
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    public synchronized String[] getNames() {
+        return Arrays.copyOf(names, size);
+    }
+    
+    public static String tickerOf(String name) {
+        int open = name.lastIndexOf('(');
+        int close = name.lastIndexOf(')');
+        return open >= 0 && close > open ? name.substring(open + 1, close) : name;
+    }
+}
@@ -0,0 +1,103 @@
+package cryptotrader;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.TableModel;
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+// Search-as-you-type for the market table. Keystrokes restart a short
+// debounce timer; when it fires the query runs against the search index on a
+// background thread and the matching rows are applied to the table through a
+// RowFilter handed to its sorter. Only the newest query's result is applied,
+// so a slow query can never overwrite a later one. The EDT never scans the
+// instruments.
+public class InstrumentSearch {
+    public static final int DEFAULT_DEBOUNCE_MILLIS = 150;
+    
+    private final JTextField field;
+    private final Consumer<RowFilter<TableModel, Integer>> rowFilter;
+    private final Timer debounce;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "instrument-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Written on the worker thread only
+    private InstrumentSearchIndex index;
+    // Owned by the EDT
+    private long generation;
+    
+    // rowFilter sets the filter on the sorter, e.g. sorter::setRowFilter
+    public InstrumentSearch(JTextField field, Consumer<RowFilter<TableModel, Integer>> rowFilter, int debounceMillis) {
+        this.field = field;
+        this.rowFilter = rowFilter;
+        debounce = new Timer(debounceMillis, e -> searchNow());
+        debounce.setRepeats(false);
+        
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+        });
+        field.addActionListener(e -> searchNow());
+    }
+    
+    // (Re)builds the index in the background. Row ids are the positions in
+    // names. Queries issued meanwhile run once the build is done.
+    public void setInstruments(String[] names) {
+        String[] copy = names.clone();
+        worker.execute(() -> index = InstrumentSearchIndex.build(copy));
+        searchNow();
+    }
+    
+    // Runs the current query without waiting for the debounce
+    public void searchNow() {
+        debounce.stop();
+        String query = field.getText();
+        long requested = ++generation;
+        worker.execute(() -> {
+            if (index == null) {
+                return;
+            }
+            BitSet matches = index.search(query);
+            SwingUtilities.invokeLater(() -> apply(requested, matches));
+        });
+    }
+    
+    private void apply(long requested, BitSet matches) {
+        if (requested != generation) {
+            return;
+        }
+        if (matches == null) {
+            rowFilter.accept(null);
+        } else {
+            rowFilter.accept(new RowFilter<TableModel, Integer>() {
+                @Override
+                public boolean include(Entry<? extends TableModel, ? extends Integer> entry) {
+                    return matches.get(entry.getIdentifier());
+                }
+            });
+        }
+    }
+    
+    public void close() {
+        debounce.stop();
+        worker.shutdownNow();
+    }
+}
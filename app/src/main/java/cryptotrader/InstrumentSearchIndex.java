@@ -0,0 +1,184 @@
+package cryptotrader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+// Immutable search index over instrument names such as "Bitcoin (BTC)", by
+// symbol id. Query words of one or two characters match the start of a word
+// in the name or ticker, through a sorted token array. Longer words match
+// anywhere, through trigram posting lists: candidates come from the word's
+// rarest trigram and are then checked, so a query only looks at names that
+// can match. All words of a query must match.
+// Built once, off the EDT, and safe to query from any thread.
+public class InstrumentSearchIndex {
+    private final String[] texts;
+    private final String[] tokens;
+    private final int[] tokenOwners;
+    private final LongIntMap trigramSlots;
+    private final int[][] postings;
+    
+    private InstrumentSearchIndex(String[] texts, String[] tokens, int[] tokenOwners, LongIntMap trigramSlots,
+            int[][] postings) {
+        this.texts = texts;
+        this.tokens = tokens;
+        this.tokenOwners = tokenOwners;
+        this.trigramSlots = trigramSlots;
+        this.postings = postings;
+    }
+    
+    public static InstrumentSearchIndex build(String[] names) {
+        String[] texts = new String[names.length];
+        List<Token> tokenList = new ArrayList<>();
+        LongIntMap trigramSlots = new LongIntMap(Math.max(16, names.length * 8));
+        List<int[]> postingList = new ArrayList<>();
+        int[] postingSizes = new int[16];
+        
+        for (int id = 0; id < names.length; id++) {
+            String text = names[id].toLowerCase(Locale.ROOT);
+            texts[id] = text;
+            // Words are runs of letters and digits
+            int start = -1;
+            for (int i = 0; i <= text.length(); i++) {
+                boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    tokenList.add(new Token(text.substring(start, i), id));
+                    start = -1;
+                }
+            }
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                long trigram = trigramOf(text, i);
+                int slot = trigramSlots.get(trigram);
+                if (slot == LongIntMap.MISSING) {
+                    slot = postingList.size();
+                    trigramSlots.put(trigram, slot);
+                    postingList.add(new int[4]);
+                    if (slot == postingSizes.length) {
+                        postingSizes = Arrays.copyOf(postingSizes, slot * 2);
+                    }
+                }
+                // Ids arrive in order, so a repeated trigram of this name is the last entry
+                int[] posting = postingList.get(slot);
+                int size = postingSizes[slot];
+                if (size > 0 && posting[size - 1] == id) {
+                    continue;
+                }
+                if (size == posting.length) {
+                    posting = Arrays.copyOf(posting, size * 2);
+                    postingList.set(slot, posting);
+                }
+                posting[size] = id;
+                postingSizes[slot] = size + 1;
+            }
+        }
+        
+        int[][] postings = new int[postingList.size()][];
+        for (int slot = 0; slot < postings.length; slot++) {
+            postings[slot] = Arrays.copyOf(postingList.get(slot), postingSizes[slot]);
+        }
+        
+        // Tokens sorted with their owners, for prefix ranges by binary search
+        Token[] sorted = tokenList.toArray(new Token[0]);
+        Arrays.sort(sorted);
+        String[] tokens = new String[sorted.length];
+        int[] tokenOwners = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            tokens[i] = sorted[i].text;
+            tokenOwners[i] = sorted[i].owner;
+        }
+        return new InstrumentSearchIndex(texts, tokens, tokenOwners, trigramSlots, postings);
+    }
+    
+    public int size() {
+        return texts.length;
+    }
+    
+    // Ids of the instruments matching every word of the query, or null when
+    // the query is blank and everything matches
+    public BitSet search(String query) {
+        String[] words = query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        if (words.length == 0 || words[0].isEmpty()) {
+            return null;
+        }
+        BitSet result = null;
+        for (String word : words) {
+            BitSet matches = word.length() < 3 ? searchPrefix(word) : searchSubstring(word);
+            if (result == null) {
+                result = matches;
+            } else {
+                result.and(matches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+    
+    private BitSet searchPrefix(String prefix) {
+        BitSet matches = new BitSet(texts.length);
+        for (int i = lowerBound(prefix); i < tokens.length && tokens[i].startsWith(prefix); i++) {
+            matches.set(tokenOwners[i]);
+        }
+        return matches;
+    }
+    
+    private BitSet searchSubstring(String word) {
+        BitSet matches = new BitSet(texts.length);
+        int[] candidates = null;
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            int slot = trigramSlots.get(trigramOf(word, i));
+            if (slot == LongIntMap.MISSING) {
+                return matches;
+            }
+            if (candidates == null || postings[slot].length < candidates.length) {
+                candidates = postings[slot];
+            }
+        }
+        for (int id : candidates) {
+            if (texts[id].contains(word)) {
+                matches.set(id);
+            }
+        }
+        return matches;
+    }
+    
+    // First token not less than key
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = tokens.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokens[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    // Three chars packed into a long, never 0 because of the marker bit
+    private static long trigramOf(String text, int start) {
+        return 1L << 48 | (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+    
+    private static final class Token implements Comparable<Token> {
+        final String text;
+        final int owner;
+        
+        Token(String text, int owner) {
+            this.text = text;
+            this.owner = owner;
+        }
+        
+        @Override
+        public int compareTo(Token other) {
+            return text.compareTo(other.text);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package cryptotrader;
+
+import java.io.IOException;
+
+// Thrown when a journal or its snapshot was written in a format this version
+// cannot read. Unlike other I/O failures it does not go away on a retry, so
+// the journal is moved aside and a new one started.
+public class JournalFormatException extends IOException {
+    
+    public JournalFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,180 @@
+package cryptotrader;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// A lock-free histogram of latencies in nanoseconds, bucketed the way
+// HdrHistogram does it: values below 32 ns get a bucket each, and every
+// power of two above is split into 32 linear sub-buckets, so any recorded
+// value is known to within about 3% over the whole range. Values above
+// about 137 s land in the top bucket. Recording is a couple of atomic adds
+// on a fixed array, with no allocation, so it can stay on in production.
+//
+// Counts only ever grow. Interval statistics come from subtracting an
+// earlier snapshot, which never races with recording threads the way a
+// reset would.
+public class LatencyHistogram implements LatencyHistogramMBean {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        sum.addAndGet(value);
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                break;
+            }
+        }
+    }
+    
+    // Records the time since a System.nanoTime() taken earlier
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+    
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, sum.get());
+    }
+    
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        // The top SUB_BUCKET_BITS + 1 bits, from SUB_BUCKETS to 2 * SUB_BUCKETS - 1
+        int mantissa = (int) (value >>> shift);
+        return (shift + 1) * SUB_BUCKETS + mantissa - SUB_BUCKETS;
+    }
+    
+    // Largest value that falls into the bucket
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = SUB_BUCKETS + bucket % SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+    
+    // JMX view of everything recorded so far, in microseconds
+    
+    @Override
+    public long getCount() {
+        return snapshot().getCount();
+    }
+    
+    @Override
+    public double getMeanMicros() {
+        return snapshot().getMean() / 1000.0;
+    }
+    
+    @Override
+    public double getMaxMicros() {
+        return max.get() / 1000.0;
+    }
+    
+    @Override
+    public double getMedianMicros() {
+        return snapshot().getPercentile(50) / 1000.0;
+    }
+    
+    @Override
+    public double get90thPercentileMicros() {
+        return snapshot().getPercentile(90) / 1000.0;
+    }
+    
+    @Override
+    public double get99thPercentileMicros() {
+        return snapshot().getPercentile(99) / 1000.0;
+    }
+    
+    @Override
+    public double get999thPercentileMicros() {
+        return snapshot().getPercentile(99.9) / 1000.0;
+    }
+    
+    // Bucket counts at one point in time. Values are in nanoseconds and, as
+    // in the histogram, within about 3% of what was recorded.
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long sum;
+        private final long count;
+        
+        private Snapshot(long[] counts, long sum) {
+            this.counts = counts;
+            this.sum = sum;
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            this.count = total;
+        }
+        
+        // What was recorded after the earlier snapshot was taken
+        public Snapshot since(Snapshot earlier) {
+            long[] delta = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                delta[i] = counts[i] - earlier.counts[i];
+            }
+            return new Snapshot(delta, sum - earlier.sum);
+        }
+        
+        public long getCount() {
+            return count;
+        }
+        
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+        
+        public long getMax() {
+            for (int i = BUCKETS - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return highestValueOf(i);
+                }
+            }
+            return 0;
+        }
+        
+        // The value that percent of the recorded values are at or below
+        public long getPercentile(double percent) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percent / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return highestValueOf(i);
+                }
+            }
+            return getMax();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package cryptotrader;
+
+// JMX attributes of a LatencyHistogram, registered by LatencyMetrics
+public interface LatencyHistogramMBean {
+    long getCount();
+    
+    double getMeanMicros();
+    
+    double getMaxMicros();
+    
+    double getMedianMicros();
+    
+    double get90thPercentileMicros();
+    
+    double get99thPercentileMicros();
+    
+    double get999thPercentileMicros();
+}
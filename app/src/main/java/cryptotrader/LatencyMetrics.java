@@ -0,0 +1,120 @@
+package cryptotrader;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.swing.SwingUtilities;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// The app's latency histograms. Each one is registered as an MBean under
+// cryptotrader:type=Latency,name=<name>, and a daemon thread appends what
+// was recorded in every interval to a CSV file. The same thread probes the
+// EDT by posting an empty event and timing how long it waits in the queue.
+public class LatencyMetrics implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(LatencyMetrics.class.getName());
+    private static final String CSV_HEADER = "time,name,count,meanMicros,p50Micros,p90Micros,p99Micros,p999Micros,maxMicros";
+    
+    private final List<LatencyHistogram> histograms = new ArrayList<>();
+    private final List<ObjectName> registered = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "latency-metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private LatencyHistogram.Snapshot[] lastSnapshots = new LatencyHistogram.Snapshot[0];
+    
+    // Creates a histogram and registers it with the platform MBean server.
+    // A failed registration only costs the JMX view.
+    public synchronized LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = new LatencyHistogram(name);
+        histograms.add(histogram);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("cryptotrader:type=Latency,name=" + name);
+            server.registerMBean(histogram, objectName);
+            registered.add(objectName);
+        } catch (JMException e) {
+            LOG.log(Level.WARNING, "Cannot register latency MBean " + name, e);
+        }
+        return histogram;
+    }
+    
+    // Times a no-op event through the EDT queue every periodMillis
+    public void probeEventQueue(LatencyHistogram histogram, long periodMillis) {
+        scheduler.scheduleAtFixedRate(() -> {
+            long posted = System.nanoTime();
+            SwingUtilities.invokeLater(() -> histogram.recordSince(posted));
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    // Appends one row per histogram to the file every intervalSeconds, for
+    // the values recorded since the previous row
+    public void dumpCsv(Path file, long intervalSeconds) {
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                appendCsv(file);
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Cannot write latency metrics to " + file, e);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+    
+    synchronized void appendCsv(Path file) throws IOException {
+        boolean header = !Files.exists(file);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        if (lastSnapshots.length < histograms.size()) {
+            lastSnapshots = Arrays.copyOf(lastSnapshots, histograms.size());
+        }
+        long now = System.currentTimeMillis();
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (header) {
+                out.write(CSV_HEADER);
+                out.newLine();
+            }
+            for (int i = 0; i < histograms.size(); i++) {
+                LatencyHistogram histogram = histograms.get(i);
+                LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+                LatencyHistogram.Snapshot interval = lastSnapshots[i] == null ? snapshot : snapshot.since(lastSnapshots[i]);
+                lastSnapshots[i] = snapshot;
+                out.write(String.format(Locale.ROOT, "%d,%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f", now,
+                        histogram.getName(), interval.getCount(), interval.getMean() / 1000,
+                        interval.getPercentile(50) / 1000.0, interval.getPercentile(90) / 1000.0,
+                        interval.getPercentile(99) / 1000.0, interval.getPercentile(99.9) / 1000.0,
+                        interval.getMax() / 1000.0));
+                out.newLine();
+            }
+        }
+    }
+    
+    @Override
+    public synchronized void close() {
+        scheduler.shutdownNow();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objectName : registered) {
+            try {
+                server.unregisterMBean(objectName);
+            } catch (JMException e) {
+                // Already gone
+            }
+        }
+        registered.clear();
+    }
+}
@@ -0,0 +1,117 @@
+package cryptotrader;
+
+import java.util.Arrays;
+
+// Open-addressing map from long keys to int values, without boxing. Key 0 is
+// reserved to mark empty slots. Not thread-safe.
+public class LongIntMap {
+    public static final int MISSING = -1;
+    
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    
+    public LongIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+    
+    public int get(long key) {
+        int index = indexOf(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+    
+    public void put(long key, int value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int index = indexOf(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length * 2);
+        }
+    }
+    
+    public int remove(long key) {
+        int index = indexOf(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                int value = values[index];
+                shiftBack(index);
+                size--;
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+    
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void shiftBack(int gap) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            long key = keys[index];
+            if (key == 0) {
+                break;
+            }
+            int home = indexOf(key);
+            // Move the entry into the gap unless its home lies between the gap and itself
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        keys[gap] = 0;
+    }
+    
+    private int indexOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity / 2;
+    }
+    
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
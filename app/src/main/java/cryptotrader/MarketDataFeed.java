@@ -0,0 +1,221 @@
+package cryptotrader;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Pulls ticks from a TickSource on its own thread and conflates them per
+// symbol. Consumers subscribe and drain at their own pace; however fast the
+// feed runs, a subscription never holds more than one pending update per
+// symbol, so memory is fixed by the number of symbols and nothing queues up.
+//
+// Raw tick listeners see every tick on the feed thread before conflation.
+// They must be quick and must not block.
+public class MarketDataFeed implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(MarketDataFeed.class.getName());
+    
+    // Called on the feed thread for every tick
+    public interface TickListener {
+        void onTick(Tick tick);
+    }
+    
+    // Called by Subscription.drain for each symbol that changed since the
+    // last drain. volume is the total size traded in between.
+    public interface UpdateHandler {
+        void onUpdate(int symbolId, double price, double volume, long timestamp);
+    }
+    
+    private final TickSource source;
+    private final int symbolCount;
+    private final AtomicLongArray lastPrices;
+    private final AtomicLongArray lastTimestamps;
+    
+    private volatile TickListener[] listeners = new TickListener[0];
+    private volatile Subscription[] subscriptions = new Subscription[0];
+    private volatile long tickCount;
+    
+    private Thread thread;
+    private volatile boolean running;
+    
+    public MarketDataFeed(TickSource source, double[] initialPrices) {
+        this.source = source;
+        this.symbolCount = initialPrices.length;
+        this.lastPrices = new AtomicLongArray(symbolCount);
+        this.lastTimestamps = new AtomicLongArray(symbolCount);
+        for (int i = 0; i < symbolCount; i++) {
+            lastPrices.set(i, Double.doubleToRawLongBits(initialPrices[i]));
+        }
+    }
+    
+    public synchronized void addTickListener(TickListener listener) {
+        TickListener[] current = listeners;
+        TickListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+    
+    public synchronized Subscription subscribe() {
+        Subscription subscription = new Subscription();
+        Subscription[] current = subscriptions;
+        Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = subscription;
+        subscriptions = updated;
+        return subscription;
+    }
+    
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+    
+    // Latest price for a symbol, readable from any thread
+    public double getPrice(int symbolId) {
+        return Double.longBitsToDouble(lastPrices.get(symbolId));
+    }
+    
+    public long getTimestamp(int symbolId) {
+        return lastTimestamps.get(symbolId);
+    }
+    
+    public long getTickCount() {
+        return tickCount;
+    }
+    
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Feed already started");
+        }
+        running = true;
+        thread = new Thread(this::run, "market-data-feed");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void run() {
+        Tick tick = new Tick();
+        try {
+            while (running && source.next(tick)) {
+                publish(tick);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOG.log(Level.SEVERE, "Market data feed stopped", e);
+        } finally {
+            running = false;
+        }
+    }
+    
+    // Exposed so a source can also be pumped synchronously, e.g. in tests or
+    // headless replays. Must only be called from one thread at a time.
+    public void publish(Tick tick) {
+        int symbolId = tick.symbolId;
+        if (symbolId < 0 || symbolId >= symbolCount) {
+            return;
+        }
+        for (TickListener listener : listeners) {
+            listener.onTick(tick);
+        }
+        
+        lastPrices.set(symbolId, Double.doubleToRawLongBits(tick.price));
+        lastTimestamps.set(symbolId, tick.timestamp);
+        for (Subscription subscription : subscriptions) {
+            subscription.mark(symbolId, tick.size);
+        }
+        tickCount++;
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Stops the feed thread and closes the source. If interrupted while
+    // waiting for the thread it stops waiting and leaves the interrupt set.
+    @Override
+    public void close() throws IOException {
+        Thread t;
+        synchronized (this) {
+            running = false;
+            t = thread;
+        }
+        if (t != null) {
+            t.interrupt();
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        source.close();
+    }
+    
+    // A conflated view of the feed for a single consumer thread. Each symbol
+    // is queued at most once until it is drained, so the ring below can
+    // never overflow.
+    public final class Subscription {
+        private final AtomicIntegerArray pending = new AtomicIntegerArray(symbolCount);
+        private final AtomicLongArray volumes = new AtomicLongArray(symbolCount);
+        // System.nanoTime() of the tick that queued each pending symbol,
+        // published with the ring slot
+        private final long[] queuedNanos = new long[symbolCount];
+        private final int[] ring;
+        private final int mask;
+        
+        // Written by the feed thread only
+        private final AtomicLong tail = new AtomicLong();
+        // Read and written by the consumer only
+        private long head;
+        
+        private Subscription() {
+            int capacity = Integer.highestOneBit(Math.max(1, symbolCount - 1)) << 1;
+            ring = new int[capacity];
+            mask = capacity - 1;
+        }
+        
+        private void mark(int symbolId, double size) {
+            long bits;
+            do {
+                bits = volumes.get(symbolId);
+            } while (!volumes.compareAndSet(symbolId, bits,
+                    Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + size)));
+            
+            if (pending.compareAndSet(symbolId, 0, 1)) {
+                queuedNanos[symbolId] = System.nanoTime();
+                long t = tail.get();
+                ring[(int) (t & mask)] = symbolId;
+                tail.lazySet(t + 1);
+            }
+        }
+        
+        // Delivers every symbol that changed since the previous drain and
+        // returns how many there were. Only one thread may drain.
+        public int drain(UpdateHandler handler) {
+            long t = tail.get();
+            int count = 0;
+            while (head < t) {
+                int symbolId = ring[(int) (head & mask)];
+                head++;
+                // Clear the flag before reading the price, so a tick that lands
+                // after our read queues the symbol again rather than being lost
+                pending.set(symbolId, 0);
+                double volume = Double.longBitsToDouble(volumes.getAndSet(symbolId, 0L));
+                handler.onUpdate(symbolId, getPrice(symbolId), volume, getTimestamp(symbolId));
+                count++;
+            }
+            return count;
+        }
+        
+        // When the update being delivered for the symbol was queued, the
+        // age of the oldest tick it stands for. Only valid inside drain.
+        public long getQueuedNanos(int symbolId) {
+            return queuedNanos[symbolId];
+        }
+        
+        public boolean hasPending() {
+            return head < tail.get();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package cryptotrader;
+
+import javax.swing.RowFilter;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Sorting and filtering of the market table, kept up to date per tick. The
+// rows the filter lets through sit in a RankIndex keyed by the sorted
+// column, so an updated row is moved to its new place in O(log n) and a
+// view row is found in O(log n), where a TableRowSorter re-sorts or copies
+// every row on each update. Unsorted rows keep the model order. Only the
+// first sort key counts; equal values stay in model order. EDT only.
+public class MarketRowSorter extends RowSorter<MarketTableModel> {
+    private final MarketTableModel model;
+    private final RankIndex index;
+    // Position of each row's name in alphabetical order, the key for names
+    private final double[] nameOrder;
+    private final FilterEntry entry = new FilterEntry();
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private RowFilter<? super MarketTableModel, ? super Integer> filter;
+    private int sortColumn = -1;
+    private boolean descending;
+    private boolean orderChanged;
+    
+    public MarketRowSorter(MarketTableModel model) {
+        this.model = model;
+        index = new RankIndex(model.getRowCount());
+        nameOrder = new double[model.getRowCount()];
+        rebuild();
+    }
+    
+    @Override
+    public MarketTableModel getModel() {
+        return model;
+    }
+    
+    public boolean isSortable(int column) {
+        return column != MarketTableModel.ACTION_COLUMN;
+    }
+    
+    // Sorts ascending by the column, or flips the order if it is sorted already
+    @Override
+    public void toggleSortOrder(int column) {
+        checkColumn(column);
+        if (!isSortable(column)) {
+            return;
+        }
+        SortOrder order = column == sortColumn && !descending ? SortOrder.DESCENDING : SortOrder.ASCENDING;
+        setSortKeys(Collections.singletonList(new SortKey(column, order)));
+    }
+    
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (index < 0 || index >= this.index.size()) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+        return this.index.idAt(index);
+    }
+    
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (index < 0 || index >= model.getRowCount()) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+        return this.index.rankOf(index);
+    }
+    
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> copy = keys == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(keys));
+        for (SortKey key : copy) {
+            checkColumn(key.getColumn());
+        }
+        if (copy.equals(sortKeys)) {
+            return;
+        }
+        sortKeys = copy;
+        SortKey primary = copy.isEmpty() ? null : copy.get(0);
+        if (primary == null || primary.getSortOrder() == SortOrder.UNSORTED || !isSortable(primary.getColumn())) {
+            sortColumn = -1;
+            descending = false;
+        } else {
+            sortColumn = primary.getColumn();
+            descending = primary.getSortOrder() == SortOrder.DESCENDING;
+        }
+        fireSortOrderChanged();
+        int[] previous = index.toArray();
+        rebuild();
+        fireRowSorterChanged(previous);
+    }
+    
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+    
+    // Same contract as DefaultRowSorter.setRowFilter; null shows every row
+    public void setRowFilter(RowFilter<? super MarketTableModel, ? super Integer> filter) {
+        this.filter = filter;
+        int[] previous = index.toArray();
+        rebuild();
+        fireRowSorterChanged(previous);
+    }
+    
+    @Override
+    public int getViewRowCount() {
+        return index.size();
+    }
+    
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+    
+    @Override
+    public void modelStructureChanged() {
+        rebuild();
+        fireRowSorterChanged(null);
+    }
+    
+    @Override
+    public void allRowsChanged() {
+        rebuild();
+        fireRowSorterChanged(null);
+    }
+    
+    // The market has a fixed set of rows, so these only happen on a reload
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        allRowsChanged();
+    }
+    
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        allRowsChanged();
+    }
+    
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        checkRange(firstRow, endRow);
+        boolean moved = false;
+        for (int row = firstRow; row <= endRow; row++) {
+            moved |= reposition(row);
+        }
+        if (moved) {
+            orderChanged = true;
+            // The table keeps its selection by model row while it applies
+            // a model event, so it does not need the previous order
+            fireRowSorterChanged(null);
+        }
+    }
+    
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        checkColumn(column);
+        if (column == sortColumn) {
+            rowsUpdated(firstRow, endRow);
+        }
+    }
+    
+    // True once after updates moved rows. A JTable only repaints the rows
+    // of a model event, so the caller repaints the table when this is set.
+    public boolean takeOrderChanged() {
+        boolean changed = orderChanged;
+        orderChanged = false;
+        return changed;
+    }
+    
+    // Moves a row to the place of its current value, true if its view row changed
+    private boolean reposition(int row) {
+        if (sortColumn < 0 || !index.contains(row)) {
+            return false;
+        }
+        int before = index.rankOf(row);
+        index.put(row, keyOf(row));
+        return index.rankOf(row) != before;
+    }
+    
+    private void rebuild() {
+        int rows = model.getRowCount();
+        if (sortColumn == MarketTableModel.NAME_COLUMN) {
+            Integer[] byName = new Integer[rows];
+            for (int row = 0; row < rows; row++) {
+                byName[row] = row;
+            }
+            Arrays.sort(byName, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(model.getName(a), model.getName(b)));
+            for (int i = 0; i < rows; i++) {
+                nameOrder[byName[i]] = i;
+            }
+        }
+        index.clear();
+        for (int row = 0; row < rows; row++) {
+            if (filter == null || filter.include(entry.of(row))) {
+                index.put(row, keyOf(row));
+            }
+        }
+    }
+    
+    private double keyOf(int row) {
+        double key;
+        switch (sortColumn) {
+            case MarketTableModel.NAME_COLUMN:
+                key = nameOrder[row];
+                break;
+            case MarketTableModel.PRICE_COLUMN:
+                key = model.getPrice(row);
+                break;
+            case MarketTableModel.CHANGE_COLUMN:
+                key = model.getChange(row);
+                break;
+            case MarketTableModel.MARKET_CAP_COLUMN:
+                key = model.getMarketCap(row);
+                break;
+            default:
+                return row;
+        }
+        return descending ? -key : key;
+    }
+    
+    private void checkColumn(int column) {
+        if (column < 0 || column >= model.getColumnCount()) {
+            throw new IndexOutOfBoundsException("Invalid column " + column);
+        }
+    }
+    
+    private void checkRange(int firstRow, int endRow) {
+        if (firstRow < 0 || endRow >= model.getRowCount() || firstRow > endRow) {
+            throw new IndexOutOfBoundsException("Invalid range " + firstRow + " to " + endRow);
+        }
+    }
+    
+    // The row handed to the filter, reused for every row
+    private class FilterEntry extends RowFilter.Entry<MarketTableModel, Integer> {
+        private int row;
+        
+        FilterEntry of(int row) {
+            this.row = row;
+            return this;
+        }
+        
+        @Override
+        public MarketTableModel getModel() {
+            return model;
+        }
+        
+        @Override
+        public int getValueCount() {
+            return model.getColumnCount();
+        }
+        
+        @Override
+        public Object getValue(int index) {
+            return model.getValueAt(row, index);
+        }
+        
+        @Override
+        public Integer getIdentifier() {
+            return row;
+        }
+    }
+}
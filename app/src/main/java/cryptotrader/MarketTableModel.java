@@ -0,0 +1,143 @@
+package cryptotrader;
+
+import javax.swing.table.AbstractTableModel;
+
+// Table model for the market overview. Values are kept in primitive columns
+// and handed to the table as NumericCells, which only turn into text when a
+// visible cell is painted and keep that text until the value changes, so an
+// unchanged value is never formatted twice.
+public class MarketTableModel extends AbstractTableModel {
+    public static final int NAME_COLUMN = 0;
+    public static final int PRICE_COLUMN = 1;
+    public static final int CHANGE_COLUMN = 2;
+    public static final int MARKET_CAP_COLUMN = 3;
+    public static final int ACTION_COLUMN = 4;
+    
+    private static final String[] COLUMN_NAMES = {"Cryptocurrency", "Price (USD)", "24h Change", "Market Cap", "Action"};
+    private static final String ACTION_LABEL = "Trade";
+    
+    private final String[] names;
+    private final double[] prices;
+    private final double[] changes;
+    private final double[] supplies;
+    private final long[] marketCaps;
+    
+    private final FixedFormat priceFormat = new FixedFormat("$#,##0.00");
+    private final FixedFormat changeFormat = new FixedFormat("+#,##0.00%");
+    
+    private final NumericCell[] priceCells;
+    private final NumericCell[] changeCells;
+    private final NumericCell[] marketCapCells;
+    
+    public MarketTableModel(String[] names, double[] prices, double[] changes, double[] supplies) {
+        int rows = names.length;
+        this.names = names.clone();
+        this.prices = prices.clone();
+        this.changes = changes.clone();
+        this.supplies = supplies.clone();
+        this.marketCaps = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            marketCaps[i] = Math.round(prices[i] * supplies[i]);
+        }
+        
+        priceCells = new NumericCell[rows];
+        changeCells = new NumericCell[rows];
+        marketCapCells = new NumericCell[rows];
+        for (int i = 0; i < rows; i++) {
+            priceCells[i] = new NumericCell(priceFormat);
+            changeCells[i] = new NumericCell(changeFormat);
+            marketCapCells[i] = new NumericCell(priceFormat);
+        }
+    }
+    
+    // Stores a new price and change for a row. Returns true if anything
+    // visible changed; firing the table event is left to the caller so
+    // updates can be batched.
+    public boolean update(int row, double price, double change) {
+        if (prices[row] == price && changes[row] == change) {
+            return false;
+        }
+        prices[row] = price;
+        changes[row] = change;
+        marketCaps[row] = Math.round(price * supplies[row]);
+        return true;
+    }
+    
+    public double getPrice(int row) {
+        return prices[row];
+    }
+    
+    public double getChange(int row) {
+        return changes[row];
+    }
+    
+    public long getMarketCap(int row) {
+        return marketCaps[row];
+    }
+    
+    public double getSupply(int row) {
+        return supplies[row];
+    }
+    
+    public String getName(int row) {
+        return names[row];
+    }
+    
+    @Override
+    public int getRowCount() {
+        return names.length;
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+    
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case PRICE_COLUMN:
+            case CHANGE_COLUMN:
+            case MARKET_CAP_COLUMN:
+                return NumericCell.class;
+            default:
+                return String.class;
+        }
+    }
+    
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == ACTION_COLUMN; // Only action column is editable
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case NAME_COLUMN:
+                return names[row];
+            case PRICE_COLUMN:
+                priceCells[row].set(prices[row]);
+                return priceCells[row];
+            case CHANGE_COLUMN:
+                changeCells[row].set(changes[row]);
+                return changeCells[row];
+            case MARKET_CAP_COLUMN:
+                marketCapCells[row].set(marketCaps[row]);
+                return marketCapCells[row];
+            case ACTION_COLUMN:
+                return ACTION_LABEL;
+            default:
+                throw new IndexOutOfBoundsException("column " + column);
+        }
+    }
+    
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        // The action column is only "edited" to trigger the trade button
+    }
+}
@@ -0,0 +1,282 @@
+package cryptotrader;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs one OrderBook per symbol on a single engine thread. Any thread can
+// submit orders; they go through a lock-free multi-producer ring of
+// preallocated command slots and are applied in sequence by the engine
+// thread, which is the only writer of the books. Results arrive on the
+// engine thread through the OrderEventListener.
+//
+// When given a market data subscription, the engine also quotes house
+// liquidity at the latest price of every symbol that ticks, so market orders
+// fill at the feed price and resting limit orders fill once the market
+// trades through them.
+public class MatchingEngine implements AutoCloseable {
+    // Prices and quantities are fixed-point longs: Money and Quantity units
+    public static final long PRICE_SCALE = Money.SCALE;
+    public static final long QUANTITY_SCALE = Quantity.SCALE;
+    
+    // Owner id used for the engine's own liquidity
+    public static final int HOUSE_OWNER = 0;
+    private static final long HOUSE_QUANTITY = Long.MAX_VALUE / 4;
+    
+    private static final byte LIMIT = 1;
+    private static final byte IMMEDIATE = 2;
+    private static final byte CANCEL = 3;
+    private static final byte QUOTE = 4;
+    
+    private final OrderBook[] books;
+    private final OrderEventListener listener;
+    private final AtomicLong nextOrderId = new AtomicLong(1);
+    
+    // Command ring, slot i holds the command with sequence published[i]
+    private final int capacity;
+    private final int mask;
+    private final byte[] types;
+    private final int[] symbols;
+    private final int[] owners;
+    private final boolean[] buys;
+    private final long[] orderIds;
+    private final long[] prices;
+    private final long[] quantities;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private long nextSequence;
+    
+    // House liquidity
+    private MarketDataFeed.Subscription quotes;
+    private final MarketDataFeed.UpdateHandler requoteHandler = this::onQuote;
+    private final long[] houseBids;
+    private final long[] houseAsks;
+    
+    private Thread thread;
+    private volatile boolean running;
+    
+    public MatchingEngine(int symbolCount, OrderEventListener listener) {
+        this(symbolCount, listener, 1 << 16);
+    }
+    
+    public MatchingEngine(int symbolCount, OrderEventListener listener, int ringSize) {
+        this.books = new OrderBook[symbolCount];
+        this.listener = listener;
+        this.capacity = Integer.highestOneBit(Math.max(2, ringSize - 1)) << 1;
+        this.mask = capacity - 1;
+        types = new byte[capacity];
+        symbols = new int[capacity];
+        owners = new int[capacity];
+        buys = new boolean[capacity];
+        orderIds = new long[capacity];
+        prices = new long[capacity];
+        quantities = new long[capacity];
+        published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        houseBids = new long[symbolCount];
+        houseAsks = new long[symbolCount];
+    }
+    
+    // Quote house liquidity from this subscription. Call before start().
+    public void setQuoteSource(MarketDataFeed.Subscription quotes) {
+        this.quotes = quotes;
+    }
+    
+    public static long toPrice(double price) {
+        return Math.round(price * PRICE_SCALE);
+    }
+    
+    public static long toQuantity(double quantity) {
+        return Math.round(quantity * QUANTITY_SCALE);
+    }
+    
+    public static double priceOf(long price) {
+        return (double) price / PRICE_SCALE;
+    }
+    
+    public static double quantityOf(long quantity) {
+        return (double) quantity / QUANTITY_SCALE;
+    }
+    
+    public long submitLimit(int owner, int symbolId, boolean buy, long price, long quantity) {
+        long orderId = nextOrderId();
+        submitLimit(orderId, owner, symbolId, buy, price, quantity);
+        return orderId;
+    }
+    
+    // Fills what it can at limitPrice or better and cancels the rest
+    public long submitImmediate(int owner, int symbolId, boolean buy, long limitPrice, long quantity) {
+        long orderId = nextOrderId();
+        submitImmediate(orderId, owner, symbolId, buy, limitPrice, quantity);
+        return orderId;
+    }
+    
+    // Reserves an id, so a caller can record an order before submitting it
+    // with the overloads below. Submitting may wait for room in the ring, so
+    // it must not happen under a lock that event callbacks take.
+    public long nextOrderId() {
+        return nextOrderId.getAndIncrement();
+    }
+    
+    public void submitLimit(long orderId, int owner, int symbolId, boolean buy, long price, long quantity) {
+        enqueue(LIMIT, symbolId, owner, buy, orderId, price, quantity);
+    }
+    
+    public void submitImmediate(long orderId, int owner, int symbolId, boolean buy, long limitPrice,
+            long quantity) {
+        enqueue(IMMEDIATE, symbolId, owner, buy, orderId, limitPrice, quantity);
+    }
+    
+    public long submitMarket(int owner, int symbolId, boolean buy, long quantity) {
+        return submitImmediate(owner, symbolId, buy, buy ? Long.MAX_VALUE : Long.MIN_VALUE, quantity);
+    }
+    
+    public void cancel(int symbolId, long orderId) {
+        enqueue(CANCEL, symbolId, 0, false, orderId, 0, 0);
+    }
+    
+    // Moves the house quotes of a symbol to a price, e.g. to seed liquidity
+    // before the first tick arrives
+    public void quote(int symbolId, double price) {
+        enqueue(QUOTE, symbolId, HOUSE_OWNER, false, 0, toPrice(price), 0);
+    }
+    
+    private void enqueue(byte type, int symbolId, int owner, boolean buy, long orderId, long price, long quantity) {
+        if (symbolId < 0 || symbolId >= books.length) {
+            throw new IllegalArgumentException("Unknown symbol " + symbolId);
+        }
+        if ((type == LIMIT || type == IMMEDIATE) && quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        long sequence = claimed.getAndIncrement();
+        // Wait for the engine to free the slot when the ring is full
+        while (sequence - consumed.get() >= capacity) {
+            LockSupport.parkNanos(1000);
+        }
+        int index = (int) (sequence & mask);
+        types[index] = type;
+        symbols[index] = symbolId;
+        owners[index] = owner;
+        buys[index] = buy;
+        orderIds[index] = orderId;
+        prices[index] = price;
+        quantities[index] = quantity;
+        published.lazySet(index, sequence);
+    }
+    
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Engine already started");
+        }
+        running = true;
+        thread = new Thread(this::run, "matching-engine");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void run() {
+        int idle = 0;
+        while (running) {
+            int work = processCommands(1024);
+            if (quotes != null) {
+                work += quotes.drain(requoteHandler);
+            }
+            if (work > 0) {
+                idle = 0;
+            } else if (++idle < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(50_000);
+            }
+        }
+        processCommands(Integer.MAX_VALUE);
+    }
+    
+    // Applies up to limit published commands in sequence order. Only the
+    // engine thread may call this, or the caller when the engine is not
+    // started (e.g. in a single-threaded benchmark).
+    public int processCommands(int limit) {
+        int processed = 0;
+        while (processed < limit) {
+            int index = (int) (nextSequence & mask);
+            if (published.get(index) != nextSequence) {
+                break;
+            }
+            OrderBook book = book(symbols[index]);
+            switch (types[index]) {
+                case LIMIT:
+                    book.submitLimit(orderIds[index], owners[index], buys[index], prices[index], quantities[index]);
+                    break;
+                case IMMEDIATE:
+                    book.submitImmediate(orderIds[index], owners[index], buys[index], prices[index], quantities[index]);
+                    break;
+                case CANCEL:
+                    book.cancel(orderIds[index]);
+                    break;
+                case QUOTE:
+                    requote(symbols[index], prices[index]);
+                    break;
+                default:
+                    break;
+            }
+            nextSequence++;
+            processed++;
+            if ((processed & 63) == 0) {
+                consumed.lazySet(nextSequence);
+            }
+        }
+        if (processed > 0) {
+            consumed.lazySet(nextSequence);
+        }
+        return processed;
+    }
+    
+    private void onQuote(int symbolId, double price, double volume, long timestamp) {
+        requote(symbolId, toPrice(price));
+    }
+    
+    // Replaces the house quotes for a symbol around its latest price. The new
+    // ask goes in first, so resting bids at or above the price fill against it.
+    private void requote(int symbolId, long ask) {
+        OrderBook book = book(symbolId);
+        if (houseAsks[symbolId] != 0) {
+            book.cancel(houseAsks[symbolId]);
+        }
+        if (houseBids[symbolId] != 0) {
+            book.cancel(houseBids[symbolId]);
+        }
+        houseAsks[symbolId] = nextOrderId.getAndIncrement();
+        book.submitLimit(houseAsks[symbolId], HOUSE_OWNER, false, ask, HOUSE_QUANTITY);
+        houseBids[symbolId] = nextOrderId.getAndIncrement();
+        book.submitLimit(houseBids[symbolId], HOUSE_OWNER, true, ask - 1, HOUSE_QUANTITY);
+    }
+    
+    // The book for a symbol. Only safe on the engine thread.
+    public OrderBook book(int symbolId) {
+        OrderBook book = books[symbolId];
+        if (book == null) {
+            book = new OrderBook(symbolId, listener, 256);
+            books[symbolId] = book;
+        }
+        return book;
+    }
+    
+    @Override
+    public void close() {
+        Thread t;
+        synchronized (this) {
+            running = false;
+            t = thread;
+        }
+        if (t != null) {
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package cryptotrader;
+
+import java.math.BigInteger;
+
+// Cash amounts and prices as fixed-point longs, in 1e-8 of the quote
+// currency, so balances add and subtract exactly however many trades go
+// through them. A price is money per whole unit of an asset and shares the
+// engine's price scale, so engine prices are Money values as they are.
+// Doubles only appear at the edges: market data in, display out.
+public final class Money {
+    public static final int DECIMALS = 8;
+    public static final long SCALE = 100_000_000L;
+    
+    private Money() {
+    }
+    
+    public static long of(double amount) {
+        return Math.round(amount * SCALE);
+    }
+    
+    public static double toDouble(long amount) {
+        return (double) amount / SCALE;
+    }
+    
+    // Value of a Quantity at a price, rounded half up to the nearest 1e-8.
+    // Splits both factors at the scale so no intermediate product overflows
+    // for any realistic price and size; never allocates.
+    public static long times(long price, long quantity) {
+        long wholePrice = Math.floorDiv(price, SCALE);
+        long priceFraction = Math.floorMod(price, SCALE);
+        long wholeQuantity = Math.floorDiv(quantity, Quantity.SCALE);
+        long quantityFraction = Math.floorMod(quantity, Quantity.SCALE);
+        return Math.multiplyExact(price, wholeQuantity)
+                + wholePrice * quantityFraction
+                + (priceFraction * quantityFraction + Quantity.SCALE / 2) / Quantity.SCALE;
+    }
+    
+    // a * b / divisor rounded half up, exact even when a * b overflows a long
+    public static long mulDiv(long a, long b, long divisor) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return Math.floorDiv(low + divisor / 2, divisor);
+        }
+        return BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).add(BigInteger.valueOf(divisor / 2))
+                .divide(BigInteger.valueOf(divisor)).longValueExact();
+    }
+}
@@ -0,0 +1,56 @@
+package cryptotrader;
+
+// Holds a symbol while its fast exponential moving average is above the slow
+// one: buys with a fraction of the cash when the fast average crosses above
+// and sells the whole position when it crosses back. Averages are over ticks,
+// not time. Mostly here as the strategy the Backtester sweeps by default.
+public class MovingAverageCrossStrategy implements BacktestStrategy {
+    private final int symbolId;
+    private final double fastAlpha;
+    private final double slowAlpha;
+    private final double cashFraction;
+    private double fast;
+    private double slow;
+    private boolean started;
+    private boolean above;
+    
+    public MovingAverageCrossStrategy(int symbolId, int fastTicks, int slowTicks, double cashFraction) {
+        this.symbolId = symbolId;
+        this.fastAlpha = 2.0 / (fastTicks + 1);
+        this.slowAlpha = 2.0 / (slowTicks + 1);
+        this.cashFraction = cashFraction;
+    }
+    
+    @Override
+    public void onTick(BacktestAccount account, int symbolId, long price) {
+        if (symbolId != this.symbolId) {
+            return;
+        }
+        double last = Money.toDouble(price);
+        if (!started) {
+            fast = last;
+            slow = last;
+            started = true;
+            return;
+        }
+        fast += fastAlpha * (last - fast);
+        slow += slowAlpha * (last - slow);
+        boolean nowAbove = fast > slow;
+        if (nowAbove == above) {
+            return;
+        }
+        above = nowAbove;
+        if (nowAbove) {
+            long amount = Quantity.of(Money.toDouble(account.getCash()) * cashFraction / last,
+                    account.getQuantityDecimals(symbolId));
+            if (amount > 0) {
+                account.buy(symbolId, amount);
+            }
+        } else {
+            long held = account.getQuantity(symbolId);
+            if (held > 0) {
+                account.sell(symbolId, held);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package cryptotrader;
+
+// A numeric table cell: the value and its text, formatted once per change
+// of the value. Table models keep one per cell and return it from
+// getValueAt, so the table gets a typed value without boxing, renderers
+// color by the number instead of parsing the text, and sorting compares
+// numbers. Confined to the EDT like the format it shares with its column.
+public final class NumericCell implements Comparable<NumericCell> {
+    private final FixedFormat format;
+    private double value;
+    private String text;
+    
+    public NumericCell(FixedFormat format) {
+        this.format = format;
+    }
+    
+    // Keeps the text if the value did not change
+    public void set(double value) {
+        if (text == null || Double.compare(value, this.value) != 0) {
+            this.value = value;
+            text = null;
+        }
+    }
+    
+    public double getValue() {
+        return value;
+    }
+    
+    public String getText() {
+        if (text == null) {
+            text = format.format(value);
+        }
+        return text;
+    }
+    
+    @Override
+    public int compareTo(NumericCell other) {
+        return Double.compare(value, other.value);
+    }
+    
+    @Override
+    public String toString() {
+        return getText();
+    }
+}
@@ -0,0 +1,30 @@
+package cryptotrader;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+
+// Renders NumericCells from their cached text, optionally colored by the
+// sign of the value. Nothing is parsed or allocated per painted cell.
+public class NumericCellRenderer extends DefaultTableCellRenderer {
+    private final boolean colorBySign;
+    
+    public NumericCellRenderer(boolean colorBySign) {
+        this.colorBySign = colorBySign;
+    }
+    
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value,
+            boolean isSelected, boolean hasFocus, int row, int column) {
+        super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+        if (colorBySign && value instanceof NumericCell) {
+            setForeground(Theme.signColor(((NumericCell) value).getValue()));
+        }
+        return this;
+    }
+    
+    @Override
+    protected void setValue(Object value) {
+        setText(value instanceof NumericCell ? ((NumericCell) value).getText() : value == null ? "" : value.toString());
+    }
+}
@@ -0,0 +1,48 @@
+package cryptotrader;
+
+// Builds 1s, 1m and 1h candles for every symbol from the raw tick stream.
+// Registered as a tick listener, so it runs on the feed thread and sees every
+// tick, not just the conflated updates the UI gets.
+public class OhlcvAggregator implements MarketDataFeed.TickListener {
+    public static final long SECOND = 1000L;
+    public static final long MINUTE = 60 * SECOND;
+    public static final long HOUR = 60 * MINUTE;
+    
+    // Finest first: 1h of seconds, 1 day of minutes, 30 days of hours
+    private static final long[] PERIODS = {SECOND, MINUTE, HOUR};
+    private static final int[] CAPACITIES = {3600, 1440, 720};
+    
+    private final OhlcvSeries[][] series;
+    
+    public OhlcvAggregator(int symbolCount) {
+        series = new OhlcvSeries[symbolCount][PERIODS.length];
+        for (int s = 0; s < symbolCount; s++) {
+            for (int r = 0; r < PERIODS.length; r++) {
+                series[s][r] = new OhlcvSeries(PERIODS[r], CAPACITIES[r]);
+            }
+        }
+    }
+    
+    @Override
+    public void onTick(Tick tick) {
+        if (tick.symbolId >= series.length) {
+            return;
+        }
+        for (OhlcvSeries bars : series[tick.symbolId]) {
+            bars.onTick(tick.timestamp, tick.price, tick.size);
+        }
+    }
+    
+    public int getSymbolCount() {
+        return series.length;
+    }
+    
+    public int getResolutionCount() {
+        return PERIODS.length;
+    }
+    
+    // Resolution 0 is the finest
+    public OhlcvSeries getSeries(int symbolId, int resolution) {
+        return series[symbolId][resolution];
+    }
+}
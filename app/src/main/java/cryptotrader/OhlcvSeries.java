@@ -0,0 +1,136 @@
+package cryptotrader;
+
+// Fixed-size ring of OHLCV bars of one period for one symbol. The oldest bar
+// is overwritten once the ring is full, so memory stays constant however
+// long the app runs. Bars only exist for periods that had ticks.
+// Written by the feed thread and read by the chart, so access is synchronized.
+public class OhlcvSeries {
+    private final long period;
+    private final long[] times;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final double[] volumes;
+    private int head;
+    private int count;
+    
+    public OhlcvSeries(long periodMillis, int capacity) {
+        this.period = periodMillis;
+        times = new long[capacity];
+        opens = new double[capacity];
+        highs = new double[capacity];
+        lows = new double[capacity];
+        closes = new double[capacity];
+        volumes = new double[capacity];
+    }
+    
+    public long getPeriod() {
+        return period;
+    }
+    
+    public int getCapacity() {
+        return times.length;
+    }
+    
+    public synchronized int size() {
+        return count;
+    }
+    
+    public synchronized void onTick(long timestamp, double price, double size) {
+        long start = timestamp - Math.floorMod(timestamp, period);
+        if (count > 0) {
+            int last = index(count - 1);
+            // Late ticks are folded into the current bar rather than reopening an old one
+            if (start <= times[last]) {
+                highs[last] = Math.max(highs[last], price);
+                lows[last] = Math.min(lows[last], price);
+                closes[last] = price;
+                volumes[last] += size;
+                return;
+            }
+        }
+        if (count == times.length) {
+            head = index(1);
+            count--;
+        }
+        int slot = index(count++);
+        times[slot] = start;
+        opens[slot] = price;
+        highs[slot] = price;
+        lows[slot] = price;
+        closes[slot] = price;
+        volumes[slot] = size;
+    }
+    
+    // Start of the oldest bar, or Long.MAX_VALUE when empty
+    public synchronized long getFirstTime() {
+        return count == 0 ? Long.MAX_VALUE : times[head];
+    }
+    
+    // End of the newest bar, or Long.MIN_VALUE when empty
+    public synchronized long getEndTime() {
+        return count == 0 ? Long.MIN_VALUE : times[index(count - 1)] + period;
+    }
+    
+    public synchronized double getLastClose() {
+        return count == 0 ? Double.NaN : closes[index(count - 1)];
+    }
+    
+    // Aggregates the bars starting in [from, from + columns * width) into
+    // columns of the given width: first open, highest high, lowest low, last
+    // close and summed volume. With more bars than columns this is the
+    // min/max-per-pixel reduction, so spikes survive downsampling. Empty
+    // columns get a NaN open. Work is proportional to the bars in range.
+    // Returns the number of non-empty columns.
+    public synchronized int downsample(long from, long width, int columns, double[] outOpen, double[] outHigh,
+            double[] outLow, double[] outClose, double[] outVolume) {
+        for (int c = 0; c < columns; c++) {
+            outOpen[c] = Double.NaN;
+        }
+        long to = from + columns * width;
+        int filled = 0;
+        for (int i = firstAtOrAfter(from); i < count; i++) {
+            int slot = index(i);
+            long time = times[slot];
+            if (time >= to) {
+                break;
+            }
+            int c = (int) ((time - from) / width);
+            if (Double.isNaN(outOpen[c])) {
+                outOpen[c] = opens[slot];
+                outHigh[c] = highs[slot];
+                outLow[c] = lows[slot];
+                outVolume[c] = 0;
+                filled++;
+            } else {
+                outHigh[c] = Math.max(outHigh[c], highs[slot]);
+                outLow[c] = Math.min(outLow[c], lows[slot]);
+            }
+            outClose[c] = closes[slot];
+            outVolume[c] += volumes[slot];
+        }
+        return filled;
+    }
+    
+    // Logical index of the first bar starting at or after time, by binary
+    // search since bar times only increase
+    private int firstAtOrAfter(long time) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[index(mid)] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private int index(int logical) {
+        int slot = head + logical;
+        return slot >= times.length ? slot - times.length : slot;
+    }
+}
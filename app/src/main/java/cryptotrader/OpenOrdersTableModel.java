@@ -0,0 +1,102 @@
+package cryptotrader;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+// Resting limit orders of the user, shown on the Trade tab
+public class OpenOrdersTableModel extends AbstractTableModel {
+    private static final String[] COLUMN_NAMES = {"Order #", "Side", "Cryptocurrency", "Limit Price", "Amount", "Filled"};
+    
+    private final String[] symbolNames;
+    private final List<OrderRecord> orders = new ArrayList<>();
+    // Limit prices are USD Money, shown in the quote currency
+    private FixedFormat priceFormat = new FixedFormat("$#,##0.00");
+    private double quoteRate = 1;
+    private final FixedFormat amountFormat = new FixedFormat("#,##0.########");
+    
+    public OpenOrdersTableModel(String[] symbolNames) {
+        this.symbolNames = symbolNames;
+    }
+    
+    public void add(OrderRecord order) {
+        orders.add(order);
+        fireTableRowsInserted(orders.size() - 1, orders.size() - 1);
+    }
+    
+    public void remove(OrderRecord order) {
+        int row = orders.indexOf(order);
+        if (row >= 0) {
+            orders.remove(row);
+            fireTableRowsDeleted(row, row);
+        }
+    }
+    
+    public void changed(OrderRecord order) {
+        int row = orders.indexOf(order);
+        if (row >= 0) {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+    
+    // Switches the limit prices to another quote currency, formatted with the
+    // given pattern and converted at rate units per USD
+    public void setQuote(FixedFormat price, double rate) {
+        if (price == priceFormat && Double.compare(rate, quoteRate) == 0) {
+            return;
+        }
+        priceFormat = price;
+        quoteRate = rate;
+        // Only the price column changed; a data change would drop the selection
+        if (!orders.isEmpty()) {
+            fireTableRowsUpdated(0, orders.size() - 1);
+        }
+    }
+    
+    // The quote currency moved against USD
+    public void setQuoteRate(double rate) {
+        setQuote(priceFormat, rate);
+    }
+    
+    public OrderRecord getOrderAt(int row) {
+        return orders.get(row);
+    }
+    
+    @Override
+    public int getRowCount() {
+        return orders.size();
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        OrderRecord order = orders.get(row);
+        switch (column) {
+            case 0:
+                return order.orderId;
+            case 1:
+                return order.buy ? "Buy" : "Sell";
+            case 2:
+                return symbolNames[order.symbolId];
+            case 3:
+                // Exact while the quote is USD
+                return quoteRate == 1 ? priceFormat.format(order.price, Money.DECIMALS)
+                        : priceFormat.format(Money.toDouble(order.price) * quoteRate);
+            case 4:
+                return amountFormat.format(order.amount, Quantity.DECIMALS);
+            case 5:
+                return amountFormat.format(order.filled, Quantity.DECIMALS);
+            default:
+                throw new IndexOutOfBoundsException("column " + column);
+        }
+    }
+}
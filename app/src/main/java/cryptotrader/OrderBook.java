@@ -0,0 +1,343 @@
+package cryptotrader;
+
+import java.util.Arrays;
+
+// Limit order book for one symbol with price-time priority. Orders and price
+// levels live in preallocated primitive pools linked by index, and each side
+// keeps its levels in a sorted array with the best price at the end, so the
+// common cases (match at the top, add near the top) touch few entries and
+// allocate nothing once the pools have grown.
+//
+// Single-writer: all calls must come from the thread that owns the book.
+public class OrderBook {
+    private static final int NONE = -1;
+    
+    private final int symbolId;
+    private final OrderEventListener listener;
+    private final LongIntMap slotsById;
+    
+    // Order pool
+    private long[] orderIds;
+    private long[] orderRemaining;
+    private int[] orderOwners;
+    private int[] orderLevels;
+    private int[] orderNext;
+    private int[] orderPrev;
+    private int orderSlotsUsed;
+    private int freeOrder = NONE;
+    
+    // Price level pool, each level is a FIFO list of orders
+    private long[] levelPrices;
+    private long[] levelQuantities;
+    private boolean[] levelBuys;
+    private int[] levelHeads;
+    private int[] levelTails;
+    private int levelSlotsUsed;
+    private int freeLevel = NONE;
+    
+    // Level slots per side, best price last: bids ascending, asks descending
+    private int[] bids = new int[16];
+    private int bidCount;
+    private int[] asks = new int[16];
+    private int askCount;
+    
+    public OrderBook(int symbolId, OrderEventListener listener) {
+        this(symbolId, listener, 1024);
+    }
+    
+    public OrderBook(int symbolId, OrderEventListener listener, int expectedOrders) {
+        this.symbolId = symbolId;
+        this.listener = listener;
+        int orders = Math.max(16, expectedOrders);
+        slotsById = new LongIntMap(orders);
+        orderIds = new long[orders];
+        orderRemaining = new long[orders];
+        orderOwners = new int[orders];
+        orderLevels = new int[orders];
+        orderNext = new int[orders];
+        orderPrev = new int[orders];
+        int levels = Math.max(16, orders / 4);
+        levelPrices = new long[levels];
+        levelQuantities = new long[levels];
+        levelBuys = new boolean[levels];
+        levelHeads = new int[levels];
+        levelTails = new int[levels];
+    }
+    
+    public int getSymbolId() {
+        return symbolId;
+    }
+    
+    // Matches a limit order and rests whatever is left. Returns the part left
+    // resting in the book.
+    public long submitLimit(long orderId, int owner, boolean buy, long price, long quantity) {
+        checkOrder(orderId, quantity);
+        long remaining = match(orderId, owner, buy, price, quantity);
+        if (remaining > 0) {
+            rest(orderId, owner, buy, price, remaining);
+        } else {
+            listener.onOrderClosed(symbolId, orderId, owner, 0);
+        }
+        return remaining;
+    }
+    
+    // Matches as much as possible at prices no worse than limitPrice and
+    // cancels the rest (immediate-or-cancel). Returns the filled quantity.
+    public long submitImmediate(long orderId, int owner, boolean buy, long limitPrice, long quantity) {
+        checkOrder(orderId, quantity);
+        long remaining = match(orderId, owner, buy, limitPrice, quantity);
+        listener.onOrderClosed(symbolId, orderId, owner, remaining);
+        return quantity - remaining;
+    }
+    
+    // A market order is an immediate order without a price limit
+    public long submitMarket(long orderId, int owner, boolean buy, long quantity) {
+        return submitImmediate(orderId, owner, buy, buy ? Long.MAX_VALUE : Long.MIN_VALUE, quantity);
+    }
+    
+    public boolean cancel(long orderId) {
+        int slot = slotsById.remove(orderId);
+        if (slot == LongIntMap.MISSING) {
+            listener.onCancelRejected(symbolId, orderId);
+            return false;
+        }
+        long remaining = orderRemaining[slot];
+        int owner = orderOwners[slot];
+        unlink(slot);
+        listener.onOrderClosed(symbolId, orderId, owner, remaining);
+        return true;
+    }
+    
+    public boolean isOpen(long orderId) {
+        return slotsById.get(orderId) != LongIntMap.MISSING;
+    }
+    
+    public int getOpenOrderCount() {
+        return slotsById.size();
+    }
+    
+    // Best prices, or Long.MIN_VALUE / Long.MAX_VALUE when the side is empty
+    public long getBestBid() {
+        return bidCount == 0 ? Long.MIN_VALUE : levelPrices[bids[bidCount - 1]];
+    }
+    
+    public long getBestAsk() {
+        return askCount == 0 ? Long.MAX_VALUE : levelPrices[asks[askCount - 1]];
+    }
+    
+    public int getBidLevelCount() {
+        return bidCount;
+    }
+    
+    public int getAskLevelCount() {
+        return askCount;
+    }
+    
+    // Price and total quantity of the n-th level from the top, n = 0 is best
+    public long getBidPrice(int depth) {
+        return levelPrices[bids[bidCount - 1 - depth]];
+    }
+    
+    public long getBidQuantity(int depth) {
+        return levelQuantities[bids[bidCount - 1 - depth]];
+    }
+    
+    public long getAskPrice(int depth) {
+        return levelPrices[asks[askCount - 1 - depth]];
+    }
+    
+    public long getAskQuantity(int depth) {
+        return levelQuantities[asks[askCount - 1 - depth]];
+    }
+    
+    private void checkOrder(long orderId, long quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (orderId == 0) {
+            throw new IllegalArgumentException("Order id 0 is reserved");
+        }
+    }
+    
+    private long match(long takerId, int takerOwner, boolean buy, long limitPrice, long quantity) {
+        int[] side = buy ? asks : bids;
+        long remaining = quantity;
+        while (remaining > 0) {
+            int count = buy ? askCount : bidCount;
+            if (count == 0) {
+                break;
+            }
+            int level = side[count - 1];
+            long levelPrice = levelPrices[level];
+            if (buy ? levelPrice > limitPrice : levelPrice < limitPrice) {
+                break;
+            }
+            
+            int maker = levelHeads[level];
+            while (remaining > 0 && maker != NONE) {
+                long fill = Math.min(remaining, orderRemaining[maker]);
+                remaining -= fill;
+                orderRemaining[maker] -= fill;
+                levelQuantities[level] -= fill;
+                long makerId = orderIds[maker];
+                int makerOwner = orderOwners[maker];
+                listener.onTrade(symbolId, takerId, takerOwner, makerId, makerOwner, buy, levelPrice, fill);
+                
+                int next = orderNext[maker];
+                if (orderRemaining[maker] == 0) {
+                    slotsById.remove(makerId);
+                    unlink(maker);
+                    listener.onOrderClosed(symbolId, makerId, makerOwner, 0);
+                }
+                maker = next;
+            }
+        }
+        return remaining;
+    }
+    
+    private void rest(long orderId, int owner, boolean buy, long price, long quantity) {
+        int level = findOrAddLevel(buy, price);
+        int slot = allocateOrder();
+        orderIds[slot] = orderId;
+        orderRemaining[slot] = quantity;
+        orderOwners[slot] = owner;
+        orderLevels[slot] = level;
+        orderNext[slot] = NONE;
+        orderPrev[slot] = levelTails[level];
+        if (levelTails[level] == NONE) {
+            levelHeads[level] = slot;
+        } else {
+            orderNext[levelTails[level]] = slot;
+        }
+        levelTails[level] = slot;
+        levelQuantities[level] += quantity;
+        slotsById.put(orderId, slot);
+    }
+    
+    // Removes an order from its level, dropping the level once empty, and
+    // returns the slot to the pool. Does not touch the id map.
+    private void unlink(int slot) {
+        int level = orderLevels[slot];
+        int prev = orderPrev[slot];
+        int next = orderNext[slot];
+        if (prev == NONE) {
+            levelHeads[level] = next;
+        } else {
+            orderNext[prev] = next;
+        }
+        if (next == NONE) {
+            levelTails[level] = prev;
+        } else {
+            orderPrev[next] = prev;
+        }
+        levelQuantities[level] -= orderRemaining[slot];
+        if (levelHeads[level] == NONE) {
+            removeLevel(level);
+        }
+        orderNext[slot] = freeOrder;
+        freeOrder = slot;
+    }
+    
+    private int findOrAddLevel(boolean buy, long price) {
+        int[] side = buy ? bids : asks;
+        int count = buy ? bidCount : askCount;
+        int index = search(side, count, price, buy);
+        if (index >= 0) {
+            return side[index];
+        }
+        int insertAt = -index - 1;
+        if (count == side.length) {
+            side = Arrays.copyOf(side, count * 2);
+            if (buy) {
+                bids = side;
+            } else {
+                asks = side;
+            }
+        }
+        System.arraycopy(side, insertAt, side, insertAt + 1, count - insertAt);
+        int level = allocateLevel();
+        levelPrices[level] = price;
+        levelQuantities[level] = 0;
+        levelBuys[level] = buy;
+        levelHeads[level] = NONE;
+        levelTails[level] = NONE;
+        side[insertAt] = level;
+        if (buy) {
+            bidCount++;
+        } else {
+            askCount++;
+        }
+        return level;
+    }
+    
+    private void removeLevel(int level) {
+        boolean buy = levelBuys[level];
+        int[] side = buy ? bids : asks;
+        int count = buy ? bidCount : askCount;
+        // Emptied levels are nearly always the best one
+        int index = side[count - 1] == level ? count - 1 : search(side, count, levelPrices[level], buy);
+        System.arraycopy(side, index + 1, side, index, count - index - 1);
+        if (buy) {
+            bidCount--;
+        } else {
+            askCount--;
+        }
+        levelHeads[level] = freeLevel;
+        freeLevel = level;
+    }
+    
+    // Binary search over a side; bids are sorted ascending, asks descending.
+    // Returns the index, or -(insertion point) - 1.
+    private int search(int[] side, int count, long price, boolean ascending) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midPrice = levelPrices[side[mid]];
+            int cmp = ascending ? Long.compare(midPrice, price) : Long.compare(price, midPrice);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    
+    private int allocateOrder() {
+        if (freeOrder != NONE) {
+            int slot = freeOrder;
+            freeOrder = orderNext[slot];
+            return slot;
+        }
+        if (orderSlotsUsed == orderIds.length) {
+            int size = orderIds.length * 2;
+            orderIds = Arrays.copyOf(orderIds, size);
+            orderRemaining = Arrays.copyOf(orderRemaining, size);
+            orderOwners = Arrays.copyOf(orderOwners, size);
+            orderLevels = Arrays.copyOf(orderLevels, size);
+            orderNext = Arrays.copyOf(orderNext, size);
+            orderPrev = Arrays.copyOf(orderPrev, size);
+        }
+        return orderSlotsUsed++;
+    }
+    
+    private int allocateLevel() {
+        if (freeLevel != NONE) {
+            int level = freeLevel;
+            freeLevel = levelHeads[level];
+            return level;
+        }
+        if (levelSlotsUsed == levelPrices.length) {
+            int size = levelPrices.length * 2;
+            levelPrices = Arrays.copyOf(levelPrices, size);
+            levelQuantities = Arrays.copyOf(levelQuantities, size);
+            levelBuys = Arrays.copyOf(levelBuys, size);
+            levelHeads = Arrays.copyOf(levelHeads, size);
+            levelTails = Arrays.copyOf(levelTails, size);
+        }
+        return levelSlotsUsed++;
+    }
+}
@@ -0,0 +1,21 @@
+package cryptotrader;
+
+// Receives the outcome of orders sent to an OrderBook. Prices and quantities
+// are fixed-point longs, see MatchingEngine.PRICE_SCALE and QUANTITY_SCALE.
+// Called on the thread that owns the book, so implementations must not block
+// or call back into the book.
+public interface OrderEventListener {
+    
+    // A trade between an incoming (taker) order and a resting (maker) order,
+    // at the maker's price
+    void onTrade(int symbolId, long takerOrderId, int takerOwner, long makerOrderId, int makerOwner,
+            boolean takerBuys, long price, long quantity);
+    
+    // The order left the book or finished matching. unfilled is zero when it
+    // was completely filled, otherwise the part that was cancelled.
+    void onOrderClosed(int symbolId, long orderId, int owner, long unfilled);
+    
+    // A cancel referred to an order that is no longer open
+    default void onCancelRejected(int symbolId, long orderId) {
+    }
+}
@@ -0,0 +1,73 @@
+package cryptotrader;
+
+// Client-side state of one order sent to the matching engine: what was asked
+// for, what is reserved for it and what has been filled so far. Prices and
+// costs are Money, amounts Quantity.
+public class OrderRecord {
+    long orderId;
+    final int symbolId;
+    final boolean buy;
+    final boolean limit;
+    // Limit price, or the protection price of a market order
+    final long price;
+    final long amount;
+    long filled;
+    long filledCost;
+    // Cash (buys) or holdings (sells) still reserved for the unfilled part
+    long reserved;
+    // System.nanoTime() when the order was placed, for latency metrics
+    final long placedNanos = System.nanoTime();
+    
+    public OrderRecord(int symbolId, boolean buy, boolean limit, long price, long amount) {
+        this.symbolId = symbolId;
+        this.buy = buy;
+        this.limit = limit;
+        this.price = price;
+        this.amount = amount;
+    }
+    
+    public long getOrderId() {
+        return orderId;
+    }
+    
+    public int getSymbolId() {
+        return symbolId;
+    }
+    
+    public boolean isBuy() {
+        return buy;
+    }
+    
+    public boolean isLimit() {
+        return limit;
+    }
+    
+    public long getPrice() {
+        return price;
+    }
+    
+    public long getAmount() {
+        return amount;
+    }
+    
+    public long getFilled() {
+        return filled;
+    }
+    
+    public long getRemaining() {
+        return amount - filled;
+    }
+    
+    public long getFilledCost() {
+        return filledCost;
+    }
+    
+    public long getAverageFillPrice() {
+        return filled == 0 ? 0 : Money.mulDiv(filledCost, Quantity.SCALE, filled);
+    }
+    
+    void addFill(long price, long quantity) {
+        filled += quantity;
+        filledCost += Money.times(price, quantity);
+    }
+}
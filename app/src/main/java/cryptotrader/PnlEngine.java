@@ -0,0 +1,359 @@
+package cryptotrader;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Mark-to-market P&L for one portfolio. Every buy and sell is recorded as
+// cost-basis lots, and running totals are adjusted by deltas: a price tick
+// costs O(1) for the symbol that moved, whatever the size of the portfolio.
+// Quantities are Quantity longs and prices, costs and P&L Money longs, so
+// the totals are always exactly the sum of their parts and a position sold
+// down to zero is zero, with no dust left behind.
+// Not thread-safe; callers confine an engine to one thread or lock around it.
+public class PnlEngine {
+    
+    public enum CostBasis {
+        FIFO, AVERAGE
+    }
+    
+    private final CostBasis method;
+    private final PositionStore positions;
+    private long[] costBasis;
+    private long[] realized;
+    private long[] lastPrices;
+    // Value of each position at its last price, as included in totalValue
+    private long[] values;
+    // Price each symbol's change is measured from, e.g. 24h ago, and the
+    // value of each position at it, as included in totalReference
+    private long[] referencePrices;
+    private long[] referenceValues;
+    private LotQueue[] lots;
+    
+    private long totalValue;
+    private long totalCost;
+    private long totalRealized;
+    private long totalReference;
+    
+    public PnlEngine(CostBasis method, int symbolCapacity) {
+        int capacity = Math.max(1, symbolCapacity);
+        this.method = method;
+        this.positions = new PositionStore(capacity);
+        this.costBasis = new long[capacity];
+        this.realized = new long[capacity];
+        this.lastPrices = new long[capacity];
+        this.values = new long[capacity];
+        this.referencePrices = new long[capacity];
+        this.referenceValues = new long[capacity];
+        this.lots = new LotQueue[capacity];
+    }
+    
+    public CostBasis getMethod() {
+        return method;
+    }
+    
+    // Marks a symbol to a new price. Only the symbol's own value delta is
+    // applied to the totals.
+    public void onPrice(int symbolId, long price) {
+        ensureCapacity(symbolId + 1);
+        lastPrices[symbolId] = price;
+        revalue(symbolId);
+    }
+    
+    // Sets the price a symbol's change is measured from. Like a tick, only
+    // the symbol's own reference value delta is applied to the total.
+    public void setReferencePrice(int symbolId, long price) {
+        ensureCapacity(symbolId + 1);
+        referencePrices[symbolId] = price;
+        rereference(symbolId);
+    }
+    
+    public void onBuy(int symbolId, long quantity, long price) {
+        ensureCapacity(symbolId + 1);
+        long cost = Money.times(price, quantity);
+        positions.add(symbolId, quantity);
+        costBasis[symbolId] += cost;
+        totalCost += cost;
+        revalue(symbolId);
+        rereference(symbolId);
+        
+        if (method == CostBasis.FIFO) {
+            if (lots[symbolId] == null) {
+                lots[symbolId] = new LotQueue();
+            }
+            lots[symbolId].add(quantity, price);
+        }
+    }
+    
+    // Returns the P&L realized by this sale
+    public long onSell(int symbolId, long quantity, long price) {
+        ensureCapacity(symbolId + 1);
+        long held = positions.get(symbolId);
+        if (quantity > held) {
+            throw new IllegalArgumentException("Cannot sell " + quantity + ", holding " + held);
+        }
+        long remaining = held - quantity;
+        long soldCost;
+        if (remaining == 0) {
+            // Close out, whatever rounding is left goes with the rest of the cost basis
+            soldCost = costBasis[symbolId];
+            if (lots[symbolId] != null) {
+                lots[symbolId].clear();
+            }
+        } else if (method == CostBasis.FIFO && lots[symbolId] != null) {
+            soldCost = lots[symbolId].consume(quantity);
+        } else {
+            soldCost = Money.mulDiv(costBasis[symbolId], quantity, held);
+        }
+        
+        long gain = Money.times(price, quantity) - soldCost;
+        totalCost -= soldCost;
+        costBasis[symbolId] -= soldCost;
+        realized[symbolId] += gain;
+        totalRealized += gain;
+        positions.set(symbolId, remaining);
+        revalue(symbolId);
+        rereference(symbolId);
+        return gain;
+    }
+    
+    public PositionStore getPositions() {
+        return positions;
+    }
+    
+    public long getQuantity(int symbolId) {
+        return positions.get(symbolId);
+    }
+    
+    // Money per whole unit
+    public long getAverageCost(int symbolId) {
+        long quantity = positions.get(symbolId);
+        return quantity == 0 ? 0 : Money.mulDiv(costBasis[symbolId], Quantity.SCALE, quantity);
+    }
+    
+    public long getCostBasis(int symbolId) {
+        return symbolId < costBasis.length ? costBasis[symbolId] : 0;
+    }
+    
+    public long getLastPrice(int symbolId) {
+        return symbolId < lastPrices.length ? lastPrices[symbolId] : 0;
+    }
+    
+    public long getPositionValue(int symbolId) {
+        return symbolId < values.length ? values[symbolId] : 0;
+    }
+    
+    public long getUnrealized(int symbolId) {
+        return getPositionValue(symbolId) - getCostBasis(symbolId);
+    }
+    
+    public long getRealized(int symbolId) {
+        return symbolId < realized.length ? realized[symbolId] : 0;
+    }
+    
+    public long getTotalValue() {
+        return totalValue;
+    }
+    
+    public long getTotalCost() {
+        return totalCost;
+    }
+    
+    public long getTotalUnrealized() {
+        return totalValue - totalCost;
+    }
+    
+    public long getTotalRealized() {
+        return totalRealized;
+    }
+    
+    // Value of the positions held now at their reference prices
+    public long getTotalReference() {
+        return totalReference;
+    }
+    
+    // Change of the positions held now since the reference prices
+    public long getTotalChange() {
+        return totalValue - totalReference;
+    }
+    
+    // Recomputes the running totals from the positions, after their state
+    // was replaced wholesale
+    public void recompute() {
+        long value = 0;
+        long cost = 0;
+        long reference = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            int symbolId = positions.symbolAt(i);
+            values[symbolId] = Money.times(lastPrices[symbolId], positions.get(symbolId));
+            referenceValues[symbolId] = Money.times(referencePrices[symbolId], positions.get(symbolId));
+            value += values[symbolId];
+            cost += costBasis[symbolId];
+            reference += referenceValues[symbolId];
+        }
+        totalValue = value;
+        totalCost = cost;
+        totalReference = reference;
+    }
+    
+    // Writes positions, cost basis, open lots and realized P&L. Prices are not
+    // part of the state; they come from the market again.
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(positions.size());
+        for (int i = 0; i < positions.size(); i++) {
+            int symbolId = positions.symbolAt(i);
+            out.writeInt(symbolId);
+            out.writeLong(positions.get(symbolId));
+            out.writeLong(costBasis[symbolId]);
+            LotQueue queue = lots[symbolId];
+            int lotCount = queue == null ? 0 : queue.size;
+            out.writeInt(lotCount);
+            for (int j = 0; j < lotCount; j++) {
+                int index = (queue.head + j) & (queue.quantities.length - 1);
+                out.writeLong(queue.quantities[index]);
+                out.writeLong(queue.prices[index]);
+            }
+        }
+        int realizedCount = 0;
+        for (long value : realized) {
+            if (value != 0) {
+                realizedCount++;
+            }
+        }
+        out.writeInt(realizedCount);
+        for (int symbolId = 0; symbolId < realized.length; symbolId++) {
+            if (realized[symbolId] != 0) {
+                out.writeInt(symbolId);
+                out.writeLong(realized[symbolId]);
+            }
+        }
+    }
+    
+    // Drops every position and all realized P&L, keeping the last and the
+    // reference prices
+    public void clear() {
+        positions.clear();
+        Arrays.fill(costBasis, 0);
+        Arrays.fill(realized, 0);
+        Arrays.fill(values, 0);
+        Arrays.fill(referenceValues, 0);
+        Arrays.fill(lots, null);
+        totalValue = 0;
+        totalCost = 0;
+        totalRealized = 0;
+        totalReference = 0;
+    }
+    
+    // Replaces the state with what writeTo wrote, keeping the last and the
+    // reference prices
+    public void readFrom(DataInput in) throws IOException {
+        clear();
+        
+        int held = in.readInt();
+        for (int i = 0; i < held; i++) {
+            int symbolId = in.readInt();
+            ensureCapacity(symbolId + 1);
+            positions.set(symbolId, in.readLong());
+            costBasis[symbolId] = in.readLong();
+            int lotCount = in.readInt();
+            if (lotCount > 0) {
+                lots[symbolId] = new LotQueue();
+            }
+            for (int j = 0; j < lotCount; j++) {
+                lots[symbolId].add(in.readLong(), in.readLong());
+            }
+        }
+        int realizedCount = in.readInt();
+        for (int i = 0; i < realizedCount; i++) {
+            int symbolId = in.readInt();
+            ensureCapacity(symbolId + 1);
+            realized[symbolId] = in.readLong();
+            totalRealized += realized[symbolId];
+        }
+        recompute();
+    }
+    
+    private void revalue(int symbolId) {
+        long value = Money.times(lastPrices[symbolId], positions.get(symbolId));
+        totalValue += value - values[symbolId];
+        values[symbolId] = value;
+    }
+    
+    private void rereference(int symbolId) {
+        long value = Money.times(referencePrices[symbolId], positions.get(symbolId));
+        totalReference += value - referenceValues[symbolId];
+        referenceValues[symbolId] = value;
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity <= costBasis.length) {
+            return;
+        }
+        int size = Math.max(capacity, costBasis.length * 2);
+        costBasis = Arrays.copyOf(costBasis, size);
+        realized = Arrays.copyOf(realized, size);
+        lastPrices = Arrays.copyOf(lastPrices, size);
+        values = Arrays.copyOf(values, size);
+        referencePrices = Arrays.copyOf(referencePrices, size);
+        referenceValues = Arrays.copyOf(referenceValues, size);
+        lots = Arrays.copyOf(lots, size);
+    }
+    
+    // Open buy lots of one symbol, oldest first, as a growable ring
+    private static final class LotQueue {
+        private long[] quantities = new long[4];
+        private long[] prices = new long[4];
+        private int head;
+        private int size;
+        
+        void add(long quantity, long price) {
+            if (size == quantities.length) {
+                grow();
+            }
+            int index = (head + size) & (quantities.length - 1);
+            quantities[index] = quantity;
+            prices[index] = price;
+            size++;
+        }
+        
+        // Removes quantity from the oldest lots and returns its cost
+        long consume(long quantity) {
+            long cost = 0;
+            int mask = quantities.length - 1;
+            while (quantity > 0 && size > 0) {
+                long lot = quantities[head];
+                if (lot <= quantity) {
+                    cost += Money.times(prices[head], lot);
+                    quantity -= lot;
+                    head = (head + 1) & mask;
+                    size--;
+                } else {
+                    cost += Money.times(prices[head], quantity);
+                    quantities[head] = lot - quantity;
+                    quantity = 0;
+                }
+            }
+            return cost;
+        }
+        
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+        
+        private void grow() {
+            int capacity = quantities.length * 2;
+            long[] newQuantities = new long[capacity];
+            long[] newPrices = new long[capacity];
+            for (int i = 0; i < size; i++) {
+                int index = (head + i) & (quantities.length - 1);
+                newQuantities[i] = quantities[index];
+                newPrices[i] = prices[index];
+            }
+            quantities = newQuantities;
+            prices = newPrices;
+            head = 0;
+        }
+    }
+}
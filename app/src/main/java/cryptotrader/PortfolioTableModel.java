@@ -0,0 +1,240 @@
+package cryptotrader;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+
+// Table model for the holdings on the Portfolio tab, one row per held symbol.
+// Like MarketTableModel it keeps primitive columns and hands out NumericCells
+// that format lazily, so a price tick only touches the row of the symbol
+// that moved. Prices are kept in USD; the money columns show them in the
+// quote currency at the rate last set, so a tick of the quote itself
+// rescales every row without touching the positions.
+public class PortfolioTableModel extends AbstractTableModel {
+    public static final int NAME_COLUMN = 0;
+    public static final int HOLDINGS_COLUMN = 1;
+    public static final int VALUE_COLUMN = 2;
+    public static final int AVG_PRICE_COLUMN = 3;
+    public static final int PROFIT_LOSS_COLUMN = 4;
+    
+    private static final String[] COLUMN_NAMES = {"Cryptocurrency", "Holdings", "Value", "Avg. Buy Price", "Profit/Loss"};
+    
+    private final String[] symbolNames;
+    private final int[] rowOfSymbol;
+    
+    private int rowCount;
+    private int[] rowSymbols = new int[8];
+    private double[] amounts = new double[8];
+    private double[] prices = new double[8];
+    private double[] avgPrices = new double[8];
+    
+    private String quoteCode = "USD";
+    private double quoteRate = 1;
+    
+    private final FixedFormat amountFormat = new FixedFormat("#,##0.00");
+    private FixedFormat moneyFormat = new FixedFormat("$#,##0.00");
+    private FixedFormat profitLossFormat = new FixedFormat("$+#,##0.00");
+    
+    // Cells of the numeric columns, created once per row slot and reused
+    private NumericCell[] amountCells = new NumericCell[0];
+    private NumericCell[] valueCells = new NumericCell[0];
+    private NumericCell[] avgPriceCells = new NumericCell[0];
+    private NumericCell[] profitLossCells = new NumericCell[0];
+    
+    public PortfolioTableModel(String[] symbolNames) {
+        this.symbolNames = symbolNames;
+        this.rowOfSymbol = new int[symbolNames.length];
+        Arrays.fill(rowOfSymbol, -1);
+        growCells(rowSymbols.length);
+    }
+    
+    // Adds or updates the row for a symbol. Returns the row for an existing
+    // position so the caller can mark it dirty; a new row is announced right
+    // away since the row count changes, and -1 is returned for it.
+    public int setPosition(int symbolId, double amount, double price, double avgPrice) {
+        int row = rowOfSymbol[symbolId];
+        if (row >= 0) {
+            amounts[row] = amount;
+            prices[row] = price;
+            avgPrices[row] = avgPrice;
+            return row;
+        }
+        
+        ensureCapacity(rowCount + 1);
+        row = rowCount++;
+        rowSymbols[row] = symbolId;
+        amounts[row] = amount;
+        prices[row] = price;
+        avgPrices[row] = avgPrice;
+        rowOfSymbol[symbolId] = row;
+        fireTableRowsInserted(row, row);
+        return -1;
+    }
+    
+    public void removePosition(int symbolId) {
+        int row = rowOfSymbol[symbolId];
+        if (row < 0) {
+            return;
+        }
+        int tail = rowCount - row - 1;
+        System.arraycopy(rowSymbols, row + 1, rowSymbols, row, tail);
+        System.arraycopy(amounts, row + 1, amounts, row, tail);
+        System.arraycopy(prices, row + 1, prices, row, tail);
+        System.arraycopy(avgPrices, row + 1, avgPrices, row, tail);
+        // The removed row's cells move to the freed slot at the end
+        rotate(amountCells, row, tail);
+        rotate(valueCells, row, tail);
+        rotate(avgPriceCells, row, tail);
+        rotate(profitLossCells, row, tail);
+        rowCount--;
+        
+        rowOfSymbol[symbolId] = -1;
+        for (int i = row; i < rowCount; i++) {
+            rowOfSymbol[rowSymbols[i]] = i;
+        }
+        fireTableRowsDeleted(row, row);
+    }
+    
+    public void clear() {
+        for (int row = 0; row < rowCount; row++) {
+            rowOfSymbol[rowSymbols[row]] = -1;
+        }
+        rowCount = 0;
+        fireTableDataChanged();
+    }
+    
+    // Switches the money columns to another quote currency, formatted with
+    // the given patterns, and converted at rate units per USD
+    public void setQuote(String code, FixedFormat money, FixedFormat profitLoss, double rate) {
+        quoteCode = code;
+        quoteRate = rate;
+        moneyFormat = money;
+        profitLossFormat = profitLoss;
+        // Cells keep the format they were made with
+        amountCells = new NumericCell[0];
+        valueCells = new NumericCell[0];
+        avgPriceCells = new NumericCell[0];
+        profitLossCells = new NumericCell[0];
+        growCells(rowSymbols.length);
+        fireTableDataChanged();
+    }
+    
+    // Stores the rate of the quote currency. Returns true if it changed, in
+    // which case every money cell is out of date.
+    public boolean setQuoteRate(double rate) {
+        if (Double.compare(rate, quoteRate) == 0) {
+            return false;
+        }
+        quoteRate = rate;
+        return true;
+    }
+    
+    // Stores a new price for a held symbol. Returns its row, or -1 if the
+    // symbol is not in the portfolio.
+    public int updatePrice(int symbolId, double price) {
+        int row = rowOfSymbol[symbolId];
+        if (row >= 0) {
+            prices[row] = price;
+        }
+        return row;
+    }
+    
+    public int getRowOfSymbol(int symbolId) {
+        return rowOfSymbol[symbolId];
+    }
+    
+    public int getSymbolAt(int row) {
+        return rowSymbols[row];
+    }
+    
+    public double getAmount(int row) {
+        return amounts[row];
+    }
+    
+    // Money values are in the quote currency
+    
+    public double getAvgPrice(int row) {
+        return avgPrices[row] * quoteRate;
+    }
+    
+    public double getValue(int row) {
+        return amounts[row] * prices[row] * quoteRate;
+    }
+    
+    public double getProfitLoss(int row) {
+        return amounts[row] * (prices[row] - avgPrices[row]) * quoteRate;
+    }
+    
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return column == VALUE_COLUMN ? COLUMN_NAMES[column] + " (" + quoteCode + ")" : COLUMN_NAMES[column];
+    }
+    
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == NAME_COLUMN ? String.class : NumericCell.class;
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case NAME_COLUMN:
+                return symbolNames[rowSymbols[row]];
+            case HOLDINGS_COLUMN:
+                amountCells[row].set(amounts[row]);
+                return amountCells[row];
+            case VALUE_COLUMN:
+                valueCells[row].set(getValue(row));
+                return valueCells[row];
+            case AVG_PRICE_COLUMN:
+                avgPriceCells[row].set(getAvgPrice(row));
+                return avgPriceCells[row];
+            case PROFIT_LOSS_COLUMN:
+                profitLossCells[row].set(getProfitLoss(row));
+                return profitLossCells[row];
+            default:
+                throw new IndexOutOfBoundsException("column " + column);
+        }
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity <= rowSymbols.length) {
+            return;
+        }
+        int size = Math.max(capacity, rowSymbols.length * 2);
+        rowSymbols = Arrays.copyOf(rowSymbols, size);
+        amounts = Arrays.copyOf(amounts, size);
+        prices = Arrays.copyOf(prices, size);
+        avgPrices = Arrays.copyOf(avgPrices, size);
+        growCells(size);
+    }
+    
+    private void growCells(int size) {
+        int oldSize = amountCells.length;
+        amountCells = Arrays.copyOf(amountCells, size);
+        valueCells = Arrays.copyOf(valueCells, size);
+        avgPriceCells = Arrays.copyOf(avgPriceCells, size);
+        profitLossCells = Arrays.copyOf(profitLossCells, size);
+        for (int i = oldSize; i < size; i++) {
+            amountCells[i] = new NumericCell(amountFormat);
+            valueCells[i] = new NumericCell(moneyFormat);
+            avgPriceCells[i] = new NumericCell(moneyFormat);
+            profitLossCells[i] = new NumericCell(profitLossFormat);
+        }
+    }
+    
+    private static void rotate(NumericCell[] cells, int row, int tail) {
+        NumericCell removed = cells[row];
+        System.arraycopy(cells, row + 1, cells, row, tail);
+        cells[row + tail] = removed;
+    }
+}
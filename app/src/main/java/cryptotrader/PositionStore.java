@@ -0,0 +1,98 @@
+package cryptotrader;
+
+import java.util.Arrays;
+
+// Quantities held per symbol id, as Quantity longs, without boxing.
+// Quantities are indexed directly by id, and the ids with a non-zero
+// position are kept in a dense list so valuation only walks what is actually
+// held. Not thread-safe.
+public class PositionStore {
+    private long[] quantities;
+    private int[] slotOfSymbol;
+    private int[] heldSymbols;
+    private int heldCount;
+    
+    public PositionStore(int symbolCapacity) {
+        int capacity = Math.max(1, symbolCapacity);
+        quantities = new long[capacity];
+        slotOfSymbol = new int[capacity];
+        heldSymbols = new int[capacity];
+        Arrays.fill(slotOfSymbol, -1);
+    }
+    
+    public long get(int symbolId) {
+        return symbolId < quantities.length ? quantities[symbolId] : 0;
+    }
+    
+    public boolean isHeld(int symbolId) {
+        return symbolId < slotOfSymbol.length && slotOfSymbol[symbolId] >= 0;
+    }
+    
+    // Sets the quantity for a symbol; zero removes the position
+    public void set(int symbolId, long quantity) {
+        ensureCapacity(symbolId + 1);
+        quantities[symbolId] = quantity;
+        int slot = slotOfSymbol[symbolId];
+        if (quantity != 0 && slot < 0) {
+            slotOfSymbol[symbolId] = heldCount;
+            heldSymbols[heldCount++] = symbolId;
+        } else if (quantity == 0 && slot >= 0) {
+            // Move the last held symbol into the gap
+            int last = heldSymbols[--heldCount];
+            heldSymbols[slot] = last;
+            slotOfSymbol[last] = slot;
+            slotOfSymbol[symbolId] = -1;
+        }
+    }
+    
+    public long add(int symbolId, long delta) {
+        long quantity = get(symbolId) + delta;
+        set(symbolId, quantity);
+        return quantity;
+    }
+    
+    public void remove(int symbolId) {
+        set(symbolId, 0);
+    }
+    
+    // Number of symbols with a non-zero position
+    public int size() {
+        return heldCount;
+    }
+    
+    // The i-th held symbol, for 0 <= i < size(). Order changes on removal.
+    public int symbolAt(int i) {
+        return heldSymbols[i];
+    }
+    
+    // Sum of quantity * price over all held symbols, with Money prices
+    public long marketValue(long[] prices) {
+        long total = 0;
+        for (int i = 0; i < heldCount; i++) {
+            int symbolId = heldSymbols[i];
+            total += Money.times(prices[symbolId], quantities[symbolId]);
+        }
+        return total;
+    }
+    
+    public void clear() {
+        for (int i = 0; i < heldCount; i++) {
+            int symbolId = heldSymbols[i];
+            quantities[symbolId] = 0;
+            slotOfSymbol[symbolId] = -1;
+        }
+        heldCount = 0;
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity <= quantities.length) {
+            return;
+        }
+        int size = Math.max(capacity, quantities.length * 2);
+        int oldSize = quantities.length;
+        quantities = Arrays.copyOf(quantities, size);
+        heldSymbols = Arrays.copyOf(heldSymbols, size);
+        slotOfSymbol = Arrays.copyOf(slotOfSymbol, size);
+        Arrays.fill(slotOfSymbol, oldSize, size, -1);
+    }
+}
@@ -0,0 +1,43 @@
+package cryptotrader;
+
+// A one-shot price trigger on one symbol, armed in an AlertEngine until it
+// fires or is cancelled. Thresholds are prices for ABOVE and BELOW and a
+// percentage for MOVE.
+public final class PriceAlert {
+    public enum Condition {
+        // Price at or above the threshold
+        ABOVE,
+        // Price at or below the threshold
+        BELOW,
+        // Change over the engine's move window, either way, of at least the threshold percent
+        MOVE
+    }
+    
+    final long alertId;
+    final int symbolId;
+    final Condition condition;
+    final double threshold;
+    
+    PriceAlert(long alertId, int symbolId, Condition condition, double threshold) {
+        this.alertId = alertId;
+        this.symbolId = symbolId;
+        this.condition = condition;
+        this.threshold = threshold;
+    }
+    
+    public long getAlertId() {
+        return alertId;
+    }
+    
+    public int getSymbolId() {
+        return symbolId;
+    }
+    
+    public Condition getCondition() {
+        return condition;
+    }
+    
+    public double getThreshold() {
+        return threshold;
+    }
+}
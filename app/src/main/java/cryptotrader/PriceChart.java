@@ -0,0 +1,257 @@
+package cryptotrader;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+
+// Candlestick chart of one symbol, painted from the OHLCV aggregator.
+// Mouse wheel zooms, dragging pans back in time and a double click returns
+// to the live edge. Each paint picks the resolution that covers the visible
+// span with bounded work, then reduces the bars to at most one column per
+// few pixels. Column buffers are only reallocated when the chart grows, so
+// painting does not allocate.
+public class PriceChart extends JComponent {
+    private static final Color BACKGROUND = new Color(250, 251, 253);
+    private static final Color GRID = new Color(225, 229, 236);
+    private static final Color UP = Theme.POSITIVE;
+    private static final Color DOWN = Theme.NEGATIVE;
+    private static final Color VOLUME = new Color(180, 188, 200);
+    private static final Color TEXT = Theme.HEADER;
+    private static final Font LABEL_FONT = new Font("Arial", Font.PLAIN, 11);
+    private static final String[] RESOLUTION_NAMES = {"1s", "1m", "1h"};
+    private static final String NO_DATA = "Waiting for market data";
+    
+    private static final int MIN_CANDLE_WIDTH = 3;
+    private static final int AXIS_WIDTH = 70;
+    private static final int PADDING = 8;
+    // Bars a paint may walk per column before a coarser resolution is used
+    private static final int MAX_BARS_PER_COLUMN = 16;
+    private static final long MIN_SPAN = 30 * OhlcvAggregator.SECOND;
+    private static final long MAX_SPAN = 30 * 24 * OhlcvAggregator.HOUR;
+    
+    private final OhlcvAggregator aggregator;
+    private int symbolId;
+    private long span = 10 * OhlcvAggregator.MINUTE;
+    // How far the right edge is behind the newest bar, 0 follows the market
+    private long offset;
+    
+    private double[] opens = new double[0];
+    private double[] highs = new double[0];
+    private double[] lows = new double[0];
+    private double[] closes = new double[0];
+    private double[] volumes = new double[0];
+    private final FixedFormat priceFormat = new FixedFormat("0.00");
+    private final FixedFormat smallPriceFormat = new FixedFormat("0.0000");
+    
+    private int dragX;
+    private long dragOffset;
+    
+    public PriceChart(OhlcvAggregator aggregator) {
+        this.aggregator = aggregator;
+        setOpaque(true);
+        setToolTipText("Scroll to zoom, drag to pan, double-click to follow the market");
+        
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragX = e.getX();
+                dragOffset = offset;
+            }
+            
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                int plotWidth = Math.max(1, getWidth() - AXIS_WIDTH - PADDING);
+                offset = Math.max(0, dragOffset + (long) ((e.getX() - dragX) * (double) span / plotWidth));
+                repaint();
+            }
+            
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    offset = 0;
+                    repaint();
+                }
+            }
+            
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                double factor = Math.pow(1.25, e.getPreciseWheelRotation());
+                span = Math.max(MIN_SPAN, Math.min(MAX_SPAN, (long) (span * factor)));
+                repaint();
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+    
+    public void setSymbol(int symbolId) {
+        if (this.symbolId != symbolId) {
+            this.symbolId = symbolId;
+            offset = 0;
+            repaint();
+        }
+    }
+    
+    public int getSymbol() {
+        return symbolId;
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = getWidth();
+        int height = getHeight();
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, width, height);
+        g.setFont(LABEL_FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        
+        int plotLeft = PADDING;
+        int plotTop = PADDING + metrics.getHeight();
+        int plotWidth = width - AXIS_WIDTH - plotLeft;
+        int plotHeight = height - plotTop - PADDING;
+        if (plotWidth < MIN_CANDLE_WIDTH || plotHeight < 20 || symbolId >= aggregator.getSymbolCount()) {
+            return;
+        }
+        
+        int maxColumns = plotWidth / MIN_CANDLE_WIDTH;
+        int resolution = pickResolution(maxColumns);
+        OhlcvSeries series = aggregator.getSeries(symbolId, resolution);
+        long end = series.getEndTime();
+        if (end == Long.MIN_VALUE) {
+            g.setColor(TEXT);
+            g.drawString(NO_DATA, plotLeft, plotTop + metrics.getAscent());
+            return;
+        }
+        
+        // Columns are whole multiples of the bar period and aligned to it,
+        // so candles keep their place as the chart scrolls
+        long period = series.getPeriod();
+        long columnWidth = Math.max(1, (span / maxColumns + period - 1) / period) * period;
+        int columns = (int) Math.min(maxColumns, (span + columnWidth - 1) / columnWidth);
+        long right = end - offset;
+        right = right - Math.floorMod(right, columnWidth) + columnWidth;
+        long from = right - columns * columnWidth;
+        
+        ensureColumns(columns);
+        int filled = series.downsample(from, columnWidth, columns, opens, highs, lows, closes, volumes);
+        
+        g.setColor(TEXT);
+        g.drawString(RESOLUTION_NAMES[resolution], plotLeft, PADDING + metrics.getAscent());
+        if (filled == 0) {
+            g.drawString(NO_DATA, plotLeft, plotTop + metrics.getAscent());
+            return;
+        }
+        
+        double high = Double.NEGATIVE_INFINITY;
+        double low = Double.POSITIVE_INFINITY;
+        double maxVolume = 0;
+        for (int c = 0; c < columns; c++) {
+            if (!Double.isNaN(opens[c])) {
+                high = Math.max(high, highs[c]);
+                low = Math.min(low, lows[c]);
+                maxVolume = Math.max(maxVolume, volumes[c]);
+            }
+        }
+        double range = high - low;
+        if (range <= 0) {
+            range = Math.max(Math.abs(high) * 0.001, 1e-8);
+        }
+        double top = high + range * 0.05;
+        double bottom = low - range * 0.05;
+        int volumeHeight = plotHeight / 5;
+        int priceHeight = plotHeight - volumeHeight;
+        double yScale = priceHeight / (top - bottom);
+        
+        // Grid at the visible high and low
+        int highY = plotTop + (int) ((top - high) * yScale);
+        int lowY = plotTop + (int) ((top - low) * yScale);
+        g.setColor(GRID);
+        g.drawLine(plotLeft, highY, plotLeft + plotWidth, highY);
+        g.drawLine(plotLeft, lowY, plotLeft + plotWidth, lowY);
+        
+        double step = plotWidth / (double) columns;
+        int candleWidth = Math.max(1, (int) (step * 0.7));
+        int volumeBase = plotTop + plotHeight;
+        for (int c = 0; c < columns; c++) {
+            if (Double.isNaN(opens[c])) {
+                continue;
+            }
+            int x = plotLeft + (int) (c * step);
+            int center = x + candleWidth / 2;
+            
+            if (maxVolume > 0) {
+                int barHeight = (int) (volumes[c] / maxVolume * (volumeHeight - 2));
+                g.setColor(VOLUME);
+                g.fillRect(x, volumeBase - barHeight, candleWidth, barHeight);
+            }
+            
+            g.setColor(closes[c] >= opens[c] ? UP : DOWN);
+            int wickTop = plotTop + (int) ((top - highs[c]) * yScale);
+            int wickBottom = plotTop + (int) ((top - lows[c]) * yScale);
+            g.drawLine(center, wickTop, center, wickBottom);
+            if (candleWidth >= MIN_CANDLE_WIDTH) {
+                int openY = plotTop + (int) ((top - opens[c]) * yScale);
+                int closeY = plotTop + (int) ((top - closes[c]) * yScale);
+                g.fillRect(x, Math.min(openY, closeY), candleWidth, Math.max(1, Math.abs(openY - closeY)));
+            }
+        }
+        
+        // Price axis: visible high and low, and the last close
+        int axisX = plotLeft + plotWidth + 4;
+        int textOffset = metrics.getAscent() / 2;
+        g.setColor(TEXT);
+        drawPrice(g, high, axisX, highY + textOffset);
+        drawPrice(g, low, axisX, lowY + textOffset);
+        double last = series.getLastClose();
+        if (offset == 0 && last >= bottom && last <= top) {
+            int lastY = plotTop + (int) ((top - last) * yScale);
+            g.setColor(GRID);
+            g.drawLine(plotLeft, lastY, plotLeft + plotWidth, lastY);
+            g.setColor(TEXT);
+            drawPrice(g, last, axisX, lastY + textOffset);
+        }
+    }
+    
+    // Picks the resolution whose complete history reaches furthest back over
+    // the visible span, among those that need at most MAX_BARS_PER_COLUMN bars
+    // per column. Ties go to the finer resolution.
+    private int pickResolution(int maxColumns) {
+        int best = aggregator.getResolutionCount() - 1;
+        long bestStart = Long.MAX_VALUE;
+        for (int r = 0; r < aggregator.getResolutionCount(); r++) {
+            OhlcvSeries series = aggregator.getSeries(symbolId, r);
+            if (span / series.getPeriod() > (long) maxColumns * MAX_BARS_PER_COLUMN) {
+                continue;
+            }
+            long end = series.getEndTime();
+            if (end == Long.MIN_VALUE) {
+                continue;
+            }
+            // The first bar may only be partly covered, so count from its end
+            long start = Math.max(end - offset - span, series.getFirstTime() + series.getPeriod());
+            if (start < bestStart) {
+                bestStart = start;
+                best = r;
+            }
+        }
+        return best;
+    }
+    
+    private void ensureColumns(int columns) {
+        if (opens.length < columns) {
+            opens = new double[columns];
+            highs = new double[columns];
+            lows = new double[columns];
+            closes = new double[columns];
+            volumes = new double[columns];
+        }
+    }
+    
+    // Draws a price without building a String, with four decimals below 1
+    private void drawPrice(Graphics g, double price, int x, int y) {
+        FixedFormat format = Math.abs(price) < 1 ? smallPriceFormat : priceFormat;
+        int length = format.write(price);
+        g.drawChars(format.getBuffer(), 0, length, x, y);
+    }
+}
@@ -0,0 +1,43 @@
+package cryptotrader;
+
+// Asset quantities as fixed-point longs, in 1e-8 of a unit: the engine's
+// quantity scale and the finest precision of any asset we trade. Each asset
+// also has its own number of decimals, its lot size, and amounts are
+// rounded to it before they reach an account.
+public final class Quantity {
+    public static final int DECIMALS = 8;
+    public static final long SCALE = 100_000_000L;
+    
+    private static final long[] LOT_SIZES = {
+        100_000_000L, 10_000_000L, 1_000_000L, 100_000L, 10_000L, 1_000L, 100L, 10L, 1L
+    };
+    
+    private Quantity() {
+    }
+    
+    public static long of(double amount) {
+        return Math.round(amount * SCALE);
+    }
+    
+    // Rounds an amount to the asset's decimals, half up
+    public static long of(double amount, int decimals) {
+        long lot = lotSize(decimals);
+        return Math.round(amount * SCALE / lot) * lot;
+    }
+    
+    public static double toDouble(long quantity) {
+        return (double) quantity / SCALE;
+    }
+    
+    // Smallest tradable step of an asset with the given decimals
+    public static long lotSize(int decimals) {
+        if (decimals < 0 || decimals > DECIMALS) {
+            throw new IllegalArgumentException("Decimals must be between 0 and " + DECIMALS + ": " + decimals);
+        }
+        return LOT_SIZES[decimals];
+    }
+    
+    public static boolean isMultipleOfLot(long quantity, int decimals) {
+        return quantity % lotSize(decimals) == 0;
+    }
+}
@@ -0,0 +1,53 @@
+package cryptotrader;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Synthetic feed: every tick moves one randomly chosen symbol by a small
+// log-normal step. Runs fully offline and paces itself to a target rate.
+public class RandomWalkTickSource implements TickSource {
+    private final double[] prices;
+    private final double volatility;
+    private final long nanosPerTick;
+    private final Random random;
+    
+    private long nextDue;
+    
+    public RandomWalkTickSource(double[] startPrices, double ticksPerSecond, double volatility, long seed) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("ticksPerSecond must be positive");
+        }
+        this.prices = startPrices.clone();
+        this.volatility = volatility;
+        this.nanosPerTick = (long) (TimeUnit.SECONDS.toNanos(1) / ticksPerSecond);
+        this.random = new Random(seed);
+    }
+    
+    @Override
+    public boolean next(Tick tick) throws InterruptedException {
+        long now = System.nanoTime();
+        if (nextDue == 0) {
+            nextDue = now;
+        }
+        // When we fall behind we emit back to back instead of sleeping, so the
+        // average rate holds even though parkNanos is coarse
+        while (now < nextDue) {
+            LockSupport.parkNanos(nextDue - now);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            now = System.nanoTime();
+        }
+        nextDue += nanosPerTick;
+        
+        int symbolId = random.nextInt(prices.length);
+        double price = prices[symbolId] * Math.exp(volatility * random.nextGaussian());
+        prices[symbolId] = price;
+        
+        // Roughly $10 to $5,000 of notional per trade
+        double size = (10 + random.nextDouble() * 4990) / price;
+        tick.set(symbolId, price, size, System.currentTimeMillis());
+        return true;
+    }
+}
@@ -0,0 +1,241 @@
+package cryptotrader;
+
+import java.util.Arrays;
+
+// Ids 0..n-1 ordered by a double key, ties by id, with the position of any
+// id and the id at any position in O(log n). It is a treap in parallel
+// arrays indexed by id, each node counting the size of its subtree, so a
+// changed key moves one id in O(log n) without touching the others and a
+// ranking can follow a tick stream that would make re-sorting too slow.
+// Keys compare like Double.compare, so NaN sorts last. Not thread safe.
+public class RankIndex {
+    private static final int NIL = -1;
+    
+    private double[] keys;
+    private int[] lefts;
+    private int[] rights;
+    private int[] priorities;
+    // Nodes in the subtree of each id, 0 when the id is not in the index
+    private int[] sizes;
+    private int root = NIL;
+    private int seed = 0x2545F491;
+    
+    // Results of split
+    private int splitBefore;
+    private int splitAfter;
+    
+    public RankIndex(int capacity) {
+        keys = new double[capacity];
+        lefts = new int[capacity];
+        rights = new int[capacity];
+        priorities = new int[capacity];
+        sizes = new int[capacity];
+    }
+    
+    public int size() {
+        return sizeOf(root);
+    }
+    
+    public boolean contains(int id) {
+        return id >= 0 && id < sizes.length && sizes[id] > 0;
+    }
+    
+    // The key of an id in the index
+    public double getKey(int id) {
+        checkContains(id);
+        return keys[id];
+    }
+    
+    // Adds the id with the key, or moves it if it is already in the index
+    public void put(int id, double key) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative id " + id);
+        }
+        if (contains(id)) {
+            if (Double.compare(keys[id], key) == 0) {
+                return;
+            }
+            root = remove(root, id);
+        } else if (id >= sizes.length) {
+            grow(id + 1);
+        }
+        keys[id] = key;
+        lefts[id] = NIL;
+        rights[id] = NIL;
+        sizes[id] = 1;
+        priorities[id] = nextPriority();
+        root = insert(root, id);
+    }
+    
+    public void remove(int id) {
+        if (contains(id)) {
+            root = remove(root, id);
+            sizes[id] = 0;
+        }
+    }
+    
+    public void clear() {
+        Arrays.fill(sizes, 0);
+        root = NIL;
+    }
+    
+    // Position of the id from the smallest key, -1 if it is not in the index
+    public int rankOf(int id) {
+        if (!contains(id)) {
+            return -1;
+        }
+        int rank = sizeOf(lefts[id]);
+        int node = root;
+        while (node != id) {
+            if (before(id, node)) {
+                node = lefts[node];
+            } else {
+                rank += sizeOf(lefts[node]) + 1;
+                node = rights[node];
+            }
+        }
+        return rank;
+    }
+    
+    // The id at a position from the smallest key
+    public int idAt(int rank) {
+        if (rank < 0 || rank >= size()) {
+            throw new IndexOutOfBoundsException("rank " + rank + ", size " + size());
+        }
+        int node = root;
+        while (true) {
+            int leftSize = sizeOf(lefts[node]);
+            if (rank < leftSize) {
+                node = lefts[node];
+            } else if (rank == leftSize) {
+                return node;
+            } else {
+                rank -= leftSize + 1;
+                node = rights[node];
+            }
+        }
+    }
+    
+    // All ids from the smallest key, in O(n)
+    public int[] toArray() {
+        int[] ids = new int[size()];
+        int[] stack = new int[64];
+        int depth = 0;
+        int count = 0;
+        int node = root;
+        while (node != NIL || depth > 0) {
+            while (node != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = lefts[node];
+            }
+            node = stack[--depth];
+            ids[count++] = node;
+            node = rights[node];
+        }
+        return ids;
+    }
+    
+    private int insert(int node, int id) {
+        if (node == NIL) {
+            return id;
+        }
+        if (priorities[id] > priorities[node]) {
+            split(node, id);
+            lefts[id] = splitBefore;
+            rights[id] = splitAfter;
+            sizes[id] = sizeOf(splitBefore) + sizeOf(splitAfter) + 1;
+            return id;
+        }
+        if (before(id, node)) {
+            lefts[node] = insert(lefts[node], id);
+        } else {
+            rights[node] = insert(rights[node], id);
+        }
+        sizes[node]++;
+        return node;
+    }
+    
+    // Splits the subtree of node into the ids ordered before id and the rest
+    private void split(int node, int id) {
+        if (node == NIL) {
+            splitBefore = NIL;
+            splitAfter = NIL;
+        } else if (before(node, id)) {
+            split(rights[node], id);
+            rights[node] = splitBefore;
+            sizes[node] = sizeOf(lefts[node]) + sizeOf(splitBefore) + 1;
+            splitBefore = node;
+        } else {
+            split(lefts[node], id);
+            lefts[node] = splitAfter;
+            sizes[node] = sizeOf(splitAfter) + sizeOf(rights[node]) + 1;
+            splitAfter = node;
+        }
+    }
+    
+    private int remove(int node, int id) {
+        if (node == id) {
+            return merge(lefts[id], rights[id]);
+        }
+        if (before(id, node)) {
+            lefts[node] = remove(lefts[node], id);
+        } else {
+            rights[node] = remove(rights[node], id);
+        }
+        sizes[node]--;
+        return node;
+    }
+    
+    // Joins two subtrees where every id of first is ordered before second
+    private int merge(int first, int second) {
+        if (first == NIL) {
+            return second;
+        }
+        if (second == NIL) {
+            return first;
+        }
+        if (priorities[first] > priorities[second]) {
+            rights[first] = merge(rights[first], second);
+            sizes[first] = sizeOf(lefts[first]) + sizeOf(rights[first]) + 1;
+            return first;
+        }
+        lefts[second] = merge(first, lefts[second]);
+        sizes[second] = sizeOf(lefts[second]) + sizeOf(rights[second]) + 1;
+        return second;
+    }
+    
+    private boolean before(int a, int b) {
+        int order = Double.compare(keys[a], keys[b]);
+        return order < 0 || order == 0 && a < b;
+    }
+    
+    private int sizeOf(int node) {
+        return node == NIL ? 0 : sizes[node];
+    }
+    
+    // Xorshift, random enough to keep the treap balanced in expectation
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+    
+    private void grow(int capacity) {
+        capacity = Math.max(capacity, sizes.length * 2);
+        keys = Arrays.copyOf(keys, capacity);
+        lefts = Arrays.copyOf(lefts, capacity);
+        rights = Arrays.copyOf(rights, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+    }
+    
+    private void checkContains(int id) {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("Id " + id + " is not in the index");
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package cryptotrader;
+
+import java.util.Arrays;
+
+// Rolling-window high, low, volume, VWAP, trade count and change for every
+// symbol, fed by the raw tick stream. The window is cut into a fixed number
+// of time buckets per symbol: sums are kept as running totals that buckets
+// are added to and subtracted from, and high and low come from monotonic
+// deques over the completed buckets plus the one in progress. A tick costs
+// amortized O(1) and memory per symbol depends on the bucket count only, not
+// on the window length or the tick rate.
+//
+// The window ends at the symbol's latest tick, so it also works for replayed
+// history, and is exact to within one bucket. Ticks for a symbol are applied
+// under that symbol's lock.
+public class RollingStats implements MarketDataFeed.TickListener {
+    private final int symbolCount;
+    private final long bucketWidth;
+    // One slot more than the window needs, for the bucket in progress
+    private final int slots;
+    private final Object[] locks;
+    
+    // Per bucket, at [symbolId * slots + bucket % slots]
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] volumes;
+    private final double[] notionals;
+    private final int[] counts;
+    
+    // Per symbol
+    private final long[] currentBucket;
+    private final long[] oldestBucket;
+    private final double[] lastPrices;
+    private final double[] volumeSums;
+    private final double[] notionalSums;
+    private final long[] countSums;
+    
+    // Deques of completed bucket numbers with decreasing highs and increasing
+    // lows, as rings at [symbolId * slots]
+    private final long[] highDeque;
+    private final long[] lowDeque;
+    private final int[] highHead;
+    private final int[] highSize;
+    private final int[] lowHead;
+    private final int[] lowSize;
+    
+    public RollingStats(int symbolCount, long windowMillis, int buckets) {
+        this.symbolCount = symbolCount;
+        this.bucketWidth = Math.max(1, windowMillis / buckets);
+        this.slots = buckets + 1;
+        locks = new Object[symbolCount];
+        for (int i = 0; i < symbolCount; i++) {
+            locks[i] = new Object();
+        }
+        int size = symbolCount * slots;
+        opens = new double[size];
+        highs = new double[size];
+        lows = new double[size];
+        volumes = new double[size];
+        notionals = new double[size];
+        counts = new int[size];
+        currentBucket = new long[symbolCount];
+        oldestBucket = new long[symbolCount];
+        lastPrices = new double[symbolCount];
+        volumeSums = new double[symbolCount];
+        notionalSums = new double[symbolCount];
+        countSums = new long[symbolCount];
+        highDeque = new long[size];
+        lowDeque = new long[size];
+        highHead = new int[symbolCount];
+        highSize = new int[symbolCount];
+        lowHead = new int[symbolCount];
+        lowSize = new int[symbolCount];
+        Arrays.fill(currentBucket, Long.MIN_VALUE);
+        Arrays.fill(lastPrices, Double.NaN);
+    }
+    
+    @Override
+    public void onTick(Tick tick) {
+        if (tick.symbolId < symbolCount) {
+            onTick(tick.symbolId, tick.timestamp, tick.price, tick.size);
+        }
+    }
+    
+    public void onTick(int symbolId, long timestamp, double price, double size) {
+        synchronized (locks[symbolId]) {
+            long bucket = Math.floorDiv(timestamp, bucketWidth);
+            if (currentBucket[symbolId] == Long.MIN_VALUE) {
+                currentBucket[symbolId] = bucket;
+                oldestBucket[symbolId] = bucket;
+            } else if (bucket > currentBucket[symbolId]) {
+                advance(symbolId, bucket);
+            }
+            // Late ticks count towards the bucket in progress
+            int slot = slotOf(symbolId, currentBucket[symbolId]);
+            if (counts[slot] == 0) {
+                opens[slot] = price;
+                highs[slot] = price;
+                lows[slot] = price;
+            } else {
+                highs[slot] = Math.max(highs[slot], price);
+                lows[slot] = Math.min(lows[slot], price);
+            }
+            counts[slot]++;
+            volumes[slot] += size;
+            notionals[slot] += price * size;
+            countSums[symbolId]++;
+            volumeSums[symbolId] += size;
+            notionalSums[symbolId] += price * size;
+            lastPrices[symbolId] = price;
+        }
+    }
+    
+    // Completes the bucket in progress and moves the window to end at bucket
+    private void advance(int symbolId, long bucket) {
+        long current = currentBucket[symbolId];
+        int slot = slotOf(symbolId, current);
+        if (counts[slot] > 0) {
+            pushCompleted(symbolId, current, slot);
+        }
+        
+        // Buckets that fell out of the window leave the deques and the sums.
+        // After a gap longer than the window every slot is stale, so at most
+        // one pass over the slots is needed.
+        long firstKept = bucket - slots + 1;
+        popExpired(symbolId, firstKept);
+        long from = Math.max(current + 1, bucket - slots + 1);
+        for (long b = from; b <= bucket; b++) {
+            clearSlot(symbolId, slotOf(symbolId, b));
+        }
+        currentBucket[symbolId] = bucket;
+        
+        // The oldest bucket with ticks gives the reference price for the change
+        long oldest = Math.max(oldestBucket[symbolId], firstKept);
+        while (oldest < bucket && counts[slotOf(symbolId, oldest)] == 0) {
+            oldest++;
+        }
+        oldestBucket[symbolId] = oldest;
+    }
+    
+    private void pushCompleted(int symbolId, long bucket, int slot) {
+        int base = symbolId * slots;
+        double high = highs[slot];
+        while (highSize[symbolId] > 0) {
+            long last = highDeque[base + (highHead[symbolId] + highSize[symbolId] - 1) % slots];
+            if (highs[slotOf(symbolId, last)] > high) {
+                break;
+            }
+            highSize[symbolId]--;
+        }
+        highDeque[base + (highHead[symbolId] + highSize[symbolId]++) % slots] = bucket;
+        
+        double low = lows[slot];
+        while (lowSize[symbolId] > 0) {
+            long last = lowDeque[base + (lowHead[symbolId] + lowSize[symbolId] - 1) % slots];
+            if (lows[slotOf(symbolId, last)] < low) {
+                break;
+            }
+            lowSize[symbolId]--;
+        }
+        lowDeque[base + (lowHead[symbolId] + lowSize[symbolId]++) % slots] = bucket;
+    }
+    
+    private void popExpired(int symbolId, long firstKept) {
+        int base = symbolId * slots;
+        while (highSize[symbolId] > 0 && highDeque[base + highHead[symbolId]] < firstKept) {
+            highHead[symbolId] = (highHead[symbolId] + 1) % slots;
+            highSize[symbolId]--;
+        }
+        while (lowSize[symbolId] > 0 && lowDeque[base + lowHead[symbolId]] < firstKept) {
+            lowHead[symbolId] = (lowHead[symbolId] + 1) % slots;
+            lowSize[symbolId]--;
+        }
+    }
+    
+    private void clearSlot(int symbolId, int slot) {
+        if (counts[slot] == 0) {
+            return;
+        }
+        countSums[symbolId] -= counts[slot];
+        volumeSums[symbolId] -= volumes[slot];
+        notionalSums[symbolId] -= notionals[slot];
+        counts[slot] = 0;
+        volumes[slot] = 0;
+        notionals[slot] = 0;
+        if (countSums[symbolId] == 0) {
+            // Shed the rounding left over from the subtractions
+            volumeSums[symbolId] = 0;
+            notionalSums[symbolId] = 0;
+        }
+    }
+    
+    private int slotOf(int symbolId, long bucket) {
+        return symbolId * slots + (int) Math.floorMod(bucket, (long) slots);
+    }
+    
+    public long getWindowMillis() {
+        return bucketWidth * (slots - 1);
+    }
+    
+    // NaN until the symbol has ticked
+    public double getHigh(int symbolId) {
+        synchronized (locks[symbolId]) {
+            if (currentBucket[symbolId] == Long.MIN_VALUE) {
+                return Double.NaN;
+            }
+            int slot = slotOf(symbolId, currentBucket[symbolId]);
+            double high = counts[slot] > 0 ? highs[slot] : Double.NEGATIVE_INFINITY;
+            if (highSize[symbolId] > 0) {
+                long front = highDeque[symbolId * slots + highHead[symbolId]];
+                high = Math.max(high, highs[slotOf(symbolId, front)]);
+            }
+            return high;
+        }
+    }
+    
+    public double getLow(int symbolId) {
+        synchronized (locks[symbolId]) {
+            if (currentBucket[symbolId] == Long.MIN_VALUE) {
+                return Double.NaN;
+            }
+            int slot = slotOf(symbolId, currentBucket[symbolId]);
+            double low = counts[slot] > 0 ? lows[slot] : Double.POSITIVE_INFINITY;
+            if (lowSize[symbolId] > 0) {
+                long front = lowDeque[symbolId * slots + lowHead[symbolId]];
+                low = Math.min(low, lows[slotOf(symbolId, front)]);
+            }
+            return low;
+        }
+    }
+    
+    // Traded quantity in the window
+    public double getVolume(int symbolId) {
+        synchronized (locks[symbolId]) {
+            return volumeSums[symbolId];
+        }
+    }
+    
+    // Traded value in the window, in the quote currency
+    public double getNotional(int symbolId) {
+        synchronized (locks[symbolId]) {
+            return notionalSums[symbolId];
+        }
+    }
+    
+    public double getVwap(int symbolId) {
+        synchronized (locks[symbolId]) {
+            return volumeSums[symbolId] > 0 ? notionalSums[symbolId] / volumeSums[symbolId] : Double.NaN;
+        }
+    }
+    
+    public long getTradeCount(int symbolId) {
+        synchronized (locks[symbolId]) {
+            return countSums[symbolId];
+        }
+    }
+    
+    // Percent change from the first price in the window to the last
+    public double getChangePercent(int symbolId) {
+        synchronized (locks[symbolId]) {
+            if (currentBucket[symbolId] == Long.MIN_VALUE) {
+                return Double.NaN;
+            }
+            double reference = opens[slotOf(symbolId, oldestBucket[symbolId])];
+            return (lastPrices[symbolId] / reference - 1) * 100;
+        }
+    }
+    
+    public double getLastPrice(int symbolId) {
+        synchronized (locks[symbolId]) {
+            return lastPrices[symbolId];
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package cryptotrader;
+
+import java.awt.Color;
+import java.awt.Font;
+
+// Colors and fonts shared by the frame, the tables and their renderers,
+// created once rather than per panel or per painted cell
+public final class Theme {
+    public static final Color HEADER = new Color(32, 43, 61);
+    public static final Color ACCENT = new Color(59, 89, 152);
+    public static final Color BORDER = new Color(220, 220, 220);
+    public static final Color POSITIVE = new Color(0, 150, 0);
+    public static final Color NEGATIVE = new Color(200, 0, 0);
+    public static final Color NEUTRAL = Color.BLACK;
+    public static final Color ALERT = new Color(255, 204, 0);
+    
+    public static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 24);
+    public static final Font LARGE_FONT = new Font("Arial", Font.BOLD, 16);
+    public static final Font MEDIUM_FONT = new Font("Arial", Font.BOLD, 14);
+    public static final Font SMALL_FONT = new Font("Arial", Font.PLAIN, 12);
+    
+    private Theme() {
+    }
+    
+    // Green for gains, red for losses
+    public static Color signColor(double value) {
+        return value > 0 ? POSITIVE : value < 0 ? NEGATIVE : NEUTRAL;
+    }
+}
@@ -0,0 +1,33 @@
+package cryptotrader;
+
+// A single market data update. Instances are reused by the feed thread, so
+// listeners must copy any field they want to keep.
+public final class Tick {
+    int symbolId;
+    double price;
+    double size;
+    long timestamp;
+    
+    public void set(int symbolId, double price, double size, long timestamp) {
+        this.symbolId = symbolId;
+        this.price = price;
+        this.size = size;
+        this.timestamp = timestamp;
+    }
+    
+    public int getSymbolId() {
+        return symbolId;
+    }
+    
+    public double getPrice() {
+        return price;
+    }
+    
+    public double getSize() {
+        return size;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
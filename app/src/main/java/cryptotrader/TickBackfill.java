@@ -0,0 +1,108 @@
+package cryptotrader;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Brings the listeners that build on the tick history, the candles and the
+// 24h statistics, up to date from the TickStore while the feed already runs.
+// Until a symbol's history is loaded its live ticks are held back, from the
+// store as well, so a scan reads exactly the ticks of earlier runs; then the
+// held ticks are applied in order and the symbol's ticks pass straight
+// through. A symbol is only ever written by one thread at a time, the loading
+// thread up to the hand-over and the feed thread after it, so the listeners
+// need no more than per-symbol state.
+public class TickBackfill implements MarketDataFeed.TickListener {
+    private static final Logger LOG = Logger.getLogger(TickBackfill.class.getName());
+    
+    private final TickStore store;
+    private final MarketDataFeed.TickListener[] listeners;
+    private final Object[] locks;
+    // Per symbol, guarded by its lock; null once the symbol is loaded
+    private final HeldTicks[] held;
+    private volatile boolean loaded;
+    
+    public TickBackfill(TickStore store, int symbolCount, MarketDataFeed.TickListener... listeners) {
+        this.store = store;
+        this.listeners = listeners.clone();
+        locks = new Object[symbolCount];
+        held = new HeldTicks[symbolCount];
+        for (int i = 0; i < symbolCount; i++) {
+            locks[i] = new Object();
+            held[i] = new HeldTicks();
+        }
+    }
+    
+    // Called on the feed thread
+    @Override
+    public void onTick(Tick tick) {
+        int symbolId = tick.symbolId;
+        if (!loaded && symbolId < locks.length) {
+            synchronized (locks[symbolId]) {
+                if (held[symbolId] != null) {
+                    held[symbolId].add(tick);
+                    return;
+                }
+            }
+        }
+        apply(tick);
+    }
+    
+    // Loads every symbol's ticks from the given time on, one symbol after the
+    // other, and hands each over to the feed as soon as it is done
+    public void loadAll(long from) {
+        for (int symbolId = 0; symbolId < locks.length; symbolId++) {
+            load(symbolId, from);
+        }
+        loaded = true;
+    }
+    
+    private void load(int symbolId, long from) {
+        Tick tick = new Tick();
+        try {
+            store.scan(symbolId, from, Long.MAX_VALUE, (timestamp, price, size) -> {
+                tick.set(symbolId, price, size, timestamp);
+                for (MarketDataFeed.TickListener listener : listeners) {
+                    listener.onTick(tick);
+                }
+            });
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Cannot load the tick history of symbol " + symbolId, e);
+        }
+        synchronized (locks[symbolId]) {
+            HeldTicks ticks = held[symbolId];
+            for (int i = 0; i < ticks.count; i++) {
+                tick.set(symbolId, ticks.prices[i], ticks.sizes[i], ticks.timestamps[i]);
+                apply(tick);
+            }
+            held[symbolId] = null;
+        }
+    }
+    
+    private void apply(Tick tick) {
+        store.onTick(tick);
+        for (MarketDataFeed.TickListener listener : listeners) {
+            listener.onTick(tick);
+        }
+    }
+    
+    // The live ticks of one symbol while its history loads
+    private static final class HeldTicks {
+        long[] timestamps = new long[64];
+        double[] prices = new double[64];
+        double[] sizes = new double[64];
+        int count;
+        
+        void add(Tick tick) {
+            if (count == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, count * 2);
+                prices = Arrays.copyOf(prices, count * 2);
+                sizes = Arrays.copyOf(sizes, count * 2);
+            }
+            timestamps[count] = tick.timestamp;
+            prices[count] = tick.price;
+            sizes[count] = tick.size;
+            count++;
+        }
+    }
+}
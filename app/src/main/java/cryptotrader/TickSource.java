@@ -0,0 +1,16 @@
+package cryptotrader;
+
+import java.io.IOException;
+
+// Something that produces ticks for the market data feed: a live connection,
+// a recorded file or a generator.
+public interface TickSource extends AutoCloseable {
+    
+    // Fills the given tick with the next update, blocking until one is due.
+    // Returns false once the source is exhausted.
+    boolean next(Tick tick) throws IOException, InterruptedException;
+    
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,623 @@
+package cryptotrader;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Full tick history per symbol, kept off the heap in memory-mapped segment
+// files under one directory per ticker. Registered as a tick listener, it
+// appends every tick on the feed thread; any thread can scan a symbol over
+// a time range while it does.
+//
+// A symbol's ticks go to a raw segment of fixed capacity, with timestamps,
+// prices and sizes in three columns, appended in place and read back with
+// absolute gets. A full segment is handed to a background thread that
+// compresses it into a cold segment: blocks of ticks with the first one
+// whole and the rest as varint deltas, prices and sizes to 8 decimals like
+// Money and Quantity, behind an index of each block's first timestamp.
+// Segments older than the retention, counted back from the symbol's latest
+// tick, are deleted.
+//
+// Timestamps are kept non-decreasing per symbol, so the segment list and
+// every segment are sorted: a range scan finds its first segment and
+// position by binary search and visits ticks straight from the mapped
+// files, without copying them or allocating per tick.
+public class TickStore implements MarketDataFeed.TickListener, AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(TickStore.class.getName());
+    
+    // Receives the ticks of a scan, in time order
+    public interface TickVisitor {
+        void onTick(long timestamp, double price, double size);
+    }
+    
+    public static final int DEFAULT_SEGMENT_TICKS = 1 << 18;
+    
+    private static final int RAW_MAGIC = 0x54434F4C; // "TCOL"
+    private static final int COLD_MAGIC = 0x54435A50; // "TCZP"
+    private static final int VERSION = 1;
+    private static final String RAW_SUFFIX = ".raw";
+    private static final String COLD_SUFFIX = ".cold";
+    // magic, version, capacity, count
+    private static final int RAW_HEADER_BYTES = 16;
+    private static final int RAW_COUNT_OFFSET = 12;
+    // magic, version, count, block count, first and last timestamp
+    private static final int COLD_HEADER_BYTES = 32;
+    // first timestamp, data offset
+    private static final int INDEX_ENTRY_BYTES = 12;
+    private static final int BLOCK_TICKS = 256;
+    
+    private final Path directory;
+    private final int segmentTicks;
+    private final long retentionMillis;
+    private final SymbolLog[] logs;
+    private volatile boolean closed;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "tick-store-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private TickStore(Path directory, String[] tickers, int segmentTicks, long retentionMillis) {
+        this.directory = directory;
+        this.segmentTicks = segmentTicks;
+        this.retentionMillis = retentionMillis;
+        logs = new SymbolLog[tickers.length];
+        for (int i = 0; i < tickers.length; i++) {
+            logs[i] = new SymbolLog(directory.resolve(tickers[i]));
+        }
+    }
+    
+    // Opens the store in directory, with tickers indexed by symbol id, and
+    // picks up the segments of earlier runs. Raw segments left full by an
+    // earlier run are compressed in the background.
+    public static TickStore open(Path directory, String[] tickers, int segmentTicks, long retentionMillis)
+            throws IOException {
+        if (segmentTicks < BLOCK_TICKS || segmentTicks > 1 << 24) {
+            throw new IllegalArgumentException("Segment ticks must be between " + BLOCK_TICKS + " and " + (1 << 24));
+        }
+        Files.createDirectories(directory);
+        TickStore store = new TickStore(directory, tickers, segmentTicks, retentionMillis);
+        for (SymbolLog log : store.logs) {
+            log.load();
+        }
+        return store;
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    public long getRetentionMillis() {
+        return retentionMillis;
+    }
+    
+    @Override
+    public void onTick(Tick tick) {
+        if (tick.symbolId < logs.length && !closed) {
+            logs[tick.symbolId].append(tick.timestamp, tick.price, tick.size);
+        }
+    }
+    
+    // Visits the ticks of a symbol with from <= timestamp < to
+    public void scan(int symbolId, long from, long to, TickVisitor visitor) {
+        if (from >= to) {
+            return;
+        }
+        Segment[] segments = logs[symbolId].segments;
+        // First segment that may reach from
+        int low = 0;
+        int high = segments.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (segments[middle].getLastTimestamp() < from) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int i = low; i < segments.length && segments[i].getFirstTimestamp() < to; i++) {
+            segments[i].scan(from, to, visitor);
+        }
+    }
+    
+    // Ticks stored for a symbol, within the retention
+    public long getTickCount(int symbolId) {
+        long count = 0;
+        for (Segment segment : logs[symbolId].segments) {
+            count += segment.getCount();
+        }
+        return count;
+    }
+    
+    // Stops appending and waits for compactions in progress. If interrupted
+    // it stops waiting and leaves the interrupt set; a compaction cut short
+    // only leaves its raw segment behind.
+    @Override
+    public void close() {
+        closed = true;
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // The varint coding of cold segments, package-private for the tests
+    
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+    
+    // The segments of one symbol. Appends and the creation of segments run
+    // on one thread at a time, normally the feed thread; the list is copied
+    // on every change under the log's lock, which the compactor also takes
+    // to swap in cold segments, so scans read it without locking.
+    private final class SymbolLog {
+        private final Path directory;
+        private volatile Segment[] segments = new Segment[0];
+        private RawSegment hot;
+        private long nextSequence;
+        private long lastTimestamp = Long.MIN_VALUE;
+        private boolean failed;
+        
+        SymbolLog(Path directory) {
+            this.directory = directory;
+        }
+        
+        void load() throws IOException {
+            Files.createDirectories(directory);
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.{raw,cold}")) {
+                stream.forEach(files::add);
+            }
+            // Sequence numbers are zero-padded, so names sort in time order
+            files.sort(null);
+            List<Segment> loaded = new ArrayList<>();
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    long sequence = Long.parseLong(name.substring(0, name.indexOf('.')));
+                    nextSequence = Math.max(nextSequence, sequence + 1);
+                    if (name.endsWith(RAW_SUFFIX)) {
+                        // Compressed before a crash that left the raw file behind
+                        if (Files.exists(coldFile(sequence))) {
+                            Files.delete(file);
+                            continue;
+                        }
+                        RawSegment raw = RawSegment.open(file, sequence);
+                        if (raw.count == 0) {
+                            Files.delete(file);
+                            continue;
+                        }
+                        loaded.add(raw);
+                    } else {
+                        loaded.add(ColdSegment.open(file, sequence));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    LOG.log(Level.WARNING, "Skipping unreadable tick segment " + file, e);
+                }
+            }
+            segments = loaded.toArray(new Segment[0]);
+            if (segments.length > 0) {
+                lastTimestamp = segments[segments.length - 1].getLastTimestamp();
+            }
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i] instanceof RawSegment) {
+                    RawSegment raw = (RawSegment) segments[i];
+                    if (i == segments.length - 1 && raw.count < raw.capacity) {
+                        hot = raw;
+                    } else {
+                        compactor.execute(() -> compact(raw));
+                    }
+                }
+            }
+        }
+        
+        void append(long timestamp, double price, double size) {
+            if (failed) {
+                return;
+            }
+            long stored = Math.max(timestamp, lastTimestamp);
+            if (hot == null || hot.count == hot.capacity) {
+                try {
+                    roll(stored);
+                } catch (IOException e) {
+                    failed = true;
+                    LOG.log(Level.WARNING, "Cannot create a tick segment in " + directory + ", ticks are no longer stored", e);
+                    return;
+                }
+            }
+            hot.append(stored, price, size);
+            lastTimestamp = stored;
+        }
+        
+        private void roll(long timestamp) throws IOException {
+            RawSegment full = hot;
+            long sequence = nextSequence++;
+            hot = RawSegment.create(directory.resolve(String.format("%020d%s", sequence, RAW_SUFFIX)), sequence,
+                    segmentTicks);
+            synchronized (this) {
+                Segment[] current = segments;
+                Segment[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = hot;
+                segments = updated;
+            }
+            if (full != null) {
+                compactor.execute(() -> compact(full));
+            }
+            long cutoff = timestamp - retentionMillis;
+            compactor.execute(() -> dropBefore(cutoff));
+        }
+        
+        // Runs on the compactor thread
+        private void compact(RawSegment raw) {
+            Path file = coldFile(raw.sequence);
+            try {
+                ColdSegment.write(raw, file);
+                ColdSegment cold = ColdSegment.open(file, raw.sequence);
+                synchronized (this) {
+                    Segment[] updated = segments.clone();
+                    int index = Arrays.asList(updated).indexOf(raw);
+                    if (index < 0) {
+                        // Dropped by the retention meanwhile
+                        Files.deleteIfExists(file);
+                        return;
+                    }
+                    updated[index] = cold;
+                    segments = updated;
+                }
+                // Scans still holding the raw mapping keep it until they finish
+                Files.deleteIfExists(raw.file);
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Cannot compress tick segment " + raw.file + ", keeping it raw", e);
+            }
+        }
+        
+        // Runs on the compactor thread. The hot segment is never dropped.
+        private void dropBefore(long cutoff) {
+            List<Segment> dropped = new ArrayList<>();
+            synchronized (this) {
+                Segment[] current = segments;
+                int keep = 0;
+                while (keep < current.length - 1 && current[keep].getLastTimestamp() < cutoff) {
+                    dropped.add(current[keep++]);
+                }
+                if (keep == 0) {
+                    return;
+                }
+                segments = Arrays.copyOfRange(current, keep, current.length);
+            }
+            for (Segment segment : dropped) {
+                try {
+                    Files.deleteIfExists(segment.file);
+                } catch (IOException e) {
+                    LOG.log(Level.WARNING, "Cannot delete tick segment " + segment.file, e);
+                }
+            }
+        }
+        
+        private Path coldFile(long sequence) {
+            return directory.resolve(String.format("%020d%s", sequence, COLD_SUFFIX));
+        }
+    }
+    
+    private abstract static class Segment {
+        final Path file;
+        final long sequence;
+        
+        Segment(Path file, long sequence) {
+            this.file = file;
+            this.sequence = sequence;
+        }
+        
+        abstract int getCount();
+        
+        abstract long getFirstTimestamp();
+        
+        abstract long getLastTimestamp();
+        
+        abstract void scan(long from, long to, TickVisitor visitor);
+    }
+    
+    // Columns of timestamps, prices and sizes after a small header, each
+    // capacity entries long. The count in the header is updated on every
+    // append, so a segment reopened after a crash has the ticks written
+    // before it.
+    private static final class RawSegment extends Segment {
+        final int capacity;
+        private final MappedByteBuffer buffer;
+        private final int priceOffset;
+        private final int sizeOffset;
+        // Written by the feed thread after the tick, so readers see whole ticks
+        volatile int count;
+        
+        private RawSegment(Path file, long sequence, MappedByteBuffer buffer, int capacity, int count) {
+            super(file, sequence);
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.count = count;
+            priceOffset = RAW_HEADER_BYTES + capacity * 8;
+            sizeOffset = priceOffset + capacity * 8;
+        }
+        
+        static RawSegment create(Path file, long sequence, int capacity) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        RAW_HEADER_BYTES + (long) capacity * 24);
+                buffer.putInt(0, RAW_MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, capacity);
+                buffer.putInt(RAW_COUNT_OFFSET, 0);
+                return new RawSegment(file, sequence, buffer, capacity, 0);
+            }
+        }
+        
+        static RawSegment open(Path file, long sequence) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                if (buffer.capacity() < RAW_HEADER_BYTES || buffer.getInt(0) != RAW_MAGIC || buffer.getInt(4) != VERSION) {
+                    throw new IOException("not a version " + VERSION + " raw tick segment");
+                }
+                int capacity = buffer.getInt(8);
+                int count = buffer.getInt(RAW_COUNT_OFFSET);
+                if (capacity <= 0 || count < 0 || count > capacity
+                        || buffer.capacity() != RAW_HEADER_BYTES + (long) capacity * 24) {
+                    throw new IOException("bad raw tick segment header");
+                }
+                return new RawSegment(file, sequence, buffer, capacity, count);
+            }
+        }
+        
+        void append(long timestamp, double price, double size) {
+            int index = count;
+            buffer.putLong(RAW_HEADER_BYTES + index * 8, timestamp);
+            buffer.putDouble(priceOffset + index * 8, price);
+            buffer.putDouble(sizeOffset + index * 8, size);
+            buffer.putInt(RAW_COUNT_OFFSET, index + 1);
+            count = index + 1;
+        }
+        
+        long getTimestamp(int index) {
+            return buffer.getLong(RAW_HEADER_BYTES + index * 8);
+        }
+        
+        double getPrice(int index) {
+            return buffer.getDouble(priceOffset + index * 8);
+        }
+        
+        double getSize(int index) {
+            return buffer.getDouble(sizeOffset + index * 8);
+        }
+        
+        @Override
+        int getCount() {
+            return count;
+        }
+        
+        @Override
+        long getFirstTimestamp() {
+            return count == 0 ? Long.MAX_VALUE : getTimestamp(0);
+        }
+        
+        @Override
+        long getLastTimestamp() {
+            int n = count;
+            return n == 0 ? Long.MAX_VALUE : getTimestamp(n - 1);
+        }
+        
+        @Override
+        void scan(long from, long to, TickVisitor visitor) {
+            int n = count;
+            int low = 0;
+            int high = n;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (getTimestamp(middle) < from) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            for (int i = low; i < n; i++) {
+                long timestamp = getTimestamp(i);
+                if (timestamp >= to) {
+                    return;
+                }
+                visitor.onTick(timestamp, getPrice(i), getSize(i));
+            }
+        }
+    }
+    
+    // A compressed, read-only segment: header, block index, then blocks of
+    // up to BLOCK_TICKS ticks. A block starts with its first tick as three
+    // longs (timestamp, Money price, Quantity size); every further tick is
+    // the zigzag varint of the timestamp and price deltas and of the size.
+    // A tick at a steady price and millisecond spacing takes a few bytes
+    // instead of the 24 of a raw segment.
+    private static final class ColdSegment extends Segment {
+        private final ByteBuffer buffer;
+        private final int count;
+        private final int blockCount;
+        private final long firstTimestamp;
+        private final long lastTimestamp;
+        
+        private ColdSegment(Path file, long sequence, ByteBuffer buffer) {
+            super(file, sequence);
+            this.buffer = buffer;
+            count = buffer.getInt(8);
+            blockCount = buffer.getInt(12);
+            firstTimestamp = buffer.getLong(16);
+            lastTimestamp = buffer.getLong(24);
+        }
+        
+        static ColdSegment open(Path file, long sequence) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.capacity() < COLD_HEADER_BYTES || buffer.getInt(0) != COLD_MAGIC || buffer.getInt(4) != VERSION) {
+                    throw new IOException("not a version " + VERSION + " cold tick segment");
+                }
+                int blockCount = buffer.getInt(12);
+                if (blockCount < 0 || buffer.capacity() < COLD_HEADER_BYTES + (long) blockCount * INDEX_ENTRY_BYTES) {
+                    throw new IOException("bad cold tick segment header");
+                }
+                return new ColdSegment(file, sequence, buffer);
+            }
+        }
+        
+        // Writes next to the file and moves it in place, so a cold file is always whole
+        static void write(RawSegment raw, Path file) throws IOException {
+            int count = raw.count;
+            int blockCount = (count + BLOCK_TICKS - 1) / BLOCK_TICKS;
+            long[] blockTimestamps = new long[blockCount];
+            int[] blockOffsets = new int[blockCount];
+            ByteArrayOutputStream blocks = new ByteArrayOutputStream(count * 8);
+            long timestamp = 0;
+            long price = 0;
+            for (int i = 0; i < count; i++) {
+                long nextTimestamp = raw.getTimestamp(i);
+                long nextPrice = Money.of(raw.getPrice(i));
+                long size = Quantity.of(raw.getSize(i));
+                if (i % BLOCK_TICKS == 0) {
+                    int block = i / BLOCK_TICKS;
+                    blockTimestamps[block] = nextTimestamp;
+                    blockOffsets[block] = blocks.size();
+                    writeLong(blocks, nextTimestamp);
+                    writeLong(blocks, nextPrice);
+                    writeLong(blocks, size);
+                } else {
+                    writeVarLong(blocks, zigzag(nextTimestamp - timestamp));
+                    writeVarLong(blocks, zigzag(nextPrice - price));
+                    writeVarLong(blocks, zigzag(size));
+                }
+                timestamp = nextTimestamp;
+                price = nextPrice;
+            }
+            
+            int dataStart = COLD_HEADER_BYTES + blockCount * INDEX_ENTRY_BYTES;
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(COLD_MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(count);
+                out.writeInt(blockCount);
+                out.writeLong(count == 0 ? Long.MAX_VALUE : raw.getTimestamp(0));
+                out.writeLong(count == 0 ? Long.MAX_VALUE : raw.getTimestamp(count - 1));
+                for (int block = 0; block < blockCount; block++) {
+                    out.writeLong(blockTimestamps[block]);
+                    out.writeInt(dataStart + blockOffsets[block]);
+                }
+                blocks.writeTo(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        
+        @Override
+        int getCount() {
+            return count;
+        }
+        
+        @Override
+        long getFirstTimestamp() {
+            return firstTimestamp;
+        }
+        
+        @Override
+        long getLastTimestamp() {
+            return lastTimestamp;
+        }
+        
+        @Override
+        void scan(long from, long to, TickVisitor visitor) {
+            // Ticks at from or later start in the last block that begins
+            // before from, or in the first block if none does
+            int low = 0;
+            int high = blockCount;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (blockTimestamp(middle) < from) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int block = Math.max(0, low - 1);
+            
+            // A view of the shared mapping, so concurrent scans keep their own position
+            ByteBuffer in = buffer.duplicate();
+            for (; block < blockCount; block++) {
+                in.position(buffer.getInt(COLD_HEADER_BYTES + block * INDEX_ENTRY_BYTES + 8));
+                int ticks = Math.min(BLOCK_TICKS, count - block * BLOCK_TICKS);
+                long timestamp = in.getLong();
+                long price = in.getLong();
+                long size = in.getLong();
+                for (int i = 0; ; ) {
+                    if (timestamp >= to) {
+                        return;
+                    }
+                    if (timestamp >= from) {
+                        visitor.onTick(timestamp, Money.toDouble(price), Quantity.toDouble(size));
+                    }
+                    if (++i == ticks) {
+                        break;
+                    }
+                    timestamp += unzigzag(readVarLong(in));
+                    price += unzigzag(readVarLong(in));
+                    size = unzigzag(readVarLong(in));
+                }
+            }
+        }
+        
+        private long blockTimestamp(int block) {
+            return buffer.getLong(COLD_HEADER_BYTES + block * INDEX_ENTRY_BYTES);
+        }
+        
+        private static void writeLong(ByteArrayOutputStream out, long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (value >>> shift));
+            }
+        }
+    }
+}
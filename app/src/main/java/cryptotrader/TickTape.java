@@ -0,0 +1,100 @@
+package cryptotrader;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// A recorded tick file in fixed-width binary records, memory-mapped
+// read-only. The ticks stay in the page cache rather than on the heap, and
+// are read by index with absolute gets, so any number of threads can replay
+// one tape at the same time without copies or per-reader buffers. Files over
+// 2 GB are mapped in several chunks of whole records.
+//
+// Built once from a tick source, usually a CSV file read by
+// FileTickReplayer; symbols are stored as registry ids.
+public class TickTape {
+    private static final int MAGIC = 0x5449434B; // "TICK"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    // timestamp, price, size, symbol id
+    private static final int RECORD_BYTES = 8 + 8 + 8 + 4;
+    private static final int RECORDS_PER_CHUNK = (1 << 30) / RECORD_BYTES;
+    
+    private final ByteBuffer[] chunks;
+    private final long size;
+    
+    private TickTape(ByteBuffer[] chunks, long size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+    
+    public static TickTape open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a version " + VERSION + " tick tape");
+            }
+            long size = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((size + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK)];
+            for (int i = 0; i < chunks.length; i++) {
+                long first = (long) i * RECORDS_PER_CHUNK;
+                long records = Math.min(RECORDS_PER_CHUNK, size - first);
+                // The mapping stays valid after the channel is closed
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_BYTES + first * RECORD_BYTES, records * RECORD_BYTES);
+            }
+            return new TickTape(chunks, size);
+        }
+    }
+    
+    // Writes every tick of the source to a new tape. Returns the tick count.
+    public static long write(TickSource source, Path file) throws IOException, InterruptedException {
+        Tick tick = new Tick();
+        long count = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            while (source.next(tick)) {
+                out.writeLong(tick.timestamp);
+                out.writeDouble(tick.price);
+                out.writeDouble(tick.size);
+                out.writeInt(tick.symbolId);
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    public long size() {
+        return size;
+    }
+    
+    public long getTimestamp(long index) {
+        return chunkOf(index).getLong(offsetOf(index));
+    }
+    
+    public double getPrice(long index) {
+        return chunkOf(index).getDouble(offsetOf(index) + 8);
+    }
+    
+    public double getSize(long index) {
+        return chunkOf(index).getDouble(offsetOf(index) + 16);
+    }
+    
+    public int getSymbolId(long index) {
+        return chunkOf(index).getInt(offsetOf(index) + 24);
+    }
+    
+    private ByteBuffer chunkOf(long index) {
+        return chunks[(int) (index / RECORDS_PER_CHUNK)];
+    }
+    
+    private static int offsetOf(long index) {
+        return (int) (index % RECORDS_PER_CHUNK) * RECORD_BYTES;
+    }
+}
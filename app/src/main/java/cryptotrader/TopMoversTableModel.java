@@ -0,0 +1,130 @@
+package cryptotrader;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+
+// The top gainers, top losers or most active symbols, for the leaderboard
+// next to the market table. Every symbol's 24h change and traded value sit
+// in a RankIndex that a tick updates in O(log n); the shown rows are read
+// off the ends of one of them once per frame, so the leaderboard never
+// sorts the market. Gainers and losers are the two ends of the same
+// ranking. EDT only, like the other table models.
+public class TopMoversTableModel extends AbstractTableModel {
+    public static final String[] VIEWS = {"Top Gainers", "Top Losers", "Most Active"};
+    public static final int GAINERS = 0;
+    public static final int LOSERS = 1;
+    public static final int MOST_ACTIVE = 2;
+    
+    private static final String[] COLUMN_NAMES = {"Cryptocurrency", "24h Change", "24h Volume"};
+    
+    private final String[] names;
+    private final RankIndex changes;
+    private final RankIndex activity;
+    private final int rows;
+    private int view = GAINERS;
+    private boolean dirty = true;
+    
+    // Symbol of each shown row, -1 past the end of the ranking
+    private final int[] shown;
+    private final NumericCell[] changeCells;
+    private final NumericCell[] activityCells;
+    
+    public TopMoversTableModel(String[] names, int rows) {
+        this.names = names.clone();
+        this.rows = rows;
+        changes = new RankIndex(names.length);
+        activity = new RankIndex(names.length);
+        shown = new int[rows];
+        Arrays.fill(shown, -1);
+        FixedFormat changeFormat = new FixedFormat("+#,##0.00%");
+        FixedFormat activityFormat = new FixedFormat("$#,##0");
+        changeCells = new NumericCell[rows];
+        activityCells = new NumericCell[rows];
+        for (int i = 0; i < rows; i++) {
+            changeCells[i] = new NumericCell(changeFormat);
+            activityCells[i] = new NumericCell(activityFormat);
+        }
+    }
+    
+    // Stores a symbol's change in percent and 24h traded value; O(log n)
+    public void update(int symbolId, double change, double notional) {
+        changes.put(symbolId, change);
+        activity.put(symbolId, notional);
+        dirty = true;
+    }
+    
+    public int getView() {
+        return view;
+    }
+    
+    public void setView(int view) {
+        if (view < GAINERS || view > MOST_ACTIVE) {
+            throw new IllegalArgumentException("Unknown view " + view);
+        }
+        this.view = view;
+        dirty = true;
+        refresh();
+    }
+    
+    // The symbol shown in a row, -1 for an empty row
+    public int getSymbolAt(int row) {
+        return shown[row];
+    }
+    
+    // Reads the shown rows off the ranking if anything was updated, in
+    // O(rows log n). Call once per frame.
+    public void refresh() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        RankIndex ranking = view == MOST_ACTIVE ? activity : changes;
+        int size = ranking.size();
+        boolean highestFirst = view != LOSERS;
+        for (int row = 0; row < rows; row++) {
+            shown[row] = row >= size ? -1 : ranking.idAt(highestFirst ? size - 1 - row : row);
+        }
+        // Values move with every tick even when the symbols stay
+        fireTableRowsUpdated(0, rows - 1);
+    }
+    
+    @Override
+    public int getRowCount() {
+        return rows;
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+    
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 0 ? String.class : NumericCell.class;
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        int symbolId = shown[row];
+        if (symbolId < 0) {
+            return column == 0 ? "" : null;
+        }
+        switch (column) {
+            case 0:
+                return names[symbolId];
+            case 1:
+                changeCells[row].set(changes.getKey(symbolId));
+                return changeCells[row];
+            case 2:
+                activityCells[row].set(activity.getKey(symbolId));
+                return activityCells[row];
+            default:
+                throw new IndexOutOfBoundsException("column " + column);
+        }
+    }
+}
@@ -0,0 +1,626 @@
+package cryptotrader;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+// Append-only binary journal of orders, fills and balance changes.
+//
+// Records are written into memory-mapped segment files, so appending is a
+// memory copy plus a checksum; a background thread forces them to disk in
+// groups (every syncRecords records or syncMillis, whichever comes first).
+// Each segment starts with
+//     int MAGIC, int FORMAT_VERSION
+// and a journal with a segment of another format is moved aside on open,
+// rather than its records misread. Each record is
+//     int length, int crc32c, byte type, long sequence, long timestamp, payload
+// with prices and cash as Money and amounts as Quantity longs
+// and the length is written last, so a torn or never-flushed record reads as
+// the end of the journal.
+//
+// Periodic snapshots of the full state bound recovery: on startup the newest
+// snapshot is loaded and only the records after it are replayed. Segments
+// that are entirely covered by a snapshot are deleted.
+//
+// Nothing that touches the disk beyond the mapped memory runs on the
+// appending thread: the sync thread writes snapshots, forces and closes
+// full segments, and maps the next segment ahead of time as a standby,
+// which an append that runs out of room only renames and swaps in.
+public class TradeJournal implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(TradeJournal.class.getName());
+    
+    public static final byte ORDER = 1;
+    public static final byte FILL = 2;
+    public static final byte ORDER_CLOSED = 3;
+    public static final byte BALANCE = 4;
+    
+    // "JRNL". Segments written before the header existed start with a record
+    // length instead, and are of no supported format.
+    private static final int MAGIC = 0x4A524E4C;
+    // Bumped whenever the layout of a record changes
+    private static final int FORMAT_VERSION = 1;
+    private static final int SEGMENT_HEADER_SIZE = 4 + 4;
+    private static final int HEADER_SIZE = 4 + 4 + 1 + 8 + 8;
+    private static final int MAX_RECORD_SIZE = HEADER_SIZE + 64;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SUFFIX = ".dat";
+    private static final String STANDBY = "journal-standby.tmp";
+    private static final int PAGE_SIZE = 4096;
+    
+    // Receives the journal contents on replay, in the order they were written
+    public interface Replayer {
+        void onSnapshot(long sequence, DataInputStream in) throws IOException;
+        
+        void onOrder(long orderId, int symbolId, boolean buy, boolean limit, long price, long amount);
+        
+        void onFill(long orderId, int symbolId, boolean buy, long price, long quantity);
+        
+        void onOrderClosed(long orderId, int symbolId, long unfilled);
+        
+        void onBalance(long cash);
+    }
+    
+    public interface SnapshotWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+    
+    private final Path directory;
+    private final int segmentSize;
+    private final int syncRecords;
+    private final long syncNanos;
+    private final long snapshotRecords;
+    private final CRC32C crc = new CRC32C();
+    
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    // Second view of the segment for checksumming without moving its position
+    private ByteBuffer checksumView;
+    private int syncedTo;
+    private long nextSequence = 1;
+    private long lastSnapshotSequence;
+    private volatile long unsynced;
+    
+    // Mapped by the sync thread for the next segment, null until it is ready
+    private FileChannel standbyChannel;
+    private MappedByteBuffer standby;
+    // Full segments the sync thread still has to force and close
+    private final List<Retired> retired = new ArrayList<>();
+    // Whether files were renamed or created since the directory was forced
+    private boolean directoryChanged;
+    // Image of the state at pendingSequence, for the sync thread to write
+    private byte[] pendingSnapshot;
+    private long pendingSequence;
+    // Set when the sync thread fails; appends fail with it from then on
+    private volatile IOException failure;
+    
+    // Held for a whole sync, so the sync thread and callers of sync() take turns
+    private final Object syncLock = new Object();
+    private final Thread syncThread;
+    private volatile boolean running = true;
+    
+    public TradeJournal(Path directory, int segmentSize, int syncRecords, long syncMillis, long snapshotRecords)
+            throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncRecords = Math.max(1, syncRecords);
+        this.syncNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, syncMillis));
+        this.snapshotRecords = snapshotRecords;
+        Files.createDirectories(directory);
+        openTail();
+        
+        syncThread = new Thread(this::syncLoop, "journal-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+    
+    // Positions the writer after the last valid record, starting a new
+    // segment if there is none yet. A journal written in another format is
+    // moved aside first, snapshots and all, and a new one started.
+    private void openTail() throws IOException {
+        Files.deleteIfExists(directory.resolve(STANDBY));
+        for (Path file : list(SEGMENT_PREFIX)) {
+            ByteBuffer header = readHeader(file);
+            if (!isBlank(header) && !isCurrentFormat(header)) {
+                Path aside = moveAside(directory);
+                LOG.warning("Journal segment " + file.getFileName() + " has an unsupported format, moved the journal"
+                        + " to " + aside + " and started a new one");
+                Files.createDirectories(directory);
+                break;
+            }
+        }
+        List<Path> snapshots = list(SNAPSHOT_PREFIX);
+        if (!snapshots.isEmpty()) {
+            lastSnapshotSequence = sequenceOf(snapshots.get(snapshots.size() - 1), SNAPSHOT_PREFIX);
+            nextSequence = lastSnapshotSequence + 1;
+        }
+        List<Path> segments = list(SEGMENT_PREFIX);
+        if (segments.isEmpty()) {
+            startSegment(nextSequence);
+            return;
+        }
+        Path last = segments.get(segments.size() - 1);
+        channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        checksumView = segment.duplicate();
+        long sequence = sequenceOf(last, SEGMENT_PREFIX);
+        if (isBlank(segment)) {
+            // Created, but the header never made it to disk
+            segment.position(0);
+            writeHeader(segment);
+            syncedTo = 0;
+            nextSequence = Math.max(nextSequence, sequence);
+            return;
+        }
+        int position = SEGMENT_HEADER_SIZE;
+        int length;
+        while ((length = validLength(segment, position)) > 0) {
+            sequence = segment.getLong(position + 9) + 1;
+            position += length;
+        }
+        // Clear a torn tail so it cannot be mistaken for data later
+        for (int i = position; i < Math.min(segmentSize, position + MAX_RECORD_SIZE); i++) {
+            segment.put(i, (byte) 0);
+        }
+        segment.position(position);
+        syncedTo = position;
+        nextSequence = Math.max(nextSequence, sequence);
+    }
+    
+    private void startSegment(long firstSequence) throws IOException {
+        Path file = segmentFile(firstSequence);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.position(0);
+        writeHeader(segment);
+        checksumView = segment.duplicate();
+        syncedTo = 0;
+        directoryChanged = true;
+    }
+    
+    // Leaves the buffer positioned after the header. The header is forced
+    // along with the first records, as syncing a new segment starts at 0.
+    private static void writeHeader(ByteBuffer segment) {
+        segment.putInt(MAGIC);
+        segment.putInt(FORMAT_VERSION);
+    }
+    
+    // Missing bytes of a short file read as zeros
+    private static ByteBuffer readHeader(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (header.hasRemaining()) {
+                if (in.read(header, header.position()) <= 0) {
+                    break;
+                }
+            }
+        }
+        return header;
+    }
+    
+    // A segment whose header is zeros was created but never written to, and
+    // holds no records
+    private static boolean isBlank(ByteBuffer segment) {
+        return segment.limit() < SEGMENT_HEADER_SIZE || (segment.getInt(0) == 0 && segment.getInt(4) == 0);
+    }
+    
+    private static boolean isCurrentFormat(ByteBuffer segment) {
+        return segment.limit() >= SEGMENT_HEADER_SIZE && segment.getInt(0) == MAGIC
+                && segment.getInt(4) == FORMAT_VERSION;
+    }
+    
+    // Renames a journal directory that cannot be read, e.g. one written in
+    // another format, out of the way and returns its new name. Its files are
+    // kept for inspection; a journal opened at directory starts empty.
+    public static Path moveAside(Path directory) throws IOException {
+        Path aside = directory.resolveSibling(directory.getFileName() + "-old-" + System.currentTimeMillis());
+        Files.move(directory, aside, StandardCopyOption.ATOMIC_MOVE);
+        return aside;
+    }
+    
+    // Moves on to the next segment when the current one is full. The full
+    // segment is left to the sync thread, and the standby becomes the new
+    // segment with a rename, so the append only maps a file itself if the
+    // sync thread has not got round to the standby yet.
+    private void rollSegment() throws IOException {
+        retired.add(new Retired(channel, segment, syncedTo, segment.position()));
+        if (standby == null) {
+            startSegment(nextSequence);
+        } else {
+            Files.move(directory.resolve(STANDBY), segmentFile(nextSequence), StandardCopyOption.ATOMIC_MOVE);
+            channel = standbyChannel;
+            segment = standby;
+            standbyChannel = null;
+            standby = null;
+            checksumView = segment.duplicate();
+            syncedTo = 0;
+            directoryChanged = true;
+        }
+        LockSupport.unpark(syncThread);
+    }
+    
+    private Path segmentFile(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SUFFIX));
+    }
+    
+    public synchronized long appendOrder(long orderId, int symbolId, boolean buy, boolean limit, long price,
+            long amount) throws IOException {
+        int start = begin(ORDER);
+        segment.putLong(orderId);
+        segment.putInt(symbolId);
+        segment.put((byte) ((buy ? 1 : 0) | (limit ? 2 : 0)));
+        segment.putLong(price);
+        segment.putLong(amount);
+        return commit(start);
+    }
+    
+    public synchronized long appendFill(long orderId, int symbolId, boolean buy, long price, long quantity)
+            throws IOException {
+        int start = begin(FILL);
+        segment.putLong(orderId);
+        segment.putInt(symbolId);
+        segment.put((byte) (buy ? 1 : 0));
+        segment.putLong(price);
+        segment.putLong(quantity);
+        return commit(start);
+    }
+    
+    public synchronized long appendOrderClosed(long orderId, int symbolId, long unfilled) throws IOException {
+        int start = begin(ORDER_CLOSED);
+        segment.putLong(orderId);
+        segment.putInt(symbolId);
+        segment.putLong(unfilled);
+        return commit(start);
+    }
+    
+    public synchronized long appendBalance(long cash) throws IOException {
+        int start = begin(BALANCE);
+        segment.putLong(cash);
+        return commit(start);
+    }
+    
+    private int begin(byte type) throws IOException {
+        if (failure != null) {
+            throw new IOException("Journal sync failed", failure);
+        }
+        if (segment.remaining() < MAX_RECORD_SIZE) {
+            rollSegment();
+        }
+        int start = segment.position();
+        segment.position(start + 8);
+        segment.put(type);
+        segment.putLong(nextSequence);
+        segment.putLong(System.currentTimeMillis());
+        return start;
+    }
+    
+    private long commit(int start) {
+        int end = segment.position();
+        checksumView.limit(end).position(start + 8);
+        crc.reset();
+        crc.update(checksumView);
+        segment.putInt(start + 4, (int) crc.getValue());
+        // The length goes in last: until then the record reads as end of journal
+        segment.putInt(start, end - start);
+        
+        if (++unsynced >= syncRecords) {
+            LockSupport.unpark(syncThread);
+        }
+        return nextSequence++;
+    }
+    
+    // Whether enough records were written since the last snapshot
+    public synchronized boolean isSnapshotDue() {
+        return snapshotRecords > 0 && nextSequence - 1 - lastSnapshotSequence >= snapshotRecords;
+    }
+    
+    // Takes a snapshot covering every record appended so far. The writer
+    // runs here, into memory, so the caller can hold whatever lock keeps its
+    // state in step with the journal; the sync thread writes the file and
+    // then drops the segments it makes redundant. A snapshot still waiting
+    // for the sync thread is replaced by a newer one.
+    public synchronized void writeSnapshot(SnapshotWriter writer) throws IOException {
+        ByteArrayOutputStream image = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(image)) {
+            writer.write(out);
+        }
+        pendingSnapshot = image.toByteArray();
+        pendingSequence = nextSequence - 1;
+        lastSnapshotSequence = pendingSequence;
+        LockSupport.unpark(syncThread);
+    }
+    
+    // The snapshot and the directory entries are forced to disk before
+    // anything is deleted, so a crash at any point leaves either the old
+    // segments or a complete snapshot
+    private void saveSnapshot(long sequence, byte[] image) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SUFFIX));
+        Path temp = directory.resolve(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(image);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+        
+        // Every record of a segment comes before the first record of the
+        // next one, so a segment is covered once the next one starts at most
+        // one past the snapshot. The newest segment is never covered.
+        List<Path> segments = list(SEGMENT_PREFIX);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (sequenceOf(segments.get(i + 1), SEGMENT_PREFIX) <= sequence + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+        for (Path old : list(SNAPSHOT_PREFIX)) {
+            if (sequenceOf(old, SNAPSHOT_PREFIX) < sequence) {
+                Files.deleteIfExists(old);
+            }
+        }
+    }
+    
+    // Maps the file for the next segment and touches every page, so the
+    // appends that fill it take neither the file creation nor the page faults
+    private void prepareStandby() throws IOException {
+        synchronized (this) {
+            if (standby != null) {
+                return;
+            }
+        }
+        FileChannel file = FileChannel.open(directory.resolve(STANDBY), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapped = file.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        for (int i = 0; i < segmentSize; i += PAGE_SIZE) {
+            mapped.put(i, (byte) 0);
+        }
+        mapped.position(0);
+        writeHeader(mapped);
+        synchronized (this) {
+            standbyChannel = file;
+            standby = mapped;
+        }
+    }
+    
+    // Forces the directory's entries, i.e. renames and new files, to disk.
+    // Some platforms, Windows among them, cannot open a directory for this;
+    // there a rename is as durable as the platform makes it.
+    private void syncDirectory() throws IOException {
+        FileChannel entries;
+        try {
+            entries = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (entries) {
+            entries.force(true);
+        }
+    }
+    
+    // Loads the newest snapshot, then replays the records written after it.
+    // Returns the number of records replayed.
+    // Throws JournalFormatException for a segment of another format.
+    public synchronized long replay(Replayer replayer) throws IOException {
+        List<Path> snapshots = list(SNAPSHOT_PREFIX);
+        long fromSequence = 0;
+        if (!snapshots.isEmpty()) {
+            Path snapshot = snapshots.get(snapshots.size() - 1);
+            fromSequence = sequenceOf(snapshot, SNAPSHOT_PREFIX);
+            try (InputStream is = Files.newInputStream(snapshot);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+                replayer.onSnapshot(fromSequence, in);
+            }
+        }
+        
+        long count = 0;
+        for (Path file : list(SEGMENT_PREFIX)) {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                if (isBlank(buffer)) {
+                    continue;
+                }
+                if (!isCurrentFormat(buffer)) {
+                    throw new JournalFormatException("Journal segment " + file.getFileName()
+                            + " has an unsupported format");
+                }
+                int position = SEGMENT_HEADER_SIZE;
+                int length;
+                while ((length = validLength(buffer, position)) > 0) {
+                    long sequence = buffer.getLong(position + 9);
+                    if (sequence > fromSequence) {
+                        dispatch(buffer, position, replayer);
+                        count++;
+                    }
+                    position += length;
+                }
+            }
+        }
+        return count;
+    }
+    
+    private static void dispatch(ByteBuffer buffer, int position, Replayer replayer) {
+        byte type = buffer.get(position + 8);
+        int p = position + HEADER_SIZE;
+        switch (type) {
+            case ORDER: {
+                byte flags = buffer.get(p + 12);
+                replayer.onOrder(buffer.getLong(p), buffer.getInt(p + 8), (flags & 1) != 0, (flags & 2) != 0,
+                        buffer.getLong(p + 13), buffer.getLong(p + 21));
+                break;
+            }
+            case FILL:
+                replayer.onFill(buffer.getLong(p), buffer.getInt(p + 8), buffer.get(p + 12) != 0,
+                        buffer.getLong(p + 13), buffer.getLong(p + 21));
+                break;
+            case ORDER_CLOSED:
+                replayer.onOrderClosed(buffer.getLong(p), buffer.getInt(p + 8), buffer.getLong(p + 12));
+                break;
+            case BALANCE:
+                replayer.onBalance(buffer.getLong(p));
+                break;
+            default:
+                break;
+        }
+    }
+    
+    // Length of the record at position, or 0 if there is no intact record
+    private int validLength(ByteBuffer buffer, int position) {
+        if (position + HEADER_SIZE > buffer.limit()) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        if (length < HEADER_SIZE || position + length > buffer.limit()) {
+            return 0;
+        }
+        ByteBuffer body = buffer.duplicate();
+        body.position(position + 8).limit(position + length);
+        CRC32C check = new CRC32C();
+        check.update(body);
+        return (int) check.getValue() == buffer.getInt(position + 4) ? length : 0;
+    }
+    
+    private void syncLoop() {
+        while (running) {
+            LockSupport.parkNanos(syncNanos);
+            if (!running) {
+                break;
+            }
+            try {
+                sync();
+            } catch (IOException | UncheckedIOException e) {
+                failure = e instanceof UncheckedIOException ? ((UncheckedIOException) e).getCause() : (IOException) e;
+                return;
+            }
+        }
+    }
+    
+    // Forces everything appended so far to disk, then does the background
+    // work that is due: closing full segments, writing a requested snapshot
+    // and mapping the standby segment. Only the range written since the
+    // last sync is flushed, appends carry on meanwhile.
+    public void sync() throws IOException {
+        synchronized (syncLock) {
+            List<Retired> full;
+            MappedByteBuffer current;
+            int from;
+            int to;
+            boolean changed;
+            byte[] snapshot;
+            long snapshotSequence;
+            synchronized (this) {
+                full = retired.isEmpty() ? Collections.emptyList() : new ArrayList<>(retired);
+                retired.clear();
+                current = segment;
+                from = syncedTo;
+                to = segment.position();
+                syncedTo = to;
+                unsynced = 0;
+                changed = directoryChanged;
+                directoryChanged = false;
+                snapshot = pendingSnapshot;
+                snapshotSequence = pendingSequence;
+                pendingSnapshot = null;
+            }
+            for (Retired old : full) {
+                if (old.to > old.from) {
+                    old.segment.force(old.from, old.to - old.from);
+                }
+                old.channel.close();
+            }
+            if (to > from) {
+                current.force(from, to - from);
+            }
+            // The records of a new segment only count once its name is on disk
+            if (changed) {
+                syncDirectory();
+            }
+            if (snapshot != null) {
+                saveSnapshot(snapshotSequence, snapshot);
+            }
+            if (running) {
+                prepareStandby();
+            }
+        }
+    }
+    
+    public synchronized long getLastSequence() {
+        return nextSequence - 1;
+    }
+    
+    private List<Path> list(String prefix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        // Names carry zero-padded sequence numbers, so they sort in order
+        Collections.sort(files);
+        return files;
+    }
+    
+    private static long sequenceOf(Path file, String prefix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length()));
+    }
+    
+    // Stops the sync thread, then syncs once more so a requested snapshot and
+    // the last records are on disk
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(syncThread);
+        try {
+            syncThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+        synchronized (this) {
+            channel.close();
+            if (standbyChannel != null) {
+                standbyChannel.close();
+                standbyChannel = null;
+                standby = null;
+                Files.deleteIfExists(directory.resolve(STANDBY));
+            }
+        }
+    }
+    
+    // A full segment and the range of it that is not forced yet
+    private static final class Retired {
+        final FileChannel channel;
+        final MappedByteBuffer segment;
+        final int from;
+        final int to;
+        
+        Retired(FileChannel channel, MappedByteBuffer segment, int from, int to) {
+            this.channel = channel;
+            this.segment = segment;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
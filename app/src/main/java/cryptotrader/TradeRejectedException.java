@@ -0,0 +1,39 @@
+package cryptotrader;
+
+// Thrown when an account cannot cover an order, or one order of a basket
+public class TradeRejectedException extends Exception {
+    
+    public enum Reason {
+        INSUFFICIENT_FUNDS, INSUFFICIENT_HOLDINGS
+    }
+    
+    private final Reason reason;
+    private final long available;
+    private final int orderIndex;
+    
+    public TradeRejectedException(Reason reason, long available) {
+        this(reason, available, -1);
+    }
+    
+    public TradeRejectedException(Reason reason, long available, int orderIndex) {
+        super(reason + ", available " + available + (orderIndex >= 0 ? ", basket order " + orderIndex : ""));
+        this.reason = reason;
+        this.available = available;
+        this.orderIndex = orderIndex;
+    }
+    
+    public Reason getReason() {
+        return reason;
+    }
+    
+    // Cash (Money) or holdings (Quantity) the account had free for the order
+    public long getAvailable() {
+        return available;
+    }
+    
+    // Index in the basket of the first order the account could not cover
+    // together with those before it, -1 for a single order
+    public int getOrderIndex() {
+        return orderIndex;
+    }
+}
@@ -0,0 +1,454 @@
+package cryptotrader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Headless trading logic for any number of accounts, independent of Swing.
+// Orders are checked against and reserved from the account, then matched by
+// the MatchingEngine the core owns; fills and closes come back on the engine
+// thread and are booked to the account that owns the order.
+//
+// Accounts are guarded by striped locks: every operation on an account holds
+// its stripe, so orders and fills on different accounts proceed in parallel
+// while one account's cash and positions can never be updated concurrently.
+// Prices are shared by all accounts; an account is marked to the latest
+// prices when it is read, not on every tick, and then only for the symbols
+// that ticked since it was last marked.
+//
+// Cash and prices are Money, amounts Quantity: fills arrive from the engine
+// in the same fixed-point units and are booked without conversion, so
+// balances are exact.
+public class TradingCore implements OrderEventListener, AutoCloseable {
+    
+    // Callbacks for booked events. They run while the account's lock is held,
+    // so they see a consistent account and must not block or touch other
+    // accounts. Placement is reported on the placing thread, fills and closes
+    // on the engine thread.
+    public interface TradeListener {
+        default void onOrderPlaced(Account account, OrderRecord order) {
+        }
+        
+        void onOrderFilled(Account account, OrderRecord order, long price, long quantity);
+        
+        void onOrderClosed(Account account, OrderRecord order, long unfilled);
+    }
+    
+    private static final TradeListener NO_LISTENER = new TradeListener() {
+        @Override
+        public void onOrderFilled(Account account, OrderRecord order, long price, long quantity) {
+        }
+        
+        @Override
+        public void onOrderClosed(Account account, OrderRecord order, long unfilled) {
+        }
+    };
+    
+    private final int symbolCount;
+    private final PnlEngine.CostBasis costBasis;
+    private final MatchingEngine engine;
+    private final ReentrantLock[] stripes;
+    private final int stripeMask;
+    private final AtomicLongArray prices;
+    // The symbols that ticked, in tick order, as sequence << SYMBOL_BITS |
+    // symbolId in a ring. Accounts remember how far into it they are marked.
+    private static final int SYMBOL_BITS = 20;
+    private static final int CHANGE_LOG_SIZE = 1 << 12;
+    private final AtomicLongArray changeLog = new AtomicLongArray(CHANGE_LOG_SIZE);
+    private final AtomicLong changeCount = new AtomicLong();
+    private final int[] quantityDecimals;
+    private final Object accountsLock = new Object();
+    // Indexed by account id, copied on growth; id 0 is the engine's house account
+    private volatile Account[] accounts = new Account[16];
+    private int nextAccountId = MatchingEngine.HOUSE_OWNER + 1;
+    private volatile TradeListener listener = NO_LISTENER;
+    
+    public TradingCore(int symbolCount, PnlEngine.CostBasis costBasis) {
+        this(symbolCount, costBasis, Runtime.getRuntime().availableProcessors() * 4);
+    }
+    
+    public TradingCore(int symbolCount, PnlEngine.CostBasis costBasis, int stripeCount) {
+        if (symbolCount > 1 << SYMBOL_BITS) {
+            throw new IllegalArgumentException("At most " + (1 << SYMBOL_BITS) + " symbols, not " + symbolCount);
+        }
+        this.symbolCount = symbolCount;
+        this.costBasis = costBasis;
+        int count = Integer.highestOneBit(Math.max(2, stripeCount - 1)) << 1;
+        stripes = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        stripeMask = count - 1;
+        prices = new AtomicLongArray(symbolCount);
+        // No entry is written yet; -1 reads as a sequence still to come
+        for (int i = 0; i < CHANGE_LOG_SIZE; i++) {
+            changeLog.set(i, -1);
+        }
+        quantityDecimals = new int[symbolCount];
+        Arrays.fill(quantityDecimals, Quantity.DECIMALS);
+        engine = new MatchingEngine(symbolCount, this);
+    }
+    
+    public MatchingEngine getEngine() {
+        return engine;
+    }
+    
+    public void setListener(TradeListener listener) {
+        this.listener = listener == null ? NO_LISTENER : listener;
+    }
+    
+    // Sets the precision orders in a symbol must respect. Call before trading.
+    public void setQuantityDecimals(int symbolId, int decimals) {
+        Quantity.lotSize(decimals);
+        quantityDecimals[symbolId] = decimals;
+    }
+    
+    public int getQuantityDecimals(int symbolId) {
+        return quantityDecimals[symbolId];
+    }
+    
+    public int openAccount(long cash) {
+        synchronized (accountsLock) {
+            int id = nextAccountId++;
+            Account[] current = accounts;
+            if (id >= current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[id] = new Account(id, cash, new PnlEngine(costBasis, symbolCount), symbolCount);
+            // Holds nothing yet, so earlier ticks do not matter
+            current[id].markedTo = changeCount.get();
+            accounts = current;
+            return id;
+        }
+    }
+    
+    public int getAccountCount() {
+        synchronized (accountsLock) {
+            return nextAccountId - MatchingEngine.HOUSE_OWNER - 1;
+        }
+    }
+    
+    // Latest Money price of a symbol, shared by all accounts. Safe from any thread.
+    public void onPrice(int symbolId, long price) {
+        prices.set(symbolId, price);
+        long sequence = changeCount.getAndIncrement();
+        changeLog.set((int) sequence & (CHANGE_LOG_SIZE - 1), sequence << SYMBOL_BITS | symbolId);
+    }
+    
+    public long getPrice(int symbolId) {
+        return prices.get(symbolId);
+    }
+    
+    // Runs reader against the account, marked to the latest prices, under its lock
+    public <T> T read(int accountId, Function<Account, T> reader) {
+        Account account = account(accountId);
+        ReentrantLock lock = stripeOf(accountId);
+        lock.lock();
+        try {
+            mark(account);
+            return reader.apply(account);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Runs updater against the account under its lock. The updater may
+    // replace the positions wholesale, so they are all marked afterwards.
+    public void update(int accountId, Consumer<Account> updater) {
+        Account account = account(accountId);
+        ReentrantLock lock = stripeOf(accountId);
+        lock.lock();
+        try {
+            mark(account);
+            updater.accept(account);
+            markAll(account, changeCount.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long getCash(int accountId) {
+        return read(accountId, Account::getCash);
+    }
+    
+    public long getPortfolioValue(int accountId) {
+        return read(accountId, account -> account.pnl.getTotalValue());
+    }
+    
+    // Checks the account can cover the order, reserves the cash or holdings
+    // and sends it to the engine. Limit orders rest until filled or
+    // cancelled, market orders fill what they can up to the price and close.
+    // The amount must be a whole number of the symbol's lots.
+    public OrderRecord placeOrder(int accountId, int symbolId, boolean buy, boolean limit, long price,
+            long amount) throws TradeRejectedException {
+        checkOrder(symbolId, price, amount);
+        Account account = account(accountId);
+        OrderRecord order = new OrderRecord(symbolId, buy, limit, price, amount);
+        ReentrantLock lock = stripeOf(accountId);
+        lock.lock();
+        try {
+            if (buy) {
+                long cost = Money.times(price, amount);
+                if (!account.canBuy(cost)) {
+                    throw new TradeRejectedException(TradeRejectedException.Reason.INSUFFICIENT_FUNDS,
+                            account.getAvailableCash());
+                }
+            } else if (!account.canSell(symbolId, amount)) {
+                throw new TradeRejectedException(TradeRejectedException.Reason.INSUFFICIENT_HOLDINGS,
+                        account.getAvailableQuantity(symbolId));
+            }
+            reserve(account, order);
+        } finally {
+            lock.unlock();
+        }
+        
+        // Outside the lock: a full ring waits for the engine thread, which
+        // may itself be waiting for this account to book a fill
+        submit(accountId, order);
+        return order;
+    }
+    
+    // Places a basket of orders all or nothing: the account must cover every
+    // order together, buys from cash alone since sells may not fill, or none
+    // is placed. The whole basket is checked and reserved under one hold of
+    // the account lock, so no other order can slip in between, and then
+    // submitted in order. Each order then fills or rests on its own.
+    public List<OrderRecord> placeBasket(int accountId, List<BasketOrder> basket) throws TradeRejectedException {
+        for (BasketOrder line : basket) {
+            checkOrder(line.symbolId, line.price, line.amount);
+        }
+        Account account = account(accountId);
+        List<OrderRecord> orders = new ArrayList<>(basket.size());
+        ReentrantLock lock = stripeOf(accountId);
+        lock.lock();
+        try {
+            long cost = 0;
+            long[] sold = new long[symbolCount];
+            for (int i = 0; i < basket.size(); i++) {
+                BasketOrder line = basket.get(i);
+                if (line.buy) {
+                    cost += Money.times(line.price, line.amount);
+                    if (!account.canBuy(cost)) {
+                        throw new TradeRejectedException(TradeRejectedException.Reason.INSUFFICIENT_FUNDS,
+                                account.getAvailableCash(), i);
+                    }
+                } else {
+                    sold[line.symbolId] += line.amount;
+                    if (!account.canSell(line.symbolId, sold[line.symbolId])) {
+                        throw new TradeRejectedException(TradeRejectedException.Reason.INSUFFICIENT_HOLDINGS,
+                                account.getAvailableQuantity(line.symbolId), i);
+                    }
+                }
+            }
+            for (BasketOrder line : basket) {
+                OrderRecord order = new OrderRecord(line.symbolId, line.buy, line.limit, line.price, line.amount);
+                reserve(account, order);
+                orders.add(order);
+            }
+        } finally {
+            lock.unlock();
+        }
+        
+        for (OrderRecord order : orders) {
+            submit(accountId, order);
+        }
+        return orders;
+    }
+    
+    private void checkOrder(int symbolId, long price, long amount) {
+        if (amount <= 0 || price <= 0) {
+            throw new IllegalArgumentException("Amount and price must be positive");
+        }
+        if (symbolId < 0 || symbolId >= symbolCount) {
+            throw new IllegalArgumentException("Unknown symbol " + symbolId);
+        }
+        if (!Quantity.isMultipleOfLot(amount, quantityDecimals[symbolId])) {
+            throw new IllegalArgumentException("Amount finer than " + quantityDecimals[symbolId] + " decimals");
+        }
+    }
+    
+    // Reserves cash or holdings for a checked order and registers it, under
+    // the account lock and before submission, so the engine thread always
+    // finds it
+    private void reserve(Account account, OrderRecord order) {
+        if (order.buy) {
+            long cost = Money.times(order.price, order.amount);
+            account.reservedCash += cost;
+            order.reserved = cost;
+        } else {
+            account.reserveHoldings(order.symbolId, order.amount);
+            order.reserved = order.amount;
+        }
+        order.orderId = engine.nextOrderId();
+        account.orders.put(order.orderId, order);
+        listener.onOrderPlaced(account, order);
+    }
+    
+    private void submit(int accountId, OrderRecord order) {
+        if (order.limit) {
+            engine.submitLimit(order.orderId, accountId, order.symbolId, order.buy, order.price, order.amount);
+        } else {
+            engine.submitImmediate(order.orderId, accountId, order.symbolId, order.buy, order.price, order.amount);
+        }
+    }
+    
+    // Asks the engine to cancel an open order. The order is closed, and its
+    // reservation released, when the engine confirms.
+    public boolean cancelOrder(int accountId, long orderId) {
+        OrderRecord order = read(accountId, account -> account.orders.get(orderId));
+        if (order == null) {
+            return false;
+        }
+        engine.cancel(order.symbolId, orderId);
+        return true;
+    }
+    
+    @Override
+    public void onTrade(int symbolId, long takerOrderId, int takerOwner, long makerOrderId, int makerOwner,
+            boolean takerBuys, long price, long quantity) {
+        if (takerOwner != MatchingEngine.HOUSE_OWNER) {
+            bookFill(takerOwner, takerOrderId, price, quantity);
+        }
+        if (makerOwner != MatchingEngine.HOUSE_OWNER) {
+            bookFill(makerOwner, makerOrderId, price, quantity);
+        }
+    }
+    
+    @Override
+    public void onOrderClosed(int symbolId, long orderId, int owner, long unfilled) {
+        if (owner == MatchingEngine.HOUSE_OWNER) {
+            return;
+        }
+        Account account = accountOrNull(owner);
+        if (account == null) {
+            return;
+        }
+        ReentrantLock lock = stripeOf(owner);
+        lock.lock();
+        try {
+            OrderRecord order = account.orders.remove(orderId);
+            if (order == null) {
+                return;
+            }
+            // Release what is still reserved for the unfilled part
+            if (order.buy) {
+                account.reservedCash -= order.reserved;
+            } else {
+                account.reservedHoldings[order.symbolId] -= order.reserved;
+            }
+            order.reserved = 0;
+            listener.onOrderClosed(account, order, unfilled);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void bookFill(int accountId, long orderId, long price, long quantity) {
+        Account account = accountOrNull(accountId);
+        if (account == null) {
+            return;
+        }
+        ReentrantLock lock = stripeOf(accountId);
+        lock.lock();
+        try {
+            OrderRecord order = account.orders.get(orderId);
+            if (order == null) {
+                return;
+            }
+            order.addFill(price, quantity);
+            int symbolId = order.symbolId;
+            PnlEngine pnl = account.pnl;
+            markSymbol(account, symbolId);
+            // The reservation was made at the order price, the fill may be better
+            long released;
+            if (order.buy) {
+                account.cash -= Money.times(price, quantity);
+                released = Math.min(order.reserved, Money.times(order.price, quantity));
+                account.reservedCash -= released;
+                pnl.onBuy(symbolId, quantity, price);
+            } else {
+                account.cash += Money.times(price, quantity);
+                released = quantity;
+                account.reservedHoldings[symbolId] -= released;
+                pnl.onSell(symbolId, quantity, price);
+            }
+            order.reserved -= released;
+            listener.onOrderFilled(account, order, price, quantity);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Brings the symbols that ticked since the account was last marked up
+    // to their latest prices, O(ticks since). An account that fell a whole
+    // ring behind is marked in full instead.
+    private void mark(Account account) {
+        long end = changeCount.get();
+        long next = account.markedTo;
+        if (end - next > CHANGE_LOG_SIZE) {
+            markAll(account, end);
+            return;
+        }
+        for (; next < end; next++) {
+            long entry = changeLog.get((int) next & (CHANGE_LOG_SIZE - 1));
+            // How far the entry's sequence is ahead of next, sign-extended
+            // from the bits the entry keeps of it
+            long ahead = ((entry >>> SYMBOL_BITS) - next) << SYMBOL_BITS >> SYMBOL_BITS;
+            if (ahead < 0) {
+                // Claimed but not written yet; the next read picks it up
+                break;
+            }
+            if (ahead > 0) {
+                // Overwritten by a later tick before the account read it
+                markAll(account, end);
+                return;
+            }
+            markSymbol(account, (int) entry & ((1 << SYMBOL_BITS) - 1));
+        }
+        account.markedTo = next;
+    }
+    
+    // Brings the held symbols up to the latest prices, O(held symbols). Every
+    // tick before end has set its price, so the account is marked up to end.
+    private void markAll(Account account, long end) {
+        PositionStore positions = account.pnl.getPositions();
+        for (int i = 0; i < positions.size(); i++) {
+            markSymbol(account, positions.symbolAt(i));
+        }
+        account.markedTo = end;
+    }
+    
+    private void markSymbol(Account account, int symbolId) {
+        long price = getPrice(symbolId);
+        if (price > 0) {
+            account.pnl.onPrice(symbolId, price);
+        }
+    }
+    
+    private Account account(int accountId) {
+        Account account = accountOrNull(accountId);
+        if (account == null) {
+            throw new IllegalArgumentException("Unknown account " + accountId);
+        }
+        return account;
+    }
+    
+    private Account accountOrNull(int accountId) {
+        Account[] current = accounts;
+        return accountId > MatchingEngine.HOUSE_OWNER && accountId < current.length ? current[accountId] : null;
+    }
+    
+    private ReentrantLock stripeOf(int accountId) {
+        return stripes[accountId & stripeMask];
+    }
+    
+    @Override
+    public void close() {
+        engine.close();
+    }
+}
@@ -0,0 +1,61 @@
+package cryptotrader;
+
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Drives all live UI updates from one EDT timer. Each frame runs the
+// registered tasks in order: typically draining the conflated market data,
+// marking dirty cells and then flushing them as one batch of table events.
+// The timer coalesces, so a busy EDT skips frames instead of queueing them.
+public class UiUpdatePipeline {
+    public static final int DEFAULT_FRAME_RATE = 30;
+    
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final Timer timer;
+    private long frameCount;
+    
+    public UiUpdatePipeline(int framesPerSecond) {
+        timer = new Timer(delayFor(framesPerSecond), e -> runFrame());
+        timer.setCoalesce(true);
+        timer.setRepeats(true);
+    }
+    
+    public void addTask(Runnable task) {
+        tasks.add(task);
+    }
+    
+    public void setFrameRate(int framesPerSecond) {
+        timer.setDelay(delayFor(framesPerSecond));
+    }
+    
+    public int getFrameRate() {
+        return 1000 / timer.getDelay();
+    }
+    
+    public long getFrameCount() {
+        return frameCount;
+    }
+    
+    public void start() {
+        timer.start();
+    }
+    
+    public void stop() {
+        timer.stop();
+    }
+    
+    private void runFrame() {
+        frameCount++;
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).run();
+        }
+    }
+    
+    private static int delayFor(int framesPerSecond) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("framesPerSecond must be positive");
+        }
+        return Math.max(1, 1000 / framesPerSecond);
+    }
+}
@@ -0,0 +1,133 @@
+package cryptotrader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// The prices and portfolio the UI last showed, saved on exit so the next
+// start can paint the market table and header straight from a small file
+// while the trade journal is replayed in the background. It is only a
+// display cache: the journal stays the record of the account.
+public class WarmStartSnapshot {
+    private static final Logger LOG = Logger.getLogger(WarmStartSnapshot.class.getName());
+    private static final int MAGIC = 0x5741524D; // "WARM"
+    private static final int VERSION = 1;
+    
+    final double[] prices;
+    final double[] changes;
+    // Money
+    final long cash;
+    // Held symbols with their Quantity and Money average cost
+    final int[] symbolIds;
+    final long[] quantities;
+    final long[] averageCosts;
+    
+    public WarmStartSnapshot(double[] prices, double[] changes, long cash, int[] symbolIds, long[] quantities,
+            long[] averageCosts) {
+        this.prices = prices;
+        this.changes = changes;
+        this.cash = cash;
+        this.symbolIds = symbolIds;
+        this.quantities = quantities;
+        this.averageCosts = averageCosts;
+    }
+    
+    // Takes the prices and holdings of an account, under its lock
+    public static WarmStartSnapshot of(double[] prices, double[] changes, Account account) {
+        PnlEngine pnl = account.getPnl();
+        PositionStore positions = pnl.getPositions();
+        int held = positions.size();
+        int[] symbolIds = new int[held];
+        long[] quantities = new long[held];
+        long[] averageCosts = new long[held];
+        for (int i = 0; i < held; i++) {
+            int symbolId = positions.symbolAt(i);
+            symbolIds[i] = symbolId;
+            quantities[i] = positions.get(symbolId);
+            averageCosts[i] = pnl.getAverageCost(symbolId);
+        }
+        return new WarmStartSnapshot(prices.clone(), changes.clone(), account.getCash(), symbolIds, quantities,
+                averageCosts);
+    }
+    
+    // Returns null when there is no snapshot, or it was written for a
+    // different instrument list or cannot be read
+    public static WarmStartSnapshot read(Path file, String[] names) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            int count = in.readInt();
+            if (count != names.length) {
+                return null;
+            }
+            for (String name : names) {
+                if (!name.equals(in.readUTF())) {
+                    return null;
+                }
+            }
+            double[] prices = new double[count];
+            double[] changes = new double[count];
+            for (int i = 0; i < count; i++) {
+                prices[i] = in.readDouble();
+                changes[i] = in.readDouble();
+            }
+            long cash = in.readLong();
+            int held = in.readInt();
+            if (held < 0 || held > count) {
+                return null;
+            }
+            int[] symbolIds = new int[held];
+            long[] quantities = new long[held];
+            long[] averageCosts = new long[held];
+            for (int i = 0; i < held; i++) {
+                symbolIds[i] = in.readInt();
+                quantities[i] = in.readLong();
+                averageCosts[i] = in.readLong();
+                if (symbolIds[i] < 0 || symbolIds[i] >= count) {
+                    return null;
+                }
+            }
+            return new WarmStartSnapshot(prices, changes, cash, symbolIds, quantities, averageCosts);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Cannot read the warm start snapshot " + file, e);
+            return null;
+        }
+    }
+    
+    // Replaces the file in one move, so a crash never leaves half a snapshot
+    public void write(Path file, String[] names) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(names.length);
+            for (String name : names) {
+                out.writeUTF(name);
+            }
+            for (int i = 0; i < names.length; i++) {
+                out.writeDouble(prices[i]);
+                out.writeDouble(changes[i]);
+            }
+            out.writeLong(cash);
+            out.writeInt(symbolIds.length);
+            for (int i = 0; i < symbolIds.length; i++) {
+                out.writeInt(symbolIds[i]);
+                out.writeLong(quantities[i]);
+                out.writeLong(averageCosts[i]);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,107 @@
+package cryptotrader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BasketOrderTest {
+    private static final int[] DECIMALS = {8, 4};
+    private static final long[] MARKET_PRICES = {Money.of(50_000), Money.of(2_000)};
+    
+    @TempDir
+    Path directory;
+    
+    private InstrumentRegistry registry;
+    
+    @BeforeEach
+    void setUp() {
+        registry = new InstrumentRegistry();
+        registry.register("Bitcoin (BTC)");
+        registry.register("Ethereum (ETH)");
+    }
+    
+    @Test
+    void readsMarketAndLimitOrders() throws IOException {
+        List<BasketOrder> orders = read(
+                "symbol,side,amount,limitPrice",
+                "# rebalance",
+                "",
+                "BTC,BUY,0.05",
+                " eth , sell , 1.23456 , 2400 ");
+        
+        assertEquals(2, orders.size());
+        BasketOrder market = orders.get(0);
+        assertEquals(0, market.getSymbolId());
+        assertTrue(market.isBuy());
+        assertFalse(market.isLimit());
+        assertEquals(Quantity.of(0.05), market.getAmount());
+        // Protected 1% above the market
+        assertEquals(Money.of(50_500), market.getPrice());
+        
+        BasketOrder limit = orders.get(1);
+        assertEquals(1, limit.getSymbolId());
+        assertFalse(limit.isBuy());
+        assertTrue(limit.isLimit());
+        assertEquals(Quantity.of(1.2346), limit.getAmount());
+        assertEquals(Money.of(2400), limit.getPrice());
+    }
+    
+    @Test
+    void badLinesRejectTheFileTogether() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> read(
+                "BTC,BUY,0.05",
+                "DOGE,BUY,10",
+                "ETH,HOLD,1",
+                "ETH,BUY,abc",
+                "ETH,BUY,0.00001",
+                "ETH,SELL,1,-5",
+                "BTC,BUY"));
+        assertEquals(String.join("\n",
+                "line 2: unknown symbol DOGE",
+                "line 3: side must be BUY or SELL",
+                "line 4: invalid number",
+                "line 5: amount must be at least one lot",
+                "line 6: limit price must be positive",
+                "line 7: expected symbol,side,amount[,limitPrice]"), e.getMessage());
+    }
+    
+    @Test
+    void onlyTheFirstErrorsAreListed() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 13; i++) {
+            lines.add("BTC,BUY,-1");
+        }
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> read(lines.toArray(new String[0])));
+        String[] reported = e.getMessage().split("\n");
+        assertEquals(11, reported.length);
+        assertEquals("line 10: amount must be at least one lot", reported[9]);
+        assertEquals("(3 more)", reported[10]);
+    }
+    
+    @Test
+    void marketOrderWithoutAPriceIsAnError() {
+        long[] noPrices = {0, Money.of(2_000)};
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> BasketOrder.readCsv(write("BTC,SELL,1"), registry, DECIMALS, noPrices, 0.01));
+        assertEquals("line 1: no market price", e.getMessage());
+    }
+    
+    private List<BasketOrder> read(String... lines) throws IOException {
+        return BasketOrder.readCsv(write(lines), registry, DECIMALS, MARKET_PRICES, 0.01);
+    }
+    
+    private Path write(String... lines) throws IOException {
+        Path file = directory.resolve("basket.csv");
+        Files.write(file, List.of(lines));
+        return file;
+    }
+}
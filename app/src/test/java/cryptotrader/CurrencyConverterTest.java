@@ -0,0 +1,103 @@
+package cryptotrader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyConverterTest {
+    private static final double EPSILON = 1e-12;
+    
+    private CurrencyConverter converter;
+    private int usd;
+    private int eur;
+    private int btc;
+    private int eth;
+    private int eurUsd;
+    private int btcUsd;
+    private int ethUsd;
+    
+    @BeforeEach
+    void setUp() {
+        converter = new CurrencyConverter();
+        usd = converter.addCurrency("USD");
+        eur = converter.addCurrency("EUR");
+        btc = converter.addCurrency("BTC");
+        eth = converter.addCurrency("ETH");
+        eurUsd = converter.addPair(eur, usd, 1.08);
+        btcUsd = converter.addPair(btc, usd, 50_000);
+        ethUsd = converter.addPair(eth, usd, 2_500);
+    }
+    
+    @Test
+    void directPairsConvertBothWays() {
+        assertEquals(50_000, converter.rate(btc, usd), EPSILON);
+        assertEquals(1 / 50_000.0, converter.rate(usd, btc), EPSILON);
+        assertEquals(1, converter.rate(eur, eur), EPSILON);
+        assertEquals(216, converter.convert(200, eur, usd), EPSILON);
+    }
+    
+    @Test
+    void unquotedPairsAreTriangulatedThroughUsd() {
+        assertEquals(1.08 / 50_000, converter.rate(eur, btc), EPSILON);
+        assertEquals(50_000 / 1.08, converter.rate(btc, eur), 1e-9);
+        assertEquals(20, converter.rate(btc, eth), EPSILON);
+    }
+    
+    @Test
+    void currenciesTheGraphDoesNotConnectHaveNoRate() {
+        int jpy = converter.addCurrency("JPY");
+        int chf = converter.addCurrency("CHF");
+        converter.addPair(chf, jpy, 170);
+        assertTrue(Double.isNaN(converter.rate(usd, jpy)));
+        assertTrue(Double.isNaN(converter.rate(chf, btc)));
+        assertEquals(170, converter.rate(chf, jpy), EPSILON);
+    }
+    
+    @Test
+    void setRateDropsOnlyTheRatesRoutedThroughThePair() {
+        converter.rate(eur, btc);
+        converter.rate(btc, usd);
+        converter.rate(eth, usd);
+        converter.rate(usd, eur);
+        converter.rate(eth, eur);
+        
+        converter.setRate(btcUsd, 60_000);
+        assertFalse(converter.isCached(eur, btc));
+        assertFalse(converter.isCached(btc, usd));
+        assertTrue(converter.isCached(eth, usd));
+        assertTrue(converter.isCached(usd, eur));
+        assertTrue(converter.isCached(eth, eur));
+        
+        assertEquals(1.08 / 60_000, converter.rate(eur, btc), EPSILON);
+        assertEquals(60_000, converter.rate(btc, usd), EPSILON);
+        assertTrue(converter.isCached(eur, btc));
+        assertEquals(2_500 / 1.08, converter.rate(eth, eur), 1e-9);
+    }
+    
+    @Test
+    void unchangedRateKeepsTheCache() {
+        converter.rate(eth, btc);
+        converter.setRate(ethUsd, 2_500);
+        assertTrue(converter.isCached(eth, btc));
+    }
+    
+    @Test
+    void addingAPairReroutes() {
+        assertEquals(1.08 / 50_000, converter.rate(eur, btc), EPSILON);
+        // A direct pair is one hop, so it wins over the route through USD
+        int eurBtc = converter.addPair(eur, btc, 0.00002);
+        assertEquals(0.00002, converter.rate(eur, btc), EPSILON);
+        converter.setRate(eurUsd, 1.1);
+        assertTrue(converter.isCached(eur, btc));
+        converter.setRate(eurBtc, 0.00003);
+        assertEquals(0.00003, converter.rate(eur, btc), EPSILON);
+    }
+    
+    @Test
+    void rejectsUnknownCurrenciesAndPairs() {
+        assertThrows(IllegalArgumentException.class, () -> converter.rate(usd, 9));
+        assertThrows(IllegalArgumentException.class, () -> converter.setRate(9, 1));
+        assertThrows(IllegalArgumentException.class, () -> converter.addPair(usd, usd, 1));
+    }
+}
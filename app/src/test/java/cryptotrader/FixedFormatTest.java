@@ -0,0 +1,90 @@
+package cryptotrader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The patterns are the quote currency formats of the app and the
+// leaderboard's. The sign goes after a prefix, so "$+1.00" and "$-1.00" line up.
+class FixedFormatTest {
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "$#,##0.00           | 0                 | 8 | $0.00",
+        "$#,##0.00           | 123456789012      | 8 | $1,234.57",
+        "$#,##0.00           | -123456789012     | 8 | $-1,234.57",
+        "$#,##0.00           | 100000000000000   | 8 | $1,000,000.00",
+        "$#,##0.00           | 99999999          | 8 | $1.00",
+        // Half a cent rounds away from zero, less than half rounds down
+        "$#,##0.00           | 500000            | 8 | $0.01",
+        "$#,##0.00           | 499999            | 8 | $0.00",
+        "$#,##0.00           | -500000           | 8 | $-0.01",
+        // A value that rounds to zero has no sign
+        "$#,##0.00           | -499999           | 8 | $0.00",
+        "€#,##0.00           | 98765432100000000 | 8 | €987,654,321.00",
+        "€#,##0.00           | -5                | 0 | €-5.00",
+        "#,##0.00000000 BTC  | 123456789         | 8 | 1.23456789 BTC",
+        "#,##0.00000000 BTC  | 123456789012345   | 8 | 1,234,567.89012345 BTC",
+        "#,##0.00000000 BTC  | 15                | 1 | 1.50000000 BTC",
+        "#,##0.00000000 ETH  | -1                | 8 | -0.00000001 ETH",
+        "#,##0.00000000 ETH  | 1000000000        | 0 | 1,000,000,000.00000000 ETH",
+        "$+#,##0.00          | 0                 | 8 | $+0.00",
+        "$+#,##0.00          | 123456789012      | 8 | $+1,234.57",
+        "$+#,##0.00          | -123456789012     | 8 | $-1,234.57",
+        "$+#,##0.00          | -400000           | 8 | $+0.00",
+        "€+#,##0.00          | 100000000000      | 8 | €+1,000.00",
+        "+#,##0.00000000 BTC | 5                 | 8 | +0.00000005 BTC",
+        "+#,##0.00000000 ETH | -250000000        | 8 | -2.50000000 ETH"
+    })
+    void formatsFixedPointValues(String pattern, long value, int scale, String expected) {
+        assertEquals(expected, new FixedFormat(pattern.trim()).format(value, scale));
+    }
+    
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "#,##0     | 999        | 999",
+        "#,##0     | 1000       | 1,000",
+        "#,##0     | 999999     | 999,999",
+        "#,##0     | 1234567    | 1,234,567",
+        "#,##0     | -1234567   | -1,234,567",
+        "0         | 1234567    | 1234567",
+        "0.00##    | 1.5        | 1.50",
+        "0.00##    | 1.2345     | 1.2345",
+        "0.00##    | 1.23456    | 1.2346",
+        "0.00##    | 2          | 2.00",
+        "+#,##0.00%| 12.345     | +12.35%",
+        "+#,##0.00%| -0.5       | -0.50%",
+        "$#,##0.00 | 1234.567   | $1,234.57",
+        "$#,##0.00 | -0.001     | $0.00"
+    })
+    void formatsDoubles(String pattern, double value, String expected) {
+        assertEquals(expected, new FixedFormat(pattern.trim()).format(value));
+    }
+    
+    @Test
+    void formatsNonFiniteDoubles() {
+        FixedFormat format = new FixedFormat("$#,##0.00");
+        assertEquals("NaN", format.format(Double.NaN));
+        assertEquals("∞", format.format(Double.POSITIVE_INFINITY));
+        assertEquals("-∞", format.format(Double.NEGATIVE_INFINITY));
+    }
+    
+    @Test
+    void writeReusesTheBuffer() {
+        FixedFormat format = new FixedFormat("#,##0.00000000 BTC");
+        char[] buffer = format.getBuffer();
+        int length = format.write(Long.MAX_VALUE, 8);
+        assertEquals("92,233,720,368.54775807 BTC", new String(buffer, 0, length));
+        length = format.write(1, 8);
+        assertSame(buffer, format.getBuffer());
+        assertEquals("0.00000001 BTC", new String(buffer, 0, length));
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"", "$", "#,##", "0.#0", "0.0000000000000000000"})
+    void rejectsUnsupportedPatterns(String pattern) {
+        assertThrows(IllegalArgumentException.class, () -> new FixedFormat(pattern));
+    }
+}
@@ -0,0 +1,199 @@
+package cryptotrader;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The engine is not started: commands are applied on the test thread with
+// processCommands, so every step is deterministic
+class MatchingEngineTest {
+    private static final long CASH = Money.of(10_000);
+    
+    private TradingCore core;
+    private MatchingEngine engine;
+    private int account;
+    
+    @BeforeEach
+    void setUp() {
+        core = new TradingCore(2, PnlEngine.CostBasis.FIFO);
+        engine = core.getEngine();
+        account = core.openAccount(CASH);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        core.close();
+    }
+    
+    @Test
+    void marketBuyFillsAtTheHouseQuote() throws TradeRejectedException {
+        quote(0, 100);
+        
+        OrderRecord order = core.placeOrder(account, 0, true, false, Money.of(101), Quantity.of(2));
+        engine.processCommands(Integer.MAX_VALUE);
+        
+        assertEquals(Quantity.of(2), order.getFilled());
+        assertEquals(Money.of(100), order.getAverageFillPrice());
+        assertEquals(CASH - Money.of(200), core.getCash(account));
+        assertEquals(Quantity.of(2), holdings(account, 0));
+        assertEquals(0, openOrders());
+        assertEquals(core.getCash(account), availableCash(account));
+    }
+    
+    @Test
+    void restingBuyFillsWhenTheRequoteTradesThroughIt() throws TradeRejectedException {
+        quote(0, 100);
+        core.placeOrder(account, 0, true, true, Money.of(95), Quantity.of(1));
+        engine.processCommands(Integer.MAX_VALUE);
+        assertEquals(1, openOrders());
+        assertEquals(CASH - Money.of(95), availableCash(account));
+        
+        quote(0, 94);
+        
+        // The new house ask crosses the resting bid, which trades at its own price
+        assertEquals(0, openOrders());
+        assertEquals(CASH - Money.of(95), core.getCash(account));
+        assertEquals(Quantity.of(1), holdings(account, 0));
+    }
+    
+    @Test
+    void restingSellFillsWhenTheRequoteTradesThroughIt() throws TradeRejectedException {
+        quote(1, 100);
+        core.placeOrder(account, 1, true, false, Money.of(100), Quantity.of(3));
+        engine.processCommands(Integer.MAX_VALUE);
+        core.placeOrder(account, 1, false, true, Money.of(110), Quantity.of(3));
+        engine.processCommands(Integer.MAX_VALUE);
+        assertEquals(0, availableHoldings(account, 1));
+        
+        quote(1, 105);
+        assertEquals(1, openOrders());
+        quote(1, 111);
+        
+        assertEquals(0, openOrders());
+        assertEquals(CASH + Money.of(30), core.getCash(account));
+        assertEquals(0, holdings(account, 1));
+    }
+    
+    @Test
+    void partialFillKeepsTheRestReserved() throws TradeRejectedException {
+        // Symbol 1 has no house quotes: another account's ask is the only liquidity
+        int seller = core.openAccount(0);
+        core.update(seller, a -> a.getPnl().onBuy(1, Quantity.of(2), Money.of(80)));
+        core.placeOrder(seller, 1, false, true, Money.of(100), Quantity.of(2));
+        engine.processCommands(Integer.MAX_VALUE);
+        
+        OrderRecord order = core.placeOrder(account, 1, true, true, Money.of(101), Quantity.of(5));
+        engine.processCommands(Integer.MAX_VALUE);
+        
+        assertEquals(Quantity.of(2), order.getFilled());
+        assertEquals(Quantity.of(3), order.getRemaining());
+        assertEquals(CASH - Money.of(200), core.getCash(account));
+        assertEquals(CASH - Money.of(200) - Money.of(303), availableCash(account));
+        assertEquals(1, openOrders());
+        assertEquals(Money.of(200), core.getCash(seller));
+        assertEquals(0, holdings(seller, 1));
+        assertEquals(0, (int) core.read(seller, Account::getOpenOrderCount));
+    }
+    
+    @Test
+    void cancelReleasesTheReservation() throws TradeRejectedException {
+        quote(0, 100);
+        OrderRecord order = core.placeOrder(account, 0, true, true, Money.of(90), Quantity.of(5));
+        engine.processCommands(Integer.MAX_VALUE);
+        assertEquals(CASH - Money.of(450), availableCash(account));
+        
+        assertTrue(core.cancelOrder(account, order.getOrderId()));
+        engine.processCommands(Integer.MAX_VALUE);
+        
+        assertEquals(0, openOrders());
+        assertEquals(CASH, availableCash(account));
+        assertFalse(core.cancelOrder(account, order.getOrderId()));
+    }
+    
+    @Test
+    void orderTheAccountCannotCoverIsRejectedWithoutReserving() {
+        TradeRejectedException rejected = assertThrows(TradeRejectedException.class,
+                () -> core.placeOrder(account, 0, true, true, Money.of(100), Quantity.of(101)));
+        assertEquals(TradeRejectedException.Reason.INSUFFICIENT_FUNDS, rejected.getReason());
+        assertEquals(CASH, rejected.getAvailable());
+        
+        rejected = assertThrows(TradeRejectedException.class,
+                () -> core.placeOrder(account, 0, false, true, Money.of(100), Quantity.of(1)));
+        assertEquals(TradeRejectedException.Reason.INSUFFICIENT_HOLDINGS, rejected.getReason());
+        
+        assertEquals(0, openOrders());
+        assertEquals(0, engine.processCommands(Integer.MAX_VALUE));
+    }
+    
+    @Test
+    void fullRingMakesProducersWaitUntilTheEngineCatchesUp() throws InterruptedException {
+        List<Long> resting = new ArrayList<>();
+        MatchingEngine small = new MatchingEngine(1, new OrderEventListener() {
+            @Override
+            public void onTrade(int symbolId, long takerOrderId, int takerOwner, long makerOrderId, int makerOwner,
+                    boolean takerBuys, long price, long quantity) {
+                fail("No order crosses");
+            }
+            
+            @Override
+            public void onOrderClosed(int symbolId, long orderId, int owner, long unfilled) {
+                fail("No order closes");
+            }
+        }, 4);
+        for (int i = 0; i < 4; i++) {
+            resting.add(small.submitLimit(1, 0, true, 100 + i, 1));
+        }
+        long[] lateId = new long[1];
+        Thread producer = new Thread(() -> lateId[0] = small.submitLimit(1, 0, true, 200, 1));
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive(), "the fifth command waits for a free slot");
+        
+        assertEquals(1, small.processCommands(1));
+        producer.join(5_000);
+        assertFalse(producer.isAlive());
+        assertEquals(4, small.processCommands(Integer.MAX_VALUE));
+        
+        OrderBook book = small.book(0);
+        assertEquals(5, book.getOpenOrderCount());
+        for (long orderId : resting) {
+            assertTrue(book.isOpen(orderId));
+        }
+        assertTrue(book.isOpen(lateId[0]));
+        assertEquals(200, book.getBestBid());
+    }
+    
+    @Test
+    void rejectsUnknownSymbolsAndEmptyOrders() {
+        assertThrows(IllegalArgumentException.class, () -> engine.submitLimit(1, 2, true, 100, 1));
+        assertThrows(IllegalArgumentException.class, () -> engine.submitLimit(1, 0, true, 100, 0));
+        assertEquals(0, engine.processCommands(Integer.MAX_VALUE));
+    }
+    
+    private void quote(int symbolId, double price) {
+        core.onPrice(symbolId, Money.of(price));
+        engine.quote(symbolId, price);
+        engine.processCommands(Integer.MAX_VALUE);
+    }
+    
+    private int openOrders() {
+        return core.read(account, Account::getOpenOrderCount);
+    }
+    
+    private long availableCash(int accountId) {
+        return core.read(accountId, Account::getAvailableCash);
+    }
+    
+    private long holdings(int accountId, int symbolId) {
+        return core.read(accountId, a -> a.getPnl().getQuantity(symbolId));
+    }
+    
+    private long availableHoldings(int accountId, int symbolId) {
+        return core.read(accountId, a -> a.getAvailableQuantity(symbolId));
+    }
+}
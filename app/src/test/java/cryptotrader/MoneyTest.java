@@ -0,0 +1,85 @@
+package cryptotrader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+    @ParameterizedTest
+    @CsvSource({
+        "0, 0",
+        "1, 100000000",
+        "0.00000001, 1",
+        "-0.00000001, -1",
+        "1.23456789, 123456789",
+        "-2.5, -250000000",
+        "0.000000004, 0",
+        "0.000000006, 1",
+        "-0.000000006, -1",
+        "90000000000, 9000000000000000000"
+    })
+    void ofRoundsToEightDecimals(double amount, long expected) {
+        assertEquals(expected, Money.of(amount));
+    }
+    
+    // Rows are price and quantity as raw longs; the expected value is the
+    // exact product rounded half up at 8 decimals
+    @ParameterizedTest
+    @CsvSource({
+        "10000000000, 200000000",
+        "10000000000, 250000000",
+        // Either factor alone is small, their raw product is not
+        "9000000000000, 100000000000",
+        "9223372036, 99999999999",
+        "123456789, 123456789",
+        "99999999, 99999999",
+        // Half a unit of the last decimal rounds up, less rounds down
+        "1, 50000000",
+        "1, 49999999",
+        "3, 50000000",
+        "0, 123456789",
+        "123456789, 0",
+        // Negatives: the fraction still rounds half up, towards positive
+        "-150000000, 100000000",
+        "150000000, -33333333",
+        "-150000000, -33333333",
+        "-1, 50000000",
+        "-1, 50000001",
+        "1, -50000000",
+        "-9000000000000, 100000000000",
+        "-123456789, -987654321"
+    })
+    void timesMatchesTheExactProduct(long price, long quantity) {
+        assertEquals(reference(price, quantity), Money.times(price, quantity));
+    }
+    
+    @Test
+    void timesMatchesTheExactProductForRandomFactors() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // Up to 100,000 per unit and 10,000 units, either sign
+            long price = random.nextLong() % 10_000_000_000_000L;
+            long quantity = random.nextLong() % 1_000_000_000_000L;
+            assertEquals(reference(price, quantity), Money.times(price, quantity), price + " x " + quantity);
+        }
+    }
+    
+    @Test
+    void timesThrowsWhenTheValueDoesNotFit() {
+        assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, Quantity.of(3)));
+    }
+    
+    // floor(price * quantity / 10^8 + 1/2)
+    private static long reference(long price, long quantity) {
+        return BigDecimal.valueOf(price).multiply(BigDecimal.valueOf(quantity))
+                .add(BigDecimal.valueOf(Quantity.SCALE / 2))
+                .divide(BigDecimal.valueOf(Quantity.SCALE), 0, RoundingMode.FLOOR)
+                .longValueExact();
+    }
+}
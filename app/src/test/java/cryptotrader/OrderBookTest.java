@@ -0,0 +1,168 @@
+package cryptotrader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookTest {
+    private final List<String> events = new ArrayList<>();
+    private OrderBook book;
+    
+    @BeforeEach
+    void setUp() {
+        book = new OrderBook(7, new OrderEventListener() {
+            @Override
+            public void onTrade(int symbolId, long takerOrderId, int takerOwner, long makerOrderId, int makerOwner,
+                    boolean takerBuys, long price, long quantity) {
+                assertEquals(7, symbolId);
+                events.add("trade " + takerOrderId + " " + makerOrderId + " " + price + " " + quantity);
+            }
+            
+            @Override
+            public void onOrderClosed(int symbolId, long orderId, int owner, long unfilled) {
+                events.add("closed " + orderId + " " + unfilled);
+            }
+            
+            @Override
+            public void onCancelRejected(int symbolId, long orderId) {
+                events.add("rejected " + orderId);
+            }
+        }, 16);
+    }
+    
+    @Test
+    void matchesBestPriceFirstThenOldestOrder() {
+        book.submitLimit(1, 1, false, 101, 5);
+        book.submitLimit(2, 2, false, 100, 5);
+        book.submitLimit(3, 3, false, 100, 5);
+        book.submitLimit(4, 4, false, 99, 5);
+        events.clear();
+        
+        long filled = book.submitMarket(10, 9, true, 12);
+        
+        assertEquals(12, filled);
+        assertEquals(List.of(
+                "trade 10 4 99 5", "closed 4 0",
+                "trade 10 2 100 5", "closed 2 0",
+                "trade 10 3 100 2",
+                "closed 10 0"), events);
+        assertEquals(100, book.getBestAsk());
+        assertEquals(3, book.getAskQuantity(0));
+        assertTrue(book.isOpen(3));
+        assertTrue(book.isOpen(1));
+    }
+    
+    @Test
+    void sellsMatchTheHighestBid() {
+        book.submitLimit(1, 1, true, 98, 5);
+        book.submitLimit(2, 1, true, 99, 5);
+        events.clear();
+        
+        book.submitMarket(10, 9, false, 7);
+        
+        assertEquals(List.of("trade 10 2 99 5", "closed 2 0", "trade 10 1 98 2", "closed 10 0"), events);
+        assertEquals(98, book.getBestBid());
+        assertEquals(3, book.getBidQuantity(0));
+    }
+    
+    @Test
+    void partiallyFilledLimitOrderRestsTheRest() {
+        book.submitLimit(1, 1, false, 100, 4);
+        events.clear();
+        
+        long resting = book.submitLimit(10, 9, true, 101, 10);
+        
+        assertEquals(6, resting);
+        assertEquals(List.of("trade 10 1 100 4", "closed 1 0"), events);
+        assertEquals(101, book.getBestBid());
+        assertEquals(6, book.getBidQuantity(0));
+        assertEquals(Long.MAX_VALUE, book.getBestAsk());
+        assertTrue(book.isOpen(10));
+    }
+    
+    @Test
+    void limitOrderDoesNotTradeThroughItsPrice() {
+        book.submitLimit(1, 1, false, 102, 5);
+        events.clear();
+        
+        book.submitLimit(10, 9, true, 101, 5);
+        
+        assertTrue(events.isEmpty());
+        assertEquals(101, book.getBestBid());
+        assertEquals(102, book.getBestAsk());
+    }
+    
+    @Test
+    void immediateOrderCancelsWhatItCannotFill() {
+        book.submitLimit(1, 1, false, 100, 3);
+        book.submitLimit(2, 1, false, 105, 3);
+        events.clear();
+        
+        long filled = book.submitImmediate(10, 9, true, 101, 10);
+        
+        assertEquals(3, filled);
+        assertEquals(List.of("trade 10 1 100 3", "closed 1 0", "closed 10 7"), events);
+        assertFalse(book.isOpen(10));
+        assertEquals(105, book.getBestAsk());
+    }
+    
+    @Test
+    void cancelRemovesTheOrderAndItsEmptyLevel() {
+        book.submitLimit(1, 1, true, 100, 5);
+        book.submitLimit(2, 1, true, 100, 5);
+        book.submitLimit(3, 1, true, 99, 5);
+        events.clear();
+        
+        assertTrue(book.cancel(1));
+        assertEquals(5, book.getBidQuantity(0));
+        assertTrue(book.cancel(2));
+        
+        assertEquals(List.of("closed 1 5", "closed 2 5"), events);
+        assertEquals(99, book.getBestBid());
+        assertEquals(1, book.getBidLevelCount());
+        assertEquals(1, book.getOpenOrderCount());
+    }
+    
+    @Test
+    void cancelOfUnknownOrderIsRejected() {
+        book.submitLimit(1, 1, true, 100, 5);
+        book.submitMarket(10, 9, false, 5);
+        events.clear();
+        
+        assertFalse(book.cancel(1));
+        assertFalse(book.cancel(42));
+        assertEquals(List.of("rejected 1", "rejected 42"), events);
+    }
+    
+    @Test
+    void levelsStaySortedAndPoolsGrow() {
+        for (int i = 1; i <= 1000; i++) {
+            book.submitLimit(i, 1, true, 1000 + (i * 7919) % 500, 1);
+        }
+        assertEquals(1000, book.getOpenOrderCount());
+        for (int depth = 1; depth < book.getBidLevelCount(); depth++) {
+            assertTrue(book.getBidPrice(depth) < book.getBidPrice(depth - 1));
+        }
+        for (int i = 1; i <= 1000; i++) {
+            assertTrue(book.cancel(i));
+        }
+        assertEquals(0, book.getOpenOrderCount());
+        assertEquals(0, book.getBidLevelCount());
+        assertEquals(Long.MIN_VALUE, book.getBestBid());
+        
+        // Freed slots are reused
+        book.submitLimit(2000, 1, false, 50, 1);
+        assertEquals(50, book.getBestAsk());
+    }
+    
+    @Test
+    void rejectsInvalidOrders() {
+        assertThrows(IllegalArgumentException.class, () -> book.submitLimit(1, 1, true, 100, 0));
+        assertThrows(IllegalArgumentException.class, () -> book.submitLimit(0, 1, true, 100, 1));
+        assertEquals(0, book.getOpenOrderCount());
+    }
+}
@@ -0,0 +1,60 @@
+package cryptotrader;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PnlEngineTest {
+    
+    @Test
+    void referenceFollowsTheHeldQuantity() {
+        PnlEngine pnl = new PnlEngine(PnlEngine.CostBasis.FIFO, 4);
+        pnl.setReferencePrice(0, Money.of(100));
+        pnl.setReferencePrice(1, Money.of(10));
+        assertEquals(0, pnl.getTotalReference());
+        
+        pnl.onBuy(0, Quantity.of(2), Money.of(110));
+        pnl.onBuy(1, Quantity.of(5), Money.of(9));
+        assertEquals(Money.of(250), pnl.getTotalReference());
+        
+        pnl.onSell(0, Quantity.of(1), Money.of(120));
+        assertEquals(Money.of(150), pnl.getTotalReference());
+        pnl.onSell(1, Quantity.of(5), Money.of(12));
+        assertEquals(Money.of(100), pnl.getTotalReference());
+    }
+    
+    @Test
+    void changeIsTheMarkedValueLessTheReference() {
+        PnlEngine pnl = new PnlEngine(PnlEngine.CostBasis.AVERAGE, 4);
+        pnl.setReferencePrice(2, Money.of(100));
+        pnl.onBuy(2, Quantity.of(3), Money.of(100));
+        pnl.onPrice(2, Money.of(105));
+        assertEquals(Money.of(15), pnl.getTotalChange());
+        
+        // A new reference price moves only that symbol's share
+        pnl.setReferencePrice(2, Money.of(110));
+        assertEquals(Money.of(330), pnl.getTotalReference());
+        assertEquals(Money.of(-15), pnl.getTotalChange());
+    }
+    
+    @Test
+    void restoredStateKeepsTheReferencePrices() throws IOException {
+        PnlEngine saved = new PnlEngine(PnlEngine.CostBasis.FIFO, 4);
+        saved.onBuy(3, Quantity.of(4), Money.of(20));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        saved.writeTo(new DataOutputStream(bytes));
+        
+        PnlEngine restored = new PnlEngine(PnlEngine.CostBasis.FIFO, 4);
+        restored.setReferencePrice(3, Money.of(25));
+        restored.onBuy(1, Quantity.of(1), Money.of(1));
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(Money.of(100), restored.getTotalReference());
+        assertEquals(0, restored.getQuantity(1));
+    }
+}
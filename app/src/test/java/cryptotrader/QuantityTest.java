@@ -0,0 +1,84 @@
+package cryptotrader;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantityTest {
+    @ParameterizedTest
+    @CsvSource({
+        "0, 0",
+        "1, 100000000",
+        "0.00000001, 1",
+        "-0.5, -50000000",
+        "21000000, 2100000000000000",
+        "0.123456784, 12345678",
+        "0.123456786, 12345679"
+    })
+    void ofRoundsToEightDecimals(double amount, long expected) {
+        assertEquals(expected, Quantity.of(amount));
+    }
+    
+    @ParameterizedTest
+    @CsvSource({
+        "1.23456789, 8, 123456789",
+        "1.23456789, 4, 123460000",
+        "1.23456789, 2, 123000000",
+        "1.23456789, 0, 100000000",
+        "2.7, 0, 300000000",
+        // Half a lot rounds up, towards positive for negatives too
+        "0.125, 2, 13000000",
+        "-0.125, 2, -12000000",
+        "0.124, 2, 12000000",
+        "0.004, 2, 0",
+        "0.5, 0, 100000000",
+        "-0.5, 0, 0"
+    })
+    void ofRoundsToTheAssetDecimals(double amount, int decimals, long expected) {
+        assertEquals(expected, Quantity.of(amount, decimals));
+        assertTrue(Quantity.isMultipleOfLot(expected, decimals));
+    }
+    
+    @ParameterizedTest
+    @CsvSource({
+        "0, 100000000",
+        "1, 10000000",
+        "2, 1000000",
+        "3, 100000",
+        "4, 10000",
+        "5, 1000",
+        "6, 100",
+        "7, 10",
+        "8, 1"
+    })
+    void lotSizeIsOneUnitOfTheLastDecimal(int decimals, long expected) {
+        assertEquals(expected, Quantity.lotSize(decimals));
+    }
+    
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 9, Integer.MAX_VALUE})
+    void rejectsDecimalsBeyondTheScale(int decimals) {
+        assertThrows(IllegalArgumentException.class, () -> Quantity.lotSize(decimals));
+        assertThrows(IllegalArgumentException.class, () -> Quantity.of(1, decimals));
+        assertThrows(IllegalArgumentException.class, () -> Quantity.isMultipleOfLot(0, decimals));
+    }
+    
+    @ParameterizedTest
+    @CsvSource({
+        "0, 0, true",
+        "100000000, 0, true",
+        "150000000, 0, false",
+        "123000000, 2, true",
+        "123400000, 2, false",
+        "-3000000, 2, true",
+        "-3000001, 2, false",
+        "123456789, 8, true",
+        "1, 7, false",
+        "10, 7, true"
+    })
+    void isMultipleOfLot(long quantity, int decimals, boolean expected) {
+        assertEquals(expected, Quantity.isMultipleOfLot(quantity, decimals));
+    }
+}
@@ -0,0 +1,133 @@
+package cryptotrader;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Checked against a TreeSet ordered by key, then id
+class RankIndexTest {
+    // Few distinct keys, so most of them are shared by several ids
+    private static final double[] KEYS = {-2.5, -0.0, 0.0, 1, 1, 3.75, 1e9, Double.NaN, Double.NEGATIVE_INFINITY};
+    
+    private final double[] keys = new double[64];
+    private final TreeSet<Integer> reference = new TreeSet<>(
+            Comparator.<Integer>comparingDouble(id -> keys[id]).thenComparingInt(id -> id));
+    
+    @Test
+    void equalKeysRankById() {
+        RankIndex index = new RankIndex(8);
+        index.put(5, 1.0);
+        index.put(2, 1.0);
+        index.put(7, 0.5);
+        index.put(3, 1.0);
+        
+        assertArrayEquals(new int[] {7, 2, 3, 5}, index.toArray());
+        assertEquals(1, index.rankOf(2));
+        assertEquals(3, index.rankOf(5));
+        assertEquals(3, index.idAt(2));
+        
+        // Moving to a key it shares puts the id among the others by id
+        index.put(7, 1.0);
+        assertArrayEquals(new int[] {2, 3, 5, 7}, index.toArray());
+    }
+    
+    @Test
+    void keysCompareLikeDoubleCompare() {
+        RankIndex index = new RankIndex(4);
+        index.put(0, Double.NaN);
+        index.put(1, 0.0);
+        index.put(2, -0.0);
+        index.put(3, Double.NEGATIVE_INFINITY);
+        assertArrayEquals(new int[] {3, 2, 1, 0}, index.toArray());
+    }
+    
+    @Test
+    void matchesASortedReferenceUnderRandomUpdates() {
+        Random random = new Random(7);
+        // Starts small to exercise growing
+        RankIndex index = new RankIndex(4);
+        for (int step = 0; step < 20_000; step++) {
+            int id = random.nextInt(keys.length);
+            int action = random.nextInt(10);
+            if (step % 5000 == 4999) {
+                index.clear();
+                reference.clear();
+            } else if (action == 0) {
+                index.remove(id);
+                reference.remove(id);
+            } else {
+                double key = action < 5 ? KEYS[random.nextInt(KEYS.length)] : random.nextInt(20) - 10;
+                reference.remove(id);
+                keys[id] = key;
+                reference.add(id);
+                index.put(id, key);
+            }
+            if (step % 50 == 0 || step < 200) {
+                assertMatchesReference(index);
+            }
+        }
+        assertMatchesReference(index);
+    }
+    
+    @Test
+    void removeAndClear() {
+        RankIndex index = new RankIndex(4);
+        for (int id = 0; id < 4; id++) {
+            index.put(id, 4 - id);
+        }
+        index.remove(2);
+        index.remove(2);
+        index.remove(99);
+        assertEquals(3, index.size());
+        assertFalse(index.contains(2));
+        assertEquals(-1, index.rankOf(2));
+        assertArrayEquals(new int[] {3, 1, 0}, index.toArray());
+        assertThrows(IllegalArgumentException.class, () -> index.getKey(2));
+        
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(0, index.toArray().length);
+        assertEquals(-1, index.rankOf(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.idAt(0));
+        
+        index.put(1, 5);
+        assertArrayEquals(new int[] {1}, index.toArray());
+        assertEquals(5, index.getKey(1));
+    }
+    
+    @Test
+    void rejectsBadArguments() {
+        RankIndex index = new RankIndex(2);
+        index.put(0, 1);
+        assertThrows(IllegalArgumentException.class, () -> index.put(-1, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.idAt(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.idAt(1));
+        assertFalse(index.contains(-1));
+        assertFalse(index.contains(1_000));
+    }
+    
+    private void assertMatchesReference(RankIndex index) {
+        List<Integer> sorted = new ArrayList<>(reference);
+        assertEquals(sorted.size(), index.size());
+        int[] ids = index.toArray();
+        for (int rank = 0; rank < sorted.size(); rank++) {
+            int id = sorted.get(rank);
+            assertEquals(id, ids[rank]);
+            assertEquals(id, index.idAt(rank));
+            assertEquals(rank, index.rankOf(id));
+            assertEquals(0, Double.compare(keys[id], index.getKey(id)));
+        }
+        for (int id = 0; id < keys.length; id++) {
+            assertEquals(reference.contains(id), index.contains(id));
+            if (!reference.contains(id)) {
+                assertEquals(-1, index.rankOf(id));
+            }
+        }
+    }
+}
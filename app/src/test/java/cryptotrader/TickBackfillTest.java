@@ -0,0 +1,74 @@
+package cryptotrader;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickBackfillTest {
+    @TempDir
+    Path directory;
+    
+    private TickStore store;
+    private final List<String> seen = new ArrayList<>();
+    private TickBackfill backfill;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        store = TickStore.open(directory, new String[] {"BTC", "ETH"}, 256, OhlcvAggregator.HOUR);
+        // An earlier run's history
+        store.onTick(tick(0, 1_000, 10));
+        store.onTick(tick(0, 2_000, 11));
+        store.onTick(tick(1, 1_500, 20));
+        backfill = new TickBackfill(store, 2, tick -> seen.add(tick.getSymbolId() + "@" + tick.getTimestamp()));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+    
+    @Test
+    void holdsLiveTicksBackUntilTheHistoryIsLoaded() {
+        backfill.onTick(tick(0, 3_000, 12));
+        backfill.onTick(tick(1, 3_100, 21));
+        assertTrue(seen.isEmpty());
+        assertEquals(2, store.getTickCount(0));
+        
+        backfill.loadAll(0);
+        
+        assertEquals(List.of("0@1000", "0@2000", "0@3000", "1@1500", "1@3100"), seen);
+        // The held ticks reached the store once, after the history
+        assertEquals(List.of(1_000L, 2_000L, 3_000L), timestamps(0));
+        assertEquals(List.of(1_500L, 3_100L), timestamps(1));
+        
+        backfill.onTick(tick(1, 4_000, 22));
+        assertEquals("1@4000", seen.get(seen.size() - 1));
+        assertEquals(3, store.getTickCount(1));
+    }
+    
+    @Test
+    void historyStartsAtTheRequestedTime() {
+        backfill.loadAll(1_500);
+        assertEquals(List.of("0@2000", "1@1500"), seen);
+    }
+    
+    private List<Long> timestamps(int symbolId) {
+        List<Long> timestamps = new ArrayList<>();
+        store.scan(symbolId, Long.MIN_VALUE, Long.MAX_VALUE, (timestamp, price, size) -> timestamps.add(timestamp));
+        return timestamps;
+    }
+    
+    private static Tick tick(int symbolId, long timestamp, double price) {
+        Tick tick = new Tick();
+        tick.set(symbolId, price, 1, timestamp);
+        return tick;
+    }
+}
@@ -0,0 +1,204 @@
+package cryptotrader;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The fixture has 3000 ticks in segments of 1024, four blocks each, two
+// apart in time except for runs of equal timestamps: ticks 250 to 599 at
+// 500 fill block 1 and reach into blocks 0 and 2, ticks 1000 to 1099 at 1302
+// and 2040 to 2059 at 3184 cross into the next segment.
+class TickStoreTest {
+    private static final int SEGMENT_TICKS = 1024;
+    private static final int TICKS = 3000;
+    
+    @TempDir
+    Path directory;
+    
+    private TickStore store;
+    
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+    
+    @ParameterizedTest
+    @CsvSource({
+        "0, 1",
+        "1, 1",
+        "-1, 1",
+        "63, 1",
+        "-64, 1",
+        "64, 2",
+        "-65, 2",
+        "8191, 2",
+        "8192, 3",
+        "1000000000, 5",
+        "-1000000000000, 6",
+        "9223372036854775807, 10",
+        "-9223372036854775808, 10"
+    })
+    void zigzagVarintRoundTrips(long value, int bytes) {
+        assertEquals(value, TickStore.unzigzag(TickStore.zigzag(value)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TickStore.writeVarLong(out, TickStore.zigzag(value));
+        TickStore.writeVarLong(out, TickStore.zigzag(-value));
+        ByteBuffer in = ByteBuffer.wrap(out.toByteArray());
+        assertEquals(value, TickStore.unzigzag(TickStore.readVarLong(in)));
+        assertEquals(bytes, in.position());
+        assertEquals(-value, TickStore.unzigzag(TickStore.readVarLong(in)));
+        assertFalse(in.hasRemaining());
+    }
+    
+    // Rows are from, to and the number of ticks in between, with the
+    // segments before the last one compressed
+    @ParameterizedTest
+    @CsvSource({
+        "-9223372036854775808, 9223372036854775807, 3000",
+        // Starting and ending mid-block
+        "200, 400, 100",
+        "201, 399, 99",
+        // Equal timestamps across block boundaries
+        "500, 501, 350",
+        "499, 502, 350",
+        "500, 500, 0",
+        "501, 502, 0",
+        // and across segment boundaries
+        "1302, 1303, 100",
+        "1300, 1304, 101",
+        "3184, 3185, 20",
+        "3000, 3184, 92",
+        "3184, 5064, 959",
+        "5064, 5065, 1",
+        "5066, 6000, 0",
+        "130, 4000, 2402"
+    })
+    void scanVisitsExactlyTheRange(long from, long to, int count) throws IOException {
+        long[] timestamps = writeFixture();
+        store.close();
+        store = open();
+        assertTrue(Files.exists(directory.resolve("BTC").resolve(String.format("%020d.cold", 0))));
+        assertTrue(Files.exists(directory.resolve("BTC").resolve(String.format("%020d.cold", 1))));
+        
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < TICKS; i++) {
+            if (timestamps[i] >= from && timestamps[i] < to) {
+                expected.add(i);
+            }
+        }
+        List<Integer> visited = scan(from, to);
+        assertEquals(count, visited.size());
+        assertEquals(expected, visited);
+    }
+    
+    @Test
+    void scanReadsRawSegmentsBeforeTheyAreCompressed() throws IOException {
+        long[] timestamps = writeFixture();
+        // The first two segments may or may not be compressed yet
+        List<Integer> visited = scan(timestamps[1000], timestamps[1100]);
+        assertEquals(100, visited.size());
+        assertEquals(1000, visited.get(0));
+        assertEquals(TICKS, store.getTickCount(0));
+    }
+    
+    @Test
+    void reopenedRawSegmentKeepsItsTicks() throws IOException {
+        store = open();
+        for (int i = 0; i < 100; i++) {
+            store.onTick(tick(i, i));
+        }
+        store.close();
+        
+        store = open();
+        assertEquals(100, store.getTickCount(0));
+        store.onTick(tick(100, 100));
+        assertEquals(101, scan(Long.MIN_VALUE, Long.MAX_VALUE).size());
+        assertFalse(Files.exists(directory.resolve("BTC").resolve(String.format("%020d.raw", 1))));
+    }
+    
+    @Test
+    void rawSegmentLeftNextToItsColdSegmentIsDropped() throws IOException {
+        store = open();
+        for (int i = 0; i < SEGMENT_TICKS; i++) {
+            store.onTick(tick(i, i));
+        }
+        store.close();
+        Path raw = directory.resolve("BTC").resolve(String.format("%020d.raw", 0));
+        Path copy = directory.resolve("full.raw");
+        Files.copy(raw, copy);
+        
+        // Reopening compresses the full raw segment and deletes it
+        store = open();
+        store.close();
+        assertFalse(Files.exists(raw));
+        
+        // As if the process died between writing the cold file and deleting the raw one
+        Files.copy(copy, raw, StandardCopyOption.REPLACE_EXISTING);
+        store = open();
+        assertFalse(Files.exists(raw));
+        List<Integer> visited = scan(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(SEGMENT_TICKS, visited.size());
+        assertEquals(SEGMENT_TICKS - 1, visited.get(SEGMENT_TICKS - 1));
+        
+        store.onTick(tick(SEGMENT_TICKS, SEGMENT_TICKS));
+        assertEquals(SEGMENT_TICKS + 1, store.getTickCount(0));
+    }
+    
+    @Test
+    void closeKeepsTheInterruptOfTheCallingThread() throws IOException {
+        store = open();
+        Thread.currentThread().interrupt();
+        store.close();
+        assertTrue(Thread.interrupted());
+        store = null;
+    }
+    
+    private TickStore open() throws IOException {
+        return TickStore.open(directory, new String[] {"BTC"}, SEGMENT_TICKS, Long.MAX_VALUE / 2);
+    }
+    
+    private long[] writeFixture() throws IOException {
+        store = open();
+        long[] timestamps = new long[TICKS];
+        for (int i = 1; i < TICKS; i++) {
+            boolean equal = i > 250 && i < 600 || i > 1000 && i < 1100 || i > 2040 && i < 2060;
+            timestamps[i] = timestamps[i - 1] + (equal ? 0 : 2);
+        }
+        for (int i = 0; i < TICKS; i++) {
+            store.onTick(tick(i, timestamps[i]));
+        }
+        return timestamps;
+    }
+    
+    // Tick i has a price that gives i back, with 8 decimals so it survives compression
+    private static Tick tick(int i, long timestamp) {
+        Tick tick = new Tick();
+        tick.set(0, 100 + i * 0.00000001, (i % 7) * 0.125, timestamp);
+        return tick;
+    }
+    
+    private List<Integer> scan(long from, long to) {
+        List<Integer> visited = new ArrayList<>();
+        store.scan(0, from, to, (timestamp, price, size) -> {
+            int i = (int) (Money.of(price) - Money.of(100));
+            assertEquals((i % 7) * 0.125, size);
+            visited.add(i);
+        });
+        return visited;
+    }
+}
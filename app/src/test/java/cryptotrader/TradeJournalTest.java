@@ -0,0 +1,295 @@
+package cryptotrader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The sync thread is left to sleep (syncMillis is a minute); the tests call
+// sync() where the background work has to happen
+class TradeJournalTest {
+    // Magic and format version at the start of every segment
+    private static final int SEGMENT_HEADER = 8;
+    // A balance record is the 25 byte header plus the cash
+    private static final int BALANCE_SIZE = 33;
+    // Room for four balance records, the fifth starts a new segment
+    private static final int SMALL_SEGMENT = 200;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void replaysEveryRecordInOrder() throws IOException {
+        try (TradeJournal journal = open(1 << 16)) {
+            assertEquals(1, journal.appendOrder(7, 2, true, true, Money.of(100), Quantity.of(3)));
+            assertEquals(2, journal.appendFill(7, 2, true, Money.of(99), Quantity.of(1)));
+            assertEquals(3, journal.appendBalance(Money.of(901)));
+            assertEquals(4, journal.appendOrderClosed(7, 2, Quantity.of(2)));
+        }
+        
+        try (TradeJournal journal = open(1 << 16)) {
+            assertEquals(4, journal.getLastSequence());
+            assertEquals(List.of(
+                    "order 7 2 buy limit " + Money.of(100) + " " + Quantity.of(3),
+                    "fill 7 2 buy " + Money.of(99) + " " + Quantity.of(1),
+                    "balance " + Money.of(901),
+                    "closed 7 2 " + Quantity.of(2)), replay(journal));
+        }
+    }
+    
+    @Test
+    void zeroLengthEndsTheJournal() throws IOException {
+        assertTornTailIsDropped(segment -> segment.putInt(SEGMENT_HEADER + 2 * BALANCE_SIZE, 0));
+    }
+    
+    @Test
+    void lengthPastTheSegmentEndsTheJournal() throws IOException {
+        assertTornTailIsDropped(segment -> segment.putInt(SEGMENT_HEADER + 2 * BALANCE_SIZE, 1 << 20));
+    }
+    
+    @Test
+    void partiallyWrittenRecordEndsTheJournal() throws IOException {
+        // The length made it to disk, the end of the payload did not
+        assertTornTailIsDropped(segment -> segment.putInt(SEGMENT_HEADER + 3 * BALANCE_SIZE - 4, 0));
+    }
+    
+    @Test
+    void badChecksumEndsTheJournal() throws IOException {
+        int checksum = SEGMENT_HEADER + 2 * BALANCE_SIZE + 4;
+        assertTornTailIsDropped(segment -> segment.putInt(checksum, segment.getInt(checksum) ^ 1));
+    }
+    
+    @Test
+    void snapshotReplacesTheRecordsItCovers() throws IOException {
+        try (TradeJournal journal = open(1 << 16)) {
+            journal.appendBalance(1);
+            journal.appendBalance(2);
+            journal.writeSnapshot(out -> out.writeLong(42));
+            journal.appendBalance(3);
+            journal.sync();
+            assertEquals(List.of("snapshot-00000000000000000002.dat"), files("snapshot-"));
+            
+            journal.appendBalance(4);
+            journal.writeSnapshot(out -> out.writeLong(43));
+            journal.appendBalance(5);
+        }
+        
+        // The second snapshot was written on close and replaced the first
+        try (TradeJournal journal = open(1 << 16)) {
+            assertEquals(List.of("snapshot 4 43", "balance 5"), replay(journal));
+            assertEquals(List.of("snapshot-00000000000000000004.dat"), files("snapshot-"));
+            assertEquals(6, journal.appendBalance(6));
+        }
+    }
+    
+    @Test
+    void snapshotIsDueAfterTheConfiguredRecords() throws IOException {
+        try (TradeJournal journal = new TradeJournal(directory, 1 << 16, 1 << 10, 60_000, 3)) {
+            journal.appendBalance(1);
+            journal.appendBalance(2);
+            assertFalse(journal.isSnapshotDue());
+            journal.appendBalance(3);
+            assertTrue(journal.isSnapshotDue());
+            journal.writeSnapshot(out -> out.writeLong(3));
+            assertFalse(journal.isSnapshotDue());
+        }
+    }
+    
+    @Test
+    void fullSegmentRollsOverToTheStandby() throws IOException {
+        try (TradeJournal journal = open(SMALL_SEGMENT)) {
+            for (int cash = 1; cash <= 10; cash++) {
+                // Maps the standby before each roll
+                journal.sync();
+                journal.appendBalance(cash);
+            }
+            assertEquals(List.of(
+                    "journal-00000000000000000001.dat",
+                    "journal-00000000000000000005.dat",
+                    "journal-00000000000000000009.dat",
+                    "journal-standby.tmp"), files("journal-"));
+        }
+        assertEquals(List.of(
+                "journal-00000000000000000001.dat",
+                "journal-00000000000000000005.dat",
+                "journal-00000000000000000009.dat"), files("journal-"));
+        
+        try (TradeJournal journal = open(SMALL_SEGMENT)) {
+            assertEquals(balances(1, 10), replay(journal));
+        }
+    }
+    
+    @Test
+    void fullSegmentRollsOverWithoutAStandby() throws IOException {
+        try (TradeJournal journal = open(SMALL_SEGMENT)) {
+            for (int cash = 1; cash <= 10; cash++) {
+                journal.appendBalance(cash);
+            }
+            assertEquals(3, files("journal-0").size());
+        }
+        try (TradeJournal journal = open(SMALL_SEGMENT)) {
+            assertEquals(balances(1, 10), replay(journal));
+            assertEquals(11, journal.appendBalance(11));
+        }
+    }
+    
+    @Test
+    void snapshotDeletesOnlyTheSegmentsItCovers() throws IOException {
+        try (TradeJournal journal = open(SMALL_SEGMENT)) {
+            for (int cash = 1; cash <= 6; cash++) {
+                journal.appendBalance(cash);
+            }
+            journal.writeSnapshot(out -> out.writeLong(6));
+            journal.sync();
+            // Records 5 and 6 share their segment with 7 and 8, which the
+            // snapshot does not cover
+            assertEquals(List.of("journal-00000000000000000005.dat"), files("journal-0"));
+            
+            for (int cash = 7; cash <= 12; cash++) {
+                journal.appendBalance(cash);
+            }
+            journal.writeSnapshot(out -> out.writeLong(12));
+            journal.sync();
+            assertEquals(List.of("journal-00000000000000000009.dat"), files("journal-0"));
+            journal.appendBalance(13);
+        }
+        
+        try (TradeJournal journal = open(SMALL_SEGMENT)) {
+            assertEquals(List.of("snapshot 12 12", "balance 13"), replay(journal));
+        }
+    }
+    
+    @Test
+    void journalOfAnotherFormatIsMovedAside() throws IOException {
+        // A segment from before the header, starting with a record length
+        Path journalDirectory = directory.resolve("journal");
+        Files.createDirectories(journalDirectory);
+        ByteBuffer legacy = ByteBuffer.allocate(SMALL_SEGMENT).putInt(BALANCE_SIZE).putInt(0x12345678);
+        Files.write(journalDirectory.resolve("journal-00000000000000000001.dat"), legacy.array());
+        Files.write(journalDirectory.resolve("snapshot-00000000000000000007.dat"), new byte[8]);
+        
+        try (TradeJournal journal = new TradeJournal(journalDirectory, SMALL_SEGMENT, 1 << 10, 60_000, 0)) {
+            assertEquals(List.of(), replay(journal));
+            assertEquals(1, journal.appendBalance(1));
+        }
+        try (TradeJournal journal = new TradeJournal(journalDirectory, SMALL_SEGMENT, 1 << 10, 60_000, 0)) {
+            assertEquals(List.of("balance 1"), replay(journal));
+        }
+        List<String> aside = files("journal-old-");
+        assertEquals(1, aside.size());
+        try (Stream<Path> old = Files.list(directory.resolve(aside.get(0)))) {
+            assertEquals(List.of("journal-00000000000000000001.dat", "snapshot-00000000000000000007.dat"),
+                    old.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList()));
+        }
+    }
+    
+    @Test
+    void segmentWhoseHeaderNeverReachedTheDiskIsReused() throws IOException {
+        try (TradeJournal journal = open(SMALL_SEGMENT)) {
+            for (int cash = 1; cash <= 4; cash++) {
+                journal.appendBalance(cash);
+            }
+        }
+        // Created by the fifth append, then the process died
+        Files.write(directory.resolve("journal-00000000000000000005.dat"), new byte[SMALL_SEGMENT]);
+        
+        try (TradeJournal journal = open(SMALL_SEGMENT)) {
+            assertEquals(balances(1, 4), replay(journal));
+            assertEquals(5, journal.appendBalance(5));
+        }
+        try (TradeJournal journal = open(SMALL_SEGMENT)) {
+            assertEquals(balances(1, 5), replay(journal));
+        }
+        assertEquals(List.of(), files("journal-old-"));
+    }
+    
+    // Writes three balance records, damages the third on disk and checks
+    // that the journal ends after the second and is appended to from there
+    private void assertTornTailIsDropped(Consumer<ByteBuffer> damage) throws IOException {
+        try (TradeJournal journal = open(1 << 16)) {
+            journal.appendBalance(1);
+            journal.appendBalance(2);
+            journal.appendBalance(3);
+        }
+        try (FileChannel file = FileChannel.open(directory.resolve("journal-00000000000000000001.dat"),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            damage.accept(file.map(FileChannel.MapMode.READ_WRITE, 0, file.size()));
+        }
+        
+        try (TradeJournal journal = open(1 << 16)) {
+            assertEquals(2, journal.getLastSequence());
+            assertEquals(balances(1, 2), replay(journal));
+            assertEquals(3, journal.appendBalance(30));
+            assertEquals(4, journal.appendBalance(40));
+        }
+        try (TradeJournal journal = open(1 << 16)) {
+            assertEquals(List.of("balance 1", "balance 2", "balance 30", "balance 40"), replay(journal));
+        }
+    }
+    
+    private TradeJournal open(int segmentSize) throws IOException {
+        return new TradeJournal(directory, segmentSize, 1 << 10, 60_000, 0);
+    }
+    
+    private List<String> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+    
+    private static List<String> balances(int from, int to) {
+        List<String> expected = new ArrayList<>();
+        for (int cash = from; cash <= to; cash++) {
+            expected.add("balance " + cash);
+        }
+        return expected;
+    }
+    
+    private static List<String> replay(TradeJournal journal) throws IOException {
+        List<String> events = new ArrayList<>();
+        journal.replay(new TradeJournal.Replayer() {
+            @Override
+            public void onSnapshot(long sequence, DataInputStream in) throws IOException {
+                events.add("snapshot " + sequence + " " + in.readLong());
+            }
+            
+            @Override
+            public void onOrder(long orderId, int symbolId, boolean buy, boolean limit, long price, long amount) {
+                events.add("order " + orderId + " " + symbolId + (buy ? " buy" : " sell")
+                        + (limit ? " limit " : " market ") + price + " " + amount);
+            }
+            
+            @Override
+            public void onFill(long orderId, int symbolId, boolean buy, long price, long quantity) {
+                events.add("fill " + orderId + " " + symbolId + (buy ? " buy " : " sell ") + price + " " + quantity);
+            }
+            
+            @Override
+            public void onOrderClosed(long orderId, int symbolId, long unfilled) {
+                events.add("closed " + orderId + " " + symbolId + " " + unfilled);
+            }
+            
+            @Override
+            public void onBalance(long cash) {
+                events.add("balance " + cash);
+            }
+        });
+        return events;
+    }
+}
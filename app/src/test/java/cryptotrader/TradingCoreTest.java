@@ -0,0 +1,195 @@
+package cryptotrader;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The engine is not started: commands are applied on the test thread with
+// processCommands, so every step is deterministic
+class TradingCoreTest {
+    private static final long CASH = Money.of(10_000);
+    
+    private TradingCore core;
+    private MatchingEngine engine;
+    private int account;
+    
+    @BeforeEach
+    void setUp() {
+        core = new TradingCore(4, PnlEngine.CostBasis.FIFO);
+        engine = core.getEngine();
+        account = core.openAccount(CASH);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        core.close();
+    }
+    
+    @Test
+    void readMarksTheSymbolsThatTicked() {
+        core.onPrice(0, Money.of(100));
+        core.onPrice(1, Money.of(10));
+        buy(0, 2);
+        buy(1, 5);
+        assertEquals(Money.of(250), value());
+        
+        core.onPrice(1, Money.of(12));
+        core.onPrice(1, Money.of(11));
+        assertEquals(Money.of(255), value());
+        assertEquals(Money.of(11), lastPrice(1));
+        // Nothing ticked since
+        assertEquals(Money.of(255), value());
+    }
+    
+    @Test
+    void accountThatFellARingBehindIsMarkedInFull() {
+        core.onPrice(2, Money.of(50));
+        buy(2, 1);
+        for (int i = 1; i <= 10_000; i++) {
+            core.onPrice(3, Money.of(i));
+        }
+        core.onPrice(2, Money.of(60));
+        assertEquals(Money.of(60), value());
+    }
+    
+    @Test
+    void readersCatchUpIndependently() {
+        int other = core.openAccount(CASH);
+        core.onPrice(0, Money.of(100));
+        buy(0, 1);
+        core.update(other, a -> a.getPnl().onBuy(0, Quantity.of(3), Money.of(100)));
+        
+        core.onPrice(0, Money.of(110));
+        assertEquals(Money.of(110), value());
+        core.onPrice(0, Money.of(120));
+        assertEquals(Money.of(360), core.getPortfolioValue(other));
+        assertEquals(Money.of(120), value());
+    }
+    
+    @Test
+    void positionsReplacedByAnUpdateAreMarked() {
+        core.onPrice(1, Money.of(30));
+        // Bought at another price than the tick; the update marks it afterwards
+        buy(1, 2);
+        assertEquals(Money.of(60), value());
+    }
+    
+    @Test
+    void basketPlacesEveryOrderAndReservesForAll() throws TradeRejectedException {
+        quote(0, 100);
+        quote(1, 10);
+        buy(1, 20);
+        List<OrderRecord> orders = core.placeBasket(account, List.of(
+                limit(0, true, 90, 50),
+                limit(1, false, 12, 15),
+                new BasketOrder(0, true, false, Money.of(101), Quantity.of(10))));
+        engine.processCommands(Integer.MAX_VALUE);
+        
+        assertEquals(3, orders.size());
+        // The market buy filled at the house quote, the limit orders rest
+        assertEquals(Quantity.of(10), orders.get(2).getFilled());
+        assertEquals(2, openOrders());
+        assertEquals(CASH - Money.of(1000), core.getCash(account));
+        assertEquals(CASH - Money.of(1000) - Money.of(4500), availableCash());
+        assertEquals(Quantity.of(5), availableHoldings(1));
+    }
+    
+    @Test
+    void basketBuysAreCoveredByTheCashTogether() {
+        quote(0, 100);
+        quote(1, 10);
+        // 5400 and 3600 fit, the third buy takes the basket past the cash
+        TradeRejectedException rejected = assertThrows(TradeRejectedException.class,
+                () -> core.placeBasket(account, List.of(
+                        limit(0, true, 90, 60),
+                        limit(1, true, 9, 400),
+                        limit(1, true, 9, 200))));
+        assertEquals(TradeRejectedException.Reason.INSUFFICIENT_FUNDS, rejected.getReason());
+        assertEquals(2, rejected.getOrderIndex());
+        assertEquals(CASH, rejected.getAvailable());
+        assertNothingPlaced();
+    }
+    
+    @Test
+    void basketSellsDoNotPayForItsBuys() {
+        quote(0, 100);
+        buy(0, 100);
+        TradeRejectedException rejected = assertThrows(TradeRejectedException.class,
+                () -> core.placeBasket(account, List.of(
+                        limit(0, false, 110, 100),
+                        limit(0, true, 90, 200))));
+        assertEquals(TradeRejectedException.Reason.INSUFFICIENT_FUNDS, rejected.getReason());
+        assertEquals(1, rejected.getOrderIndex());
+        assertNothingPlaced();
+        assertEquals(Quantity.of(100), availableHoldings(0));
+    }
+    
+    @Test
+    void basketSellsOfOneSymbolAreCoveredTogether() {
+        quote(0, 100);
+        buy(0, 2);
+        TradeRejectedException rejected = assertThrows(TradeRejectedException.class,
+                () -> core.placeBasket(account, List.of(
+                        limit(0, false, 110, 1.5),
+                        limit(0, true, 90, 1),
+                        limit(0, false, 120, 1))));
+        assertEquals(TradeRejectedException.Reason.INSUFFICIENT_HOLDINGS, rejected.getReason());
+        assertEquals(2, rejected.getOrderIndex());
+        assertEquals(Quantity.of(2), rejected.getAvailable());
+        assertNothingPlaced();
+        assertEquals(Quantity.of(2), availableHoldings(0));
+    }
+    
+    @Test
+    void basketWithABadOrderIsRejectedBeforeAnyCheck() {
+        quote(0, 100);
+        assertThrows(IllegalArgumentException.class, () -> core.placeBasket(account, List.of(
+                limit(0, true, 90, 1),
+                new BasketOrder(7, true, true, Money.of(1), Quantity.of(1)))));
+        assertNothingPlaced();
+    }
+    
+    private void assertNothingPlaced() {
+        assertEquals(0, engine.processCommands(Integer.MAX_VALUE));
+        assertEquals(0, openOrders());
+        assertEquals(core.getCash(account), availableCash());
+    }
+    
+    private static BasketOrder limit(int symbolId, boolean buy, double price, double amount) {
+        return new BasketOrder(symbolId, buy, true, Money.of(price), Quantity.of(amount, 2));
+    }
+    
+    private void quote(int symbolId, double price) {
+        core.onPrice(symbolId, Money.of(price));
+        engine.quote(symbolId, price);
+        engine.processCommands(Integer.MAX_VALUE);
+    }
+    
+    private int openOrders() {
+        return core.read(account, Account::getOpenOrderCount);
+    }
+    
+    private long availableCash() {
+        return core.read(account, Account::getAvailableCash);
+    }
+    
+    private long availableHoldings(int symbolId) {
+        return core.read(account, a -> a.getAvailableQuantity(symbolId));
+    }
+    
+    private void buy(int symbolId, double amount) {
+        core.update(account, a -> a.getPnl().onBuy(symbolId, Quantity.of(amount), Money.of(1)));
+    }
+    
+    private long value() {
+        return core.getPortfolioValue(account);
+    }
+    
+    private long lastPrice(int symbolId) {
+        return core.read(account, a -> a.getPnl().getLastPrice(symbolId));
+    }
+}
@@ -0,0 +1,114 @@
+package cryptotrader;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Cost of evaluating price alerts on a tick, against a linear scan over the
+// same alerts. Armed alerts sit outside the band the price moves in, as most
+// alerts do most of the time; crossingTick also arms and triggers one alert.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertEngineBenchmark {
+    @Param({"10", "100", "1000"})
+    int symbols;
+    
+    @Param({"10", "1000", "10000"})
+    int alertsPerSymbol;
+    
+    private AlertEngine engine;
+    private double[] prices;
+    private double[][] aboveThresholds;
+    private double[][] belowThresholds;
+    private int fired;
+    private int next;
+    private long timestamp;
+    private double drift = 1;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        prices = BenchmarkData.prices(symbols, random);
+        engine = new AlertEngine(symbols, 60 * 60 * 1000L);
+        engine.setListener((alert, price, changePercent) -> fired++);
+        aboveThresholds = new double[symbols][];
+        belowThresholds = new double[symbols][];
+        for (int i = 0; i < symbols; i++) {
+            List<Double> above = new ArrayList<>();
+            List<Double> below = new ArrayList<>();
+            for (int j = 0; j < alertsPerSymbol; j++) {
+                // Two thirds price alerts at least 2% out of the band, the rest moves of 5% or more
+                double distance = 1.03 + random.nextDouble();
+                switch (j % 3) {
+                    case 0:
+                        engine.add(i, PriceAlert.Condition.ABOVE, prices[i] * distance);
+                        above.add(prices[i] * distance);
+                        break;
+                    case 1:
+                        engine.add(i, PriceAlert.Condition.BELOW, prices[i] / distance);
+                        below.add(prices[i] / distance);
+                        break;
+                    default:
+                        engine.add(i, PriceAlert.Condition.MOVE, 5 + random.nextDouble() * 20);
+                        break;
+                }
+            }
+            aboveThresholds[i] = above.stream().mapToDouble(Double::doubleValue).toArray();
+            belowThresholds[i] = below.stream().mapToDouble(Double::doubleValue).toArray();
+        }
+    }
+    
+    @Benchmark
+    public int indexedTick() {
+        int symbolId = nextSymbol();
+        engine.onTick(symbolId, timestamp += 10, prices[symbolId] * nextDrift(), 1);
+        return fired;
+    }
+    
+    // What every tick costs when each alert of the symbol is checked
+    @Benchmark
+    public int linearScanTick() {
+        int symbolId = nextSymbol();
+        double price = prices[symbolId] * nextDrift();
+        int crossed = 0;
+        for (double threshold : aboveThresholds[symbolId]) {
+            if (price >= threshold) {
+                crossed++;
+            }
+        }
+        for (double threshold : belowThresholds[symbolId]) {
+            if (price <= threshold) {
+                crossed++;
+            }
+        }
+        return crossed;
+    }
+    
+    @Benchmark
+    public int crossingTick() {
+        int symbolId = nextSymbol();
+        double price = prices[symbolId] * nextDrift();
+        engine.add(symbolId, PriceAlert.Condition.ABOVE, price * 0.999);
+        engine.onTick(symbolId, timestamp += 10, price, 1);
+        return fired;
+    }
+    
+    private int nextSymbol() {
+        int symbolId = next;
+        next = next + 1 == symbols ? 0 : next + 1;
+        return symbolId;
+    }
+    
+    // Stays within 1% of the starting prices
+    private double nextDrift() {
+        drift = drift > 1.01 ? 0.99 : drift + 0.0001;
+        return drift;
+    }
+}
@@ -0,0 +1,48 @@
+package cryptotrader;
+
+import java.util.Random;
+
+// Synthetic instruments and accounts shared by the JMH benchmarks. Seeded,
+// so every run and every fork sees the same data.
+final class BenchmarkData {
+    static final long SEED = 42;
+    
+    private BenchmarkData() {
+    }
+    
+    static String[] names(int symbols) {
+        String[] names = new String[symbols];
+        for (int i = 0; i < symbols; i++) {
+            names[i] = "Coin " + i + " (C" + i + ")";
+        }
+        return names;
+    }
+    
+    // Log-uniform between 0.01 and 100,000, like the spread of real coins
+    static double[] prices(int symbols, Random random) {
+        double[] prices = new double[symbols];
+        for (int i = 0; i < symbols; i++) {
+            prices[i] = Math.pow(10, -2 + random.nextDouble() * 7);
+        }
+        return prices;
+    }
+    
+    // Benchmarks take holdings up to the number of symbols
+    static int holdings(int symbols, int holdings) {
+        return Math.min(symbols, holdings);
+    }
+    
+    // Opens an account holding the first holdings symbols, bought at a spread
+    // of prices around the current ones so every position shows a P&L
+    static int openAccount(TradingCore core, double cash, int holdings, double quantity, double[] prices,
+            Random random) {
+        int account = core.openAccount(Money.of(cash));
+        core.update(account, acc -> {
+            for (int symbolId = 0; symbolId < holdings; symbolId++) {
+                double cost = prices[symbolId] * (0.8 + random.nextDouble() * 0.4);
+                acc.getPnl().onBuy(symbolId, Quantity.of(quantity), Money.of(cost));
+            }
+        });
+        return account;
+    }
+}
@@ -0,0 +1,30 @@
+package cryptotrader;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Entry point of benchmarks.jar. Takes the usual JMH options, e.g. a regexp
+// to select benchmarks or -p symbols=100, and adds the defaults we track
+// between changes: the gc profiler for allocation rates and a JSON result
+// file to compare runs with.
+//     java -jar benchmarks/target/benchmarks.jar [jmh options]
+public final class BenchmarkMain {
+    private BenchmarkMain() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+        if (options.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        if (!options.getResult().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON).result("jmh-result.json");
+        }
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package cryptotrader;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.DecimalFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Number formatting of one refresh of the market table's price and change
+// columns, and one of the portfolio's holdings, value, average price and P&L
+// columns: through DecimalFormat as the app used to, and through FixedFormat
+// into a String and into its buffer only.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormattingBenchmark {
+    @Param({"10", "100", "1000"})
+    int symbols;
+    
+    @Param({"1", "10", "100"})
+    int holdings;
+    
+    private final DecimalFormat df = new DecimalFormat("#,##0.00");
+    private final DecimalFormat changeFormat = new DecimalFormat("+#,##0.00;-#,##0.00");
+    private final FixedFormat amountFormat = new FixedFormat("#,##0.00");
+    private final FixedFormat moneyFormat = new FixedFormat("$#,##0.00");
+    private final FixedFormat percentFormat = new FixedFormat("+#,##0.00%");
+    private final FixedFormat profitLossFormat = new FixedFormat("$+#,##0.00");
+    
+    private double[] prices;
+    private double[] changes;
+    private double[] amounts;
+    private double[] avgPrices;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        prices = BenchmarkData.prices(symbols, random);
+        changes = new double[symbols];
+        for (int i = 0; i < symbols; i++) {
+            changes[i] = random.nextGaussian() * 3;
+        }
+        int held = BenchmarkData.holdings(symbols, holdings);
+        amounts = new double[held];
+        avgPrices = new double[held];
+        for (int i = 0; i < held; i++) {
+            amounts[i] = Math.pow(10, -3 + random.nextDouble() * 6);
+            avgPrices[i] = prices[i] * (0.8 + random.nextDouble() * 0.4);
+        }
+    }
+    
+    @Benchmark
+    public void marketColumns(Blackhole blackhole) {
+        for (int i = 0; i < prices.length; i++) {
+            blackhole.consume("$" + df.format(prices[i]));
+            blackhole.consume(changeFormat.format(changes[i]) + "%");
+        }
+    }
+    
+    @Benchmark
+    public void portfolioColumns(Blackhole blackhole) {
+        for (int i = 0; i < amounts.length; i++) {
+            blackhole.consume(df.format(amounts[i]));
+            blackhole.consume("$" + df.format(amounts[i] * prices[i]));
+            blackhole.consume("$" + df.format(avgPrices[i]));
+            blackhole.consume("$" + changeFormat.format(amounts[i] * (prices[i] - avgPrices[i])));
+        }
+    }
+    
+    @Benchmark
+    public void marketColumnsFixed(Blackhole blackhole) {
+        for (int i = 0; i < prices.length; i++) {
+            blackhole.consume(moneyFormat.format(prices[i]));
+            blackhole.consume(percentFormat.format(changes[i]));
+        }
+    }
+    
+    @Benchmark
+    public void portfolioColumnsFixed(Blackhole blackhole) {
+        for (int i = 0; i < amounts.length; i++) {
+            blackhole.consume(amountFormat.format(amounts[i]));
+            blackhole.consume(moneyFormat.format(amounts[i] * prices[i]));
+            blackhole.consume(moneyFormat.format(avgPrices[i]));
+            blackhole.consume(profitLossFormat.format(amounts[i] * (prices[i] - avgPrices[i])));
+        }
+    }
+    
+    // What painting straight from the buffer costs, with no String at all
+    @Benchmark
+    public int marketColumnsBuffer() {
+        int length = 0;
+        for (int i = 0; i < prices.length; i++) {
+            length += moneyFormat.write(prices[i]);
+            length += percentFormat.write(changes[i]);
+        }
+        return length;
+    }
+}
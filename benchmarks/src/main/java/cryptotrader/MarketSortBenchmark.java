@@ -0,0 +1,63 @@
+package cryptotrader;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableRowSorter;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// One tick on a market table sorted by 24h change: the row's change moves
+// and the sorter is told the row was updated, then the top row is looked
+// up as the table would paint it. MarketRowSorter moves the row in its
+// rank index; TableRowSorter sorts all rows again.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarketSortBenchmark {
+    @Param({"100", "1000", "10000"})
+    int symbols;
+    
+    @Param({"true", "false"})
+    boolean ranked;
+    
+    private MarketTableModel model;
+    private RowSorter<MarketTableModel> sorter;
+    private Random random;
+    
+    @Setup
+    public void setUp() {
+        random = new Random(BenchmarkData.SEED);
+        double[] prices = BenchmarkData.prices(symbols, random);
+        double[] changes = new double[symbols];
+        double[] supplies = new double[symbols];
+        for (int i = 0; i < symbols; i++) {
+            changes[i] = random.nextGaussian() * 5;
+            supplies[i] = 1_000_000;
+        }
+        model = new MarketTableModel(BenchmarkData.names(symbols), prices, changes, supplies);
+        if (ranked) {
+            sorter = new MarketRowSorter(model);
+        } else {
+            TableRowSorter<MarketTableModel> tableSorter = new TableRowSorter<>(model);
+            tableSorter.setSortsOnUpdates(true);
+            sorter = tableSorter;
+        }
+        sorter.setSortKeys(Collections.singletonList(
+                new RowSorter.SortKey(MarketTableModel.CHANGE_COLUMN, SortOrder.DESCENDING)));
+    }
+    
+    @Benchmark
+    public int tick() {
+        int row = random.nextInt(symbols);
+        double change = model.getChange(row) + random.nextGaussian() * 0.1;
+        model.update(row, model.getPrice(row) * (1 + change / 10_000), change);
+        sorter.rowsUpdated(row, row);
+        return sorter.convertRowIndexToModel(0);
+    }
+}
@@ -0,0 +1,136 @@
+package cryptotrader;
+
+import java.util.Random;
+
+// Headless throughput check for the order book and the matching engine.
+//     java -cp benchmarks/target/benchmarks.jar cryptotrader.OrderBookBenchmark [orders]
+// Runs a mix of 70% limit orders around a drifting mid price, 10% market
+// orders and 20% cancels, first directly against one book on this thread,
+// then through the engine's command ring from a producer thread.
+public class OrderBookBenchmark {
+    private static final long TICK = MatchingEngine.PRICE_SCALE / 100;
+    private static final long END_MARKER = Long.MAX_VALUE;
+    
+    public static void main(String[] args) throws Exception {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        long[] prices = new long[orders];
+        long[] quantities = new long[orders];
+        byte[] kinds = new byte[orders];
+        generate(orders, prices, quantities, kinds, new Random(42));
+        
+        for (int round = 0; round < 3; round++) {
+            runBook(orders, prices, quantities, kinds);
+        }
+        for (int round = 0; round < 3; round++) {
+            runEngine(orders, prices, quantities, kinds);
+        }
+    }
+    
+    // kinds: 0 limit buy, 1 limit sell, 2 market buy, 3 market sell, 4 cancel
+    private static void generate(int orders, long[] prices, long[] quantities, byte[] kinds, Random random) {
+        long mid = 40_000 * MatchingEngine.PRICE_SCALE;
+        for (int i = 0; i < orders; i++) {
+            mid += (random.nextInt(3) - 1) * TICK;
+            int roll = random.nextInt(100);
+            if (roll < 70) {
+                boolean buy = random.nextBoolean();
+                kinds[i] = (byte) (buy ? 0 : 1);
+                long offset = (1 + random.nextInt(50)) * TICK;
+                prices[i] = buy ? mid - offset : mid + offset;
+            } else if (roll < 80) {
+                kinds[i] = (byte) (random.nextBoolean() ? 2 : 3);
+            } else {
+                kinds[i] = 4;
+                // Cancel a recent order, which may already be gone
+                prices[i] = Math.max(1, i - random.nextInt(1000));
+            }
+            quantities[i] = (1 + random.nextInt(100)) * MatchingEngine.QUANTITY_SCALE / 1000;
+        }
+    }
+    
+    private static void runBook(int orders, long[] prices, long[] quantities, byte[] kinds) {
+        CountingListener listener = new CountingListener();
+        OrderBook book = new OrderBook(0, listener, 1 << 16);
+        long start = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            long orderId = i + 1;
+            switch (kinds[i]) {
+                case 0:
+                case 1:
+                    book.submitLimit(orderId, 1, kinds[i] == 0, prices[i], quantities[i]);
+                    break;
+                case 2:
+                case 3:
+                    book.submitMarket(orderId, 1, kinds[i] == 2, quantities[i]);
+                    break;
+                default:
+                    book.cancel(prices[i]);
+                    break;
+            }
+        }
+        report("book", orders, System.nanoTime() - start, listener);
+    }
+    
+    private static void runEngine(int orders, long[] prices, long[] quantities, byte[] kinds) throws Exception {
+        CountingListener listener = new CountingListener();
+        try (MatchingEngine engine = new MatchingEngine(1, listener)) {
+            engine.start();
+            long[] ids = new long[orders];
+            long start = System.nanoTime();
+            for (int i = 0; i < orders; i++) {
+                switch (kinds[i]) {
+                    case 0:
+                    case 1:
+                        ids[i] = engine.submitLimit(1, 0, kinds[i] == 0, prices[i], quantities[i]);
+                        break;
+                    case 2:
+                    case 3:
+                        ids[i] = engine.submitMarket(1, 0, kinds[i] == 2, quantities[i]);
+                        break;
+                    default:
+                        engine.cancel(0, ids[(int) prices[i] - 1]);
+                        break;
+                }
+            }
+            // Commands are applied in order, so once this marker is rejected
+            // everything before it has been processed
+            engine.cancel(0, END_MARKER);
+            while (!listener.done) {
+                Thread.onSpinWait();
+            }
+            report("engine", orders, System.nanoTime() - start, listener);
+        }
+    }
+    
+    private static void report(String name, int orders, long nanos, CountingListener listener) {
+        System.out.printf("%-7s %,d orders in %,d ms: %,.0f orders/s (%,d trades, %,d closed, %,d rejected cancels)%n",
+                name, orders, nanos / 1_000_000, orders * 1e9 / nanos, listener.trades, listener.closed, listener.rejected);
+    }
+    
+    private static final class CountingListener implements OrderEventListener {
+        volatile long trades;
+        volatile long closed;
+        volatile long rejected;
+        volatile boolean done;
+        
+        @Override
+        public void onTrade(int symbolId, long takerOrderId, int takerOwner, long makerOrderId, int makerOwner,
+                boolean takerBuys, long price, long quantity) {
+            trades++;
+        }
+        
+        @Override
+        public void onOrderClosed(int symbolId, long orderId, int owner, long unfilled) {
+            closed++;
+        }
+        
+        @Override
+        public void onCancelRejected(int symbolId, long orderId) {
+            if (orderId == END_MARKER) {
+                done = true;
+            } else {
+                rejected++;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package cryptotrader;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// The portfolio table: building it from the account as createPortfolioPanel
+// does and painting every cell once, and repainting after every held symbol
+// ticked, which formats the value and P&L columns again.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PortfolioTableBenchmark {
+    @Param({"10", "100", "1000"})
+    int symbols;
+    
+    @Param({"1", "10", "100"})
+    int holdings;
+    
+    private String[] names;
+    private double[] prices;
+    private TradingCore core;
+    private int account;
+    private PortfolioTableModel model;
+    private double drift = 1;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        names = BenchmarkData.names(symbols);
+        prices = BenchmarkData.prices(symbols, random);
+        core = new TradingCore(symbols, PnlEngine.CostBasis.FIFO);
+        for (int i = 0; i < symbols; i++) {
+            core.onPrice(i, Money.of(prices[i]));
+        }
+        account = BenchmarkData.openAccount(core, 1_000_000, BenchmarkData.holdings(symbols, holdings), 10,
+                prices, random);
+        model = build();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        core.close();
+    }
+    
+    @Benchmark
+    public void rebuild(Blackhole blackhole) {
+        PortfolioTableModel rebuilt = build();
+        paint(rebuilt, blackhole);
+    }
+    
+    @Benchmark
+    public void repriceAll(Blackhole blackhole) {
+        drift = drift > 1.01 ? 0.99 : drift + 0.0001;
+        for (int row = 0; row < model.getRowCount(); row++) {
+            int symbolId = model.getSymbolAt(row);
+            model.updatePrice(symbolId, prices[symbolId] * drift);
+        }
+        paint(model, blackhole);
+    }
+    
+    private PortfolioTableModel build() {
+        PortfolioTableModel built = new PortfolioTableModel(names);
+        core.update(account, acc -> {
+            PnlEngine pnl = acc.getPnl();
+            PositionStore positions = pnl.getPositions();
+            for (int i = 0; i < positions.size(); i++) {
+                int symbolId = positions.symbolAt(i);
+                built.setPosition(symbolId, Quantity.toDouble(positions.get(symbolId)), prices[symbolId],
+                        Money.toDouble(pnl.getAverageCost(symbolId)));
+            }
+        });
+        return built;
+    }
+    
+    // Asks for every cell's text, the way NumericCellRenderer paints it
+    private static void paint(PortfolioTableModel model, Blackhole blackhole) {
+        for (int row = 0; row < model.getRowCount(); row++) {
+            for (int column = 0; column < model.getColumnCount(); column++) {
+                Object value = model.getValueAt(row, column);
+                blackhole.consume(value instanceof NumericCell ? ((NumericCell) value).getText() : value);
+            }
+        }
+    }
+}
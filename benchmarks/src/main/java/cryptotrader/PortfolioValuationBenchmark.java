@@ -0,0 +1,71 @@
+package cryptotrader;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Cost of calculatePortfolioValue: marking an account's holdings to the
+// latest shared prices and summing them, as the UI does on every frame that
+// saw a tick.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PortfolioValuationBenchmark {
+    @Param({"10", "100", "1000"})
+    int symbols;
+    
+    @Param({"1", "10", "100"})
+    int holdings;
+    
+    private TradingCore core;
+    private int account;
+    private double[] prices;
+    private int held;
+    private int next;
+    private double drift = 1;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        prices = BenchmarkData.prices(symbols, random);
+        held = BenchmarkData.holdings(symbols, holdings);
+        core = new TradingCore(symbols, PnlEngine.CostBasis.FIFO);
+        for (int i = 0; i < symbols; i++) {
+            core.onPrice(i, Money.of(prices[i]));
+        }
+        account = BenchmarkData.openAccount(core, 1_000_000, held, 10, prices, random);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        core.close();
+    }
+    
+    // One held symbol ticked since the last valuation
+    @Benchmark
+    public long oneTick() {
+        int symbolId = next;
+        next = next + 1 == held ? 0 : next + 1;
+        core.onPrice(symbolId, Money.of(prices[symbolId] * nextDrift()));
+        return core.getPortfolioValue(account);
+    }
+    
+    // Every symbol ticked since the last valuation
+    @Benchmark
+    public long allTicked() {
+        double factor = nextDrift();
+        for (int i = 0; i < symbols; i++) {
+            core.onPrice(i, Money.of(prices[i] * factor));
+        }
+        return core.getPortfolioValue(account);
+    }
+    
+    private double nextDrift() {
+        drift = drift > 1.01 ? 0.99 : drift + 0.0001;
+        return drift;
+    }
+}
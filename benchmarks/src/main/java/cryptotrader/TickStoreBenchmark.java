@@ -0,0 +1,73 @@
+package cryptotrader;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Cost of a time-range query on the tick store, as the chart and the 24h
+// statistics run it, over a day of one symbol's ticks 100 ms apart. With
+// compressed, everything but the newest ticks sits in cold segments that
+// are decoded on the fly; otherwise the ticks are all read from raw columns.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickStoreBenchmark {
+    private static final int TICKS = 864_000;
+    private static final long SPACING = 100;
+    
+    @Param({"1", "60"})
+    int rangeMinutes;
+    
+    @Param({"true", "false"})
+    boolean compressed;
+    
+    private Path directory;
+    private TickStore store;
+    private Random random;
+    private double sum;
+    private final TickStore.TickVisitor visitor = (timestamp, price, size) -> sum += price * size;
+    
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("tick-store-benchmark");
+        int segmentTicks = compressed ? 1 << 16 : 1 << 20;
+        TickStore writer = TickStore.open(directory, new String[] {"BTC"}, segmentTicks, Long.MAX_VALUE / 2);
+        random = new Random(BenchmarkData.SEED);
+        Tick tick = new Tick();
+        double price = 40_000;
+        for (int i = 0; i < TICKS; i++) {
+            price *= 1 + random.nextGaussian() * 0.00005;
+            tick.set(0, Math.round(price * 100) / 100.0, Math.round(random.nextDouble() * 10_000) / 10_000.0,
+                    i * SPACING);
+            writer.onTick(tick);
+        }
+        // Waits for the compression of the full segments
+        writer.close();
+        store = TickStore.open(directory, new String[] {"BTC"}, segmentTicks, Long.MAX_VALUE / 2);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+    
+    @Benchmark
+    public double scanRange() {
+        long range = rangeMinutes * OhlcvAggregator.MINUTE;
+        long from = (long) (random.nextDouble() * (TICKS * SPACING - range));
+        store.scan(0, from, from + range, visitor);
+        return sum;
+    }
+}
@@ -0,0 +1,101 @@
+package cryptotrader;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// The trade path behind executeTrade: checking and reserving funds or
+// holdings and handing the order to the matching engine. Accepted orders are
+// marketable, so the engine fills them against house liquidity and books the
+// fills on its own thread; what is measured is the caller's side, including
+// waiting for room in the command ring once the engine falls behind.
+// Rejections build a TradeRejectedException, as the app sees them.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradeBenchmark {
+    private static final long ORDER_AMOUNT = Quantity.SCALE / 100;
+    
+    @Param({"10", "100", "1000"})
+    int symbols;
+    
+    @Param({"1", "10", "100"})
+    int holdings;
+    
+    private TradingCore core;
+    private int richAccount;
+    private int emptyAccount;
+    private double[] prices;
+    private long[] buyPrices;
+    private long[] sellPrices;
+    private int held;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        prices = BenchmarkData.prices(symbols, random);
+        held = BenchmarkData.holdings(symbols, holdings);
+        core = new TradingCore(symbols, PnlEngine.CostBasis.FIFO);
+        MatchingEngine engine = core.getEngine();
+        buyPrices = new long[symbols];
+        sellPrices = new long[symbols];
+        for (int i = 0; i < symbols; i++) {
+            core.onPrice(i, Money.of(prices[i]));
+            engine.quote(i, prices[i]);
+            buyPrices[i] = Money.of(prices[i] * 1.01);
+            sellPrices[i] = Money.of(prices[i] * 0.99);
+        }
+        engine.start();
+        // Enough cash and holdings that accepted orders never run dry
+        richAccount = BenchmarkData.openAccount(core, 1e15, held, 1e9, prices, random);
+        emptyAccount = core.openAccount(0);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        core.close();
+    }
+    
+    @Benchmark
+    public OrderRecord buyAccepted() throws TradeRejectedException {
+        int symbolId = nextHeld();
+        return core.placeOrder(richAccount, symbolId, true, false, buyPrices[symbolId], ORDER_AMOUNT);
+    }
+    
+    @Benchmark
+    public OrderRecord sellAccepted() throws TradeRejectedException {
+        int symbolId = nextHeld();
+        return core.placeOrder(richAccount, symbolId, false, false, sellPrices[symbolId], ORDER_AMOUNT);
+    }
+    
+    @Benchmark
+    public Object buyRejected() {
+        int symbolId = nextHeld();
+        try {
+            return core.placeOrder(emptyAccount, symbolId, true, false, buyPrices[symbolId], Quantity.SCALE);
+        } catch (TradeRejectedException e) {
+            return e;
+        }
+    }
+    
+    @Benchmark
+    public Object sellRejected() {
+        int symbolId = nextHeld();
+        try {
+            return core.placeOrder(emptyAccount, symbolId, false, false, sellPrices[symbolId], Quantity.SCALE);
+        } catch (TradeRejectedException e) {
+            return e;
+        }
+    }
+    
+    private int nextHeld() {
+        int symbolId = next;
+        next = next + 1 == held ? 0 : next + 1;
+        return symbolId;
+    }
+}